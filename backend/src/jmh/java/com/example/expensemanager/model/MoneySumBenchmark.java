@@ -0,0 +1,81 @@
+package com.example.expensemanager.model;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summing expense amounts as {@link BigDecimal} (one new object per addition) versus as
+ * {@link Money} fixed-point longs. Run with the GC profiler to see the allocation rate:
+ * {@code -Djmh.args="MoneySumBenchmark -prof gc"}; the long variants should report
+ * ~0 B/op, the BigDecimal ones a few dozen bytes per element.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MoneySumBenchmark {
+
+    @Param({"1000", "100000"})
+    private int rows;
+
+    private BigDecimal[] decimals;
+    private long[] minors;
+    private Expense[] expenses;
+
+    @Setup
+    public void setUp() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        decimals = new BigDecimal[rows];
+        minors = new long[rows];
+        expenses = new Expense[rows];
+        for (int i = 0; i < rows; i++) {
+            decimals[i] = BigDecimal.valueOf(random.nextLong(1, 10_000_000), 2);
+            minors[i] = Money.toMinor(decimals[i]);
+            expenses[i] = new Expense();
+            expenses[i].setAmount(decimals[i]);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalReduce() {
+        return Arrays.stream(decimals).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalLoop() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal amount : decimals) {
+            total = total.add(amount);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long minorLoop() {
+        long total = 0;
+        for (long amount : minors) {
+            total += amount;
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long expenseMinorLoop() {
+        long total = 0;
+        for (Expense expense : expenses) {
+            total += expense.getAmountMinor();
+        }
+        return total;
+    }
+
+    @Benchmark
+    public BigDecimal expenseMinorLoopToBoundary() {
+        return Money.toDecimal(expenseMinorLoop());
+    }
+}
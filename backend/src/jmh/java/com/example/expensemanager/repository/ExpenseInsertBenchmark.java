@@ -0,0 +1,91 @@
+package com.example.expensemanager.repository;
+
+import com.example.expensemanager.BenchmarkContext;
+import com.example.expensemanager.model.Expense;
+import com.example.expensemanager.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to insert 100k expenses through JPA with {@code hibernate.jdbc.batch_size} of 1
+ * (one statement round trip per row, as with IDENTITY ids) versus 50 (the configured value,
+ * matching the sequence allocationSize). Rows are persisted in chunks of 1,000 per
+ * transaction, flushing and clearing after each chunk like the CSV import does.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExpenseInsertBenchmark {
+
+    private static final int ROWS = 100_000;
+    private static final int CHUNK = 1_000;
+
+    @Param({"1", "50"})
+    public int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private Long userId;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = BenchmarkContext.start("spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        User user = new User();
+        user.setEmail("bench@example.com");
+        user.setPasswordHash("hash");
+        user.setFullName("Benchmark User");
+        user.setBaseCurrency("USD");
+        userId = context.getBean(UserRepository.class).save(user).getId();
+    }
+
+    @Setup(Level.Iteration)
+    public void deleteExpenses() {
+        transactionTemplate.executeWithoutResult(status ->
+                entityManager.createQuery("delete from Expense").executeUpdate());
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public int insert100k() {
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        for (int offset = 0; offset < ROWS; offset += CHUNK) {
+            int first = offset;
+            transactionTemplate.executeWithoutResult(status -> {
+                User user = entityManager.getReference(User.class, userId);
+                for (int i = first; i < first + CHUNK; i++) {
+                    Expense expense = new Expense();
+                    expense.setUser(user);
+                    expense.setAmount(BigDecimal.valueOf(i % 10_000, 2));
+                    expense.setDate(start.plusDays(i % 1_500));
+                    expense.setDescription("Expense " + i);
+                    expense.setOriginalCurrency("USD");
+                    expense.setOriginalAmount(expense.getAmount());
+                    entityManager.persist(expense);
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+        return ROWS;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.expensemanager.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of converting a batch of amounts between mixed currencies. {@code legacyViaUsd} is the
+ * previous algorithm (upper-casing both codes, two map lookups, a divide to USD and a multiply
+ * out of it per call); {@code snapshotByCode} and {@code snapshotById} use the precomputed
+ * cross-rate matrix of {@link RateSnapshot}, by currency code and by pre-resolved id.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CurrencyConversionBenchmark {
+
+    private static final int ROWS = 1_000;
+    private static final String[] CURRENCIES = {"USD", "EUR", "GBP", "JPY", "INR", "CAD", "AUD", "CHF"};
+
+    private Map<String, BigDecimal> usdRates;
+    private RateSnapshot snapshot;
+
+    private BigDecimal[] amounts;
+    private String[] from;
+    private String[] to;
+    private int[] fromIds;
+    private int[] toIds;
+
+    @Setup
+    public void setUp() {
+        usdRates = new HashMap<>();
+        usdRates.put("USD", BigDecimal.ONE);
+        usdRates.put("EUR", new BigDecimal("0.8803"));
+        usdRates.put("GBP", new BigDecimal("0.7399"));
+        usdRates.put("JPY", new BigDecimal("143.612"));
+        usdRates.put("INR", new BigDecimal("85.4123"));
+        usdRates.put("CAD", new BigDecimal("1.3721"));
+        usdRates.put("AUD", new BigDecimal("1.5487"));
+        usdRates.put("CHF", new BigDecimal("0.8214"));
+        snapshot = new RateSnapshot(usdRates, Instant.now(), "benchmark");
+
+        amounts = new BigDecimal[ROWS];
+        from = new String[ROWS];
+        to = new String[ROWS];
+        fromIds = new int[ROWS];
+        toIds = new int[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            amounts[i] = BigDecimal.valueOf(100 + i * 37L, 2);
+            from[i] = CURRENCIES[i % CURRENCIES.length];
+            to[i] = CURRENCIES[(i * 3 + 1) % CURRENCIES.length];
+            fromIds[i] = snapshot.idOf(from[i]);
+            toIds[i] = snapshot.idOf(to[i]);
+        }
+    }
+
+    @Benchmark
+    public void legacyViaUsd(Blackhole bh) {
+        for (int i = 0; i < ROWS; i++) {
+            bh.consume(legacyConvert(amounts[i], from[i], to[i]));
+        }
+    }
+
+    @Benchmark
+    public void snapshotByCode(Blackhole bh) {
+        for (int i = 0; i < ROWS; i++) {
+            bh.consume(snapshot.convert(amounts[i], from[i], to[i]));
+        }
+    }
+
+    @Benchmark
+    public void snapshotById(Blackhole bh) {
+        for (int i = 0; i < ROWS; i++) {
+            bh.consume(snapshot.convert(amounts[i], fromIds[i], toIds[i]));
+        }
+    }
+
+    private BigDecimal legacyConvert(BigDecimal amount, String fromCurrency, String toCurrency) {
+        if (fromCurrency.equalsIgnoreCase(toCurrency)) {
+            return amount;
+        }
+        BigDecimal amountUSD = amount;
+        if (!"USD".equalsIgnoreCase(fromCurrency)) {
+            BigDecimal rate = usdRates.get(fromCurrency.toUpperCase());
+            if (rate != null) {
+                amountUSD = amount.divide(rate, 6, RoundingMode.HALF_UP);
+            }
+        }
+        if ("USD".equalsIgnoreCase(toCurrency)) {
+            return amountUSD;
+        }
+        BigDecimal rate = usdRates.get(toCurrency.toUpperCase());
+        return rate != null ? amountUSD.multiply(rate).setScale(2, RoundingMode.HALF_UP) : amountUSD;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.expensemanager.service;
+
+import com.example.expensemanager.BenchmarkContext;
+import com.example.expensemanager.dto.BudgetStatusResponse;
+import com.example.expensemanager.dto.ExpenseSummaryResponse;
+import com.example.expensemanager.dto.MonthlySummaryItem;
+import com.example.expensemanager.model.Budget;
+import com.example.expensemanager.model.Category;
+import com.example.expensemanager.model.User;
+import com.example.expensemanager.repository.BudgetRepository;
+import com.example.expensemanager.repository.CategoryRepository;
+import com.example.expensemanager.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How the read-side aggregations scale with a user's history: {@link ExpenseService#summarize}
+ * over all time and over the current year (both served by the monthly rollup) and over part
+ * of a month (aggregated from the expense rows), {@link ExpenseService#monthlySummary} and
+ * {@link BudgetService#getBudgetsWithStatus}. One user holds 10k, 100k or 1M expenses spread
+ * over five years and ten categories.
+ *
+ * <p>Reports throughput and sampled latency; add {@code -prof gc} for the allocation rate, e.g.
+ * {@code -Djmh.args="ExpenseAggregationBenchmark -p rows=100000 -prof gc"}. Every benchmark
+ * method and row count runs in its own fork and seeds its own database, so the 1M case
+ * spends most of its time in setup.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class ExpenseAggregationBenchmark {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2020, 1, 1);
+    private static final int DAYS = 5 * 365;
+    private static final int CATEGORIES = 10;
+    private static final int INSERT_BATCH = 10_000;
+
+    // A month and year inside the seeded range
+    private static final int YEAR = 2023;
+    private static final int MONTH = 3;
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private ExpenseService expenseService;
+    private BudgetService budgetService;
+    private User user;
+
+    @Setup(Level.Trial)
+    public void seed() {
+        context = BenchmarkContext.start();
+        expenseService = context.getBean(ExpenseService.class);
+        budgetService = context.getBean(BudgetService.class);
+
+        user = new User();
+        user.setEmail("bench@example.com");
+        user.setPasswordHash("hash");
+        user.setFullName("Benchmark User");
+        user.setBaseCurrency("USD");
+        user = context.getBean(UserRepository.class).save(user);
+
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < CATEGORIES; i++) {
+            Category category = new Category();
+            category.setName("Category " + i);
+            category.setUser(user);
+            categories.add(category);
+        }
+        categories = context.getBean(CategoryRepository.class).saveAll(categories);
+
+        List<Budget> budgets = new ArrayList<>();
+        budgets.add(budget(null, "5000"));
+        for (Category category : categories) {
+            budgets.add(budget(category, "500"));
+        }
+        context.getBean(BudgetRepository.class).saveAll(budgets);
+
+        insertExpenses(categories);
+
+        context.getBean(ExpenseRollupService.class).rebuild(user);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public ExpenseSummaryResponse summarizeAllTime() {
+        return expenseService.summarize(user, null, null);
+    }
+
+    @Benchmark
+    public ExpenseSummaryResponse summarizeYear() {
+        return expenseService.summarize(user, LocalDate.of(YEAR, 1, 1), LocalDate.of(YEAR, 12, 31));
+    }
+
+    @Benchmark
+    public ExpenseSummaryResponse summarizePartialMonth() {
+        return expenseService.summarize(user, LocalDate.of(YEAR, MONTH, 10), LocalDate.of(YEAR, MONTH, 31));
+    }
+
+    @Benchmark
+    public List<MonthlySummaryItem> monthlySummary() {
+        return expenseService.monthlySummary(user, YEAR);
+    }
+
+    @Benchmark
+    public List<BudgetStatusResponse> budgetsWithStatus() {
+        return budgetService.getBudgetsWithStatus(user, YEAR, MONTH);
+    }
+
+    private Budget budget(Category category, String limit) {
+        Budget budget = new Budget();
+        budget.setUser(user);
+        budget.setCategory(category);
+        budget.setYear(YEAR);
+        budget.setMonth(MONTH);
+        budget.setLimitAmount(new BigDecimal(limit));
+        return budget;
+    }
+
+    /**
+     * Plain JDBC batches: seeding a million rows through JPA would take longer than the
+     * measurements. Ids are assigned here; the benchmarks only read.
+     */
+    private void insertExpenses(List<Category> categories) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        String sql = "insert into expenses (id, user_id, category_id, amount_minor, expense_date, description, "
+                + "recurring, original_currency, original_amount, exchange_rate) "
+                + "values (?, ?, ?, ?, ?, ?, false, 'USD', ?, 1)";
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (int i = 0; i < rows; i++) {
+            // Every 20th expense is uncategorized
+            Long categoryId = i % 20 == 0 ? null : categories.get(i % CATEGORIES).getId();
+            long cents = 100 + (i * 7919L) % 20_000;
+            BigDecimal amount = BigDecimal.valueOf(cents, 2);
+            batch.add(new Object[]{
+                    i + 1L, user.getId(), categoryId, cents * 100, Date.valueOf(FIRST_DAY.plusDays(i % DAYS)),
+                    "Expense " + i, amount});
+            if (batch.size() == INSERT_BATCH) {
+                jdbcTemplate.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.expensemanager.config;
+
+import com.example.expensemanager.model.User;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Security principal for an authenticated request. It is built once when the user is
+ * loaded in the JWT filter and carries what controllers need (id and base currency), so
+ * the user never has to be looked up again by email for the rest of the request.
+ */
+public class AuthenticatedUser implements UserDetails {
+
+    private static final List<GrantedAuthority> AUTHORITIES = List.of(new SimpleGrantedAuthority("USER"));
+
+    private final Long id;
+    private final String email;
+    private final String passwordHash;
+    private final String baseCurrency;
+
+    public AuthenticatedUser(Long id, String email, String passwordHash, String baseCurrency) {
+        this.id = id;
+        this.email = email;
+        this.passwordHash = passwordHash;
+        this.baseCurrency = baseCurrency;
+    }
+
+    public static AuthenticatedUser from(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getPasswordHash(), user.getBaseCurrency());
+    }
+
+    /**
+     * The user's base currency, taken from the authenticated principal when it is the same
+     * user. Write paths call this instead of {@link User#getBaseCurrency()} so the
+     * {@code @CurrentUser} reference is not loaded just for the currency; outside a request
+     * for that user it falls back to the entity.
+     */
+    public static String baseCurrencyOf(User user) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser principal
+                && principal.getId().equals(user.getId())) {
+            return principal.getBaseCurrency();
+        }
+        return user.getBaseCurrency();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return AUTHORITIES;
+    }
+
+    @Override
+    public String getPassword() {
+        return passwordHash;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
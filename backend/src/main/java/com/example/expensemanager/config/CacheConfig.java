@@ -0,0 +1,86 @@
+package com.example.expensemanager.config;
+
+import com.example.expensemanager.service.CurrencyService;
+import com.example.expensemanager.service.ExchangeRateStore;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String EXCHANGE_RATES = "exchangeRates";
+
+    /**
+     * Caches are bound to Micrometer by Spring Boot; every cache here records stats so
+     * hit, miss and load-time meters are published.
+     */
+    @Bean
+    public CacheManager cacheManager(ExchangeRateStore exchangeRateStore,
+                                     @Value("${expense.rates.cache.max-size:256}") long maxSize,
+                                     @Value("${expense.rates.cache.ttl:PT1H}") Duration ttl,
+                                     @Value("${expense.rates.cache.refresh-after:PT10M}") Duration refreshAfter,
+                                     @Value("${expense.rates.cache.negative-ttl:PT1M}") Duration negativeTtl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(EXCHANGE_RATES,
+                exchangeRatesCache(exchangeRateStore, maxSize, ttl, refreshAfter, negativeTtl));
+        return cacheManager;
+    }
+
+    /**
+     * Per-base-currency rate maps derived from the local rate snapshot. Bounded in size;
+     * entries are reloaded in the background once {@code refreshAfter} has passed (readers keep
+     * getting the old map meanwhile) and expire after {@code ttl}. Bases the snapshot has no rate
+     * for get the 1:1 fallback map, which is only kept for {@code negativeTtl}.
+     */
+    static LoadingCache<Object, Object> exchangeRatesCache(ExchangeRateStore exchangeRateStore, long maxSize,
+                                                           Duration ttl, Duration refreshAfter, Duration negativeTtl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new KnownCurrencyExpiry(exchangeRateStore, ttl, negativeTtl))
+                .refreshAfterWrite(refreshAfter)
+                .recordStats()
+                .build(key -> CurrencyService.ratesFor(exchangeRateStore.current(), (String) key));
+    }
+
+    private static final class KnownCurrencyExpiry implements Expiry<Object, Object> {
+
+        private final ExchangeRateStore exchangeRateStore;
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        KnownCurrencyExpiry(ExchangeRateStore exchangeRateStore, Duration ttl, Duration negativeTtl) {
+            this.exchangeRateStore = exchangeRateStore;
+            this.ttlNanos = ttl.toNanos();
+            this.negativeTtlNanos = negativeTtl.toNanos();
+        }
+
+        private long expiry(Object key) {
+            return exchangeRateStore.current().idOf((String) key) >= 0 ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(Object key, Object value, long currentTime) {
+            return expiry(key);
+        }
+
+        @Override
+        public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+            return expiry(key);
+        }
+
+        @Override
+        public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.expensemanager.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ExecutorConfig {
+
+    public static final String REBASE_EXECUTOR = "rebaseExecutor";
+
+    /**
+     * Runs base-currency re-base jobs off the request threads. Jobs for different users run in
+     * parallel up to {@code threads}; each job works through its user's rows sequentially.
+     */
+    @Bean(name = REBASE_EXECUTOR)
+    public ThreadPoolTaskExecutor rebaseExecutor(@Value("${expense.rebase.threads:2}") int threads,
+                                                 @Value("${expense.rebase.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("rebase-");
+        return executor;
+    }
+}
@@ -15,14 +15,19 @@ import java.util.function.Function;
 @Component
 public class JwtUtils {
 
-    @Value("${jwt.secret:expenseManagerSecretKeyThatIsAtLeast32CharactersLong}")
-    private String secret;
+    private final long expiration;
 
-    @Value("${jwt.expiration:86400000}") // 24 hours
-    private long expiration;
+    // Both are immutable and thread-safe, so they are built once rather than per token
+    private final SecretKey signingKey;
+    private final JwtParser parser;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    public JwtUtils(@Value("${jwt.secret:expenseManagerSecretKeyThatIsAtLeast32CharactersLong}") String secret,
+                    @Value("${jwt.expiration:86400000}") long expiration) { // 24 hours
+        this.expiration = expiration;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
     }
 
     public String generateToken(UserDetails userDetails) {
@@ -36,10 +41,21 @@ public class JwtUtils {
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Parses the token and checks its signature and expiry in a single pass.
+     *
+     * @return the verified claims
+     * @throws ExpiredJwtException if the token has expired
+     * @throws JwtException if the token is malformed or its signature does not match
+     */
+    public Claims verify(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -49,24 +65,17 @@ public class JwtUtils {
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = verify(token);
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
     public Boolean isTokenExpired(String token) {
         return extractExpiration(token).before(new Date());
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        // verify() already rejects expired tokens
+        final String username = verify(token).getSubject();
+        return username.equals(userDetails.getUsername());
     }
 }
@@ -1,55 +1,175 @@
 package com.example.expensemanager.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
-import io.github.bucket4j.Refill;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.TimeMeter;
+import io.github.bucket4j.local.SynchronizationStrategy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.time.Duration;
+import java.util.EnumMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Per-client request limits, one bucket per client and {@link RateLimitTier}. Runs in the
+ * security chain after {@link JwtAuthenticationFilter}, so authenticated requests are limited
+ * per user (the verified principal's id) and anything else per remote address.
+ *
+ * <p>Every response carries {@code X-RateLimit-Limit}, {@code X-RateLimit-Remaining} and
+ * {@code X-RateLimit-Reset} (seconds until the bucket is full) for its tier; rejected requests
+ * also get {@code Retry-After}. Outcomes are counted in {@code ratelimit.requests}, tagged
+ * with {@code tier} and {@code outcome} ({@code allowed} or {@code rejected}).
+ *
+ * <p>Buckets are lock-free and kept in a size-bounded cache that drops them after
+ * {@code idle-expiry} without requests. The expiry should be at least the longest refill
+ * period: a bucket that has been idle that long is full again, so forgetting it changes
+ * nothing. The cache's frequency-based eviction keeps active users' buckets when a flood of
+ * one-off addresses fills it.
+ */
 @Component
 public class RateLimitFilter extends OncePerRequestFilter {
 
-    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    static final String METER_NAME = "ratelimit.requests";
+
+    private final Map<RateLimitTier, RateLimitTier.Limit> limits;
+    private final Map<RateLimitTier, Counter> allowed = new EnumMap<>(RateLimitTier.class);
+    private final Map<RateLimitTier, Counter> rejected = new EnumMap<>(RateLimitTier.class);
+    private final Cache<String, Bucket> buckets;
+    private final TimeMeter timeMeter;
+
+    @Autowired
+    public RateLimitFilter(Environment environment,
+                           ObjectProvider<MeterRegistry> meterRegistry,
+                           @Value("${security.rate-limit.max-buckets:100000}") long maxBuckets,
+                           @Value("${security.rate-limit.idle-expiry:10m}") Duration idleExpiry) {
+        // Without metrics configured the counters go to the (then empty) global registry
+        this(configuredLimits(environment), meterRegistry.getIfAvailable(() -> Metrics.globalRegistry), maxBuckets, idleExpiry, Ticker.systemTicker());
+    }
+
+    RateLimitFilter(Map<RateLimitTier, RateLimitTier.Limit> limits, MeterRegistry meterRegistry,
+                    long maxBuckets, Duration idleExpiry, Ticker ticker) {
+        this.limits = new EnumMap<>(limits);
+        for (RateLimitTier tier : RateLimitTier.values()) {
+            this.limits.putIfAbsent(tier, tier.defaultLimit());
+            allowed.put(tier, counter(meterRegistry, tier, "allowed"));
+            rejected.put(tier, counter(meterRegistry, tier, "rejected"));
+        }
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(idleExpiry)
+                .ticker(ticker)
+                .build();
+        // Buckets refill on the same clock the cache expires them by
+        this.timeMeter = new TimeMeter() {
+            @Override
+            public long currentTimeNanos() {
+                return ticker.read();
+            }
+
+            @Override
+            public boolean isWallClockBased() {
+                return false;
+            }
+        };
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-        
-        String clientId = getClientId(request);
-        Bucket bucket = buckets.computeIfAbsent(clientId, this::createBucket);
 
-        if (bucket.tryConsume(1)) {
+        RateLimitTier tier = RateLimitTier.of(request);
+        RateLimitTier.Limit limit = limits.get(tier);
+        Bucket bucket = buckets.get(tier.key() + ":" + getClientId(request), key -> createBucket(limit));
+        ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
+
+        response.setHeader("X-RateLimit-Limit", String.valueOf(limit.capacity()));
+        response.setHeader("X-RateLimit-Remaining", String.valueOf(probe.getRemainingTokens()));
+        response.setHeader("X-RateLimit-Reset", String.valueOf(toSeconds(probe.getNanosToWaitForReset())));
+
+        if (probe.isConsumed()) {
+            allowed.get(tier).increment();
             filterChain.doFilter(request, response);
         } else {
+            rejected.get(tier).increment();
             response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(toSeconds(probe.getNanosToWaitForRefill())));
             response.setContentType("application/json");
             response.getWriter().write("{\"error\":\"Too many requests. Please try again later.\"}");
         }
     }
 
-    private Bucket createBucket(String key) {
-        // 100 requests per minute for authenticated users
-        Bandwidth limit = Bandwidth.classic(100, Refill.greedy(100, Duration.ofMinutes(1)));
-        return Bucket.builder().addLimit(limit).build();
+    /** Number of buckets currently held, after pending evictions have been applied. */
+    long trackedBuckets() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+
+    private Bucket createBucket(RateLimitTier.Limit limit) {
+        Bandwidth bandwidth = Bandwidth.builder()
+                .capacity(limit.capacity())
+                .refillGreedy(limit.capacity(), limit.period())
+                .build();
+        return Bucket.builder()
+                .addLimit(bandwidth)
+                .withSynchronizationStrategy(SynchronizationStrategy.LOCK_FREE)
+                .withCustomTimePrecision(timeMeter)
+                .build();
     }
 
     private String getClientId(HttpServletRequest request) {
-        String authHeader = request.getHeader("Authorization");
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            // Use JWT subject as identifier for authenticated users
-            return "auth_" + authHeader.substring(7, Math.min(authHeader.length(), 37));
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            // Set by the JWT filter only after the token's signature and expiry were verified
+            return "user_" + user.getId();
         }
         // Use IP address for unauthenticated requests
         return "ip_" + request.getRemoteAddr();
     }
+
+    private static Map<RateLimitTier, RateLimitTier.Limit> configuredLimits(Environment environment) {
+        Map<RateLimitTier, RateLimitTier.Limit> limits = new EnumMap<>(RateLimitTier.class);
+        for (RateLimitTier tier : RateLimitTier.values()) {
+            String prefix = "security.rate-limit.tiers." + tier.key() + ".";
+            RateLimitTier.Limit defaults = tier.defaultLimit();
+            limits.put(tier, new RateLimitTier.Limit(
+                    environment.getProperty(prefix + "capacity", Long.class, defaults.capacity()),
+                    environment.getProperty(prefix + "period", Duration.class, defaults.period())));
+        }
+        return limits;
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, RateLimitTier tier, String outcome) {
+        return Counter.builder(METER_NAME)
+                .description("Requests seen by the rate limiter")
+                .tag("tier", tier.key())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static long toSeconds(long nanos) {
+        // Round up so clients never retry before a token is available
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
 }
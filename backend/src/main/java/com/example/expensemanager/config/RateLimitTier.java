@@ -0,0 +1,61 @@
+package com.example.expensemanager.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.time.Duration;
+
+/**
+ * Route groups that are rate limited separately, each with its own bucket per client. The
+ * defaults keep cheap reads generous and the aggregation and bulk-transfer endpoints tight;
+ * every tier can be overridden with {@code security.rate-limit.tiers.<key>.capacity} and
+ * {@code .period}.
+ */
+enum RateLimitTier {
+
+    /** Login and registration: password checks and account creation. */
+    AUTH("auth", 20, Duration.ofMinutes(1)),
+    /** Any other non-GET request. */
+    WRITES("writes", 60, Duration.ofMinutes(1)),
+    /** Plain GETs: lists and lookups. */
+    READS("reads", 300, Duration.ofMinutes(1)),
+    /** Summaries and budget status, which aggregate over the user's expenses. */
+    REPORTS("reports", 30, Duration.ofMinutes(1)),
+    /** CSV export and import, which stream a user's whole history. */
+    EXPORTS("exports", 5, Duration.ofMinutes(1));
+
+    private final String key;
+    private final Limit defaultLimit;
+
+    RateLimitTier(String key, long capacity, Duration period) {
+        this.key = key;
+        this.defaultLimit = new Limit(capacity, period);
+    }
+
+    String key() {
+        return key;
+    }
+
+    Limit defaultLimit() {
+        return defaultLimit;
+    }
+
+    static RateLimitTier of(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        boolean get = "GET".equals(request.getMethod());
+
+        if (path.equals("/api/auth/login") || path.equals("/api/auth/register")) {
+            return AUTH;
+        }
+        if (path.equals("/api/expenses/export") || path.equals("/api/expenses/import")) {
+            return EXPORTS;
+        }
+        if (get && (path.startsWith("/api/expenses/summary") || path.equals("/api/budgets"))) {
+            return REPORTS;
+        }
+        return get ? READS : WRITES;
+    }
+
+    /** {@code capacity} requests, refilled evenly over {@code period}. */
+    record Limit(long capacity, Duration period) {
+    }
+}
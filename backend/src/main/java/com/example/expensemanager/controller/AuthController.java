@@ -1,17 +1,16 @@
 package com.example.expensemanager.controller;
 
+import com.example.expensemanager.config.CurrentUser;
 import com.example.expensemanager.dto.AuthRequest;
 import com.example.expensemanager.dto.AuthResponse;
+import com.example.expensemanager.dto.RebaseStatus;
 import com.example.expensemanager.dto.RegisterRequest;
 import com.example.expensemanager.model.User;
-import com.example.expensemanager.repository.UserRepository;
 import com.example.expensemanager.service.AuthService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
@@ -22,11 +21,9 @@ import java.util.Map;
 public class AuthController {
 
     private final AuthService authService;
-    private final UserRepository userRepository;
 
-    public AuthController(AuthService authService, UserRepository userRepository) {
+    public AuthController(AuthService authService) {
         this.authService = authService;
-        this.userRepository = userRepository;
     }
 
     @PostMapping("/register")
@@ -44,19 +41,20 @@ public class AuthController {
     }
 
     @PutMapping("/base-currency")
-    public ResponseEntity<Void> updateBaseCurrency(@RequestBody Map<String, String> request) {
+    public ResponseEntity<RebaseStatus> updateBaseCurrency(@CurrentUser User user, @RequestBody Map<String, String> request) {
         String baseCurrency = request.get("baseCurrency");
         if (baseCurrency == null || baseCurrency.trim().isEmpty()) {
             throw new BusinessException("INVALID_CURRENCY", "Base currency cannot be empty", HttpStatus.BAD_REQUEST);
         }
-        authService.updateBaseCurrency(getCurrentUser(), baseCurrency);
-        return ResponseEntity.ok().build();
+        RebaseStatus rebase = authService.updateBaseCurrency(user, baseCurrency);
+        // Existing amounts are converted in the background; progress is at GET /base-currency/rebase
+        return rebase != null ? ResponseEntity.accepted().body(rebase) : ResponseEntity.ok().build();
     }
 
-    private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        return userRepository.findByEmail(email).orElseThrow();
+    @GetMapping("/base-currency/rebase")
+    public ResponseEntity<RebaseStatus> getRebaseStatus(@CurrentUser User user) {
+        RebaseStatus rebase = authService.getRebaseStatus(user);
+        return rebase != null ? ResponseEntity.ok(rebase) : ResponseEntity.noContent().build();
     }
 
     private String getClientIpAddress(HttpServletRequest request) {
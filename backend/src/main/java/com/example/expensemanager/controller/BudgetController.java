@@ -1,13 +1,11 @@
 package com.example.expensemanager.controller;
 
+import com.example.expensemanager.config.CurrentUser;
 import com.example.expensemanager.dto.BudgetRequest;
 import com.example.expensemanager.dto.BudgetStatusResponse;
 import com.example.expensemanager.model.User;
-import com.example.expensemanager.repository.UserRepository;
 import com.example.expensemanager.service.BudgetService;
 import jakarta.validation.Valid;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -18,30 +16,22 @@ import java.util.List;
 public class BudgetController {
 
     private final BudgetService budgetService;
-    private final UserRepository userRepository;
 
-    public BudgetController(BudgetService budgetService, UserRepository userRepository) {
+    public BudgetController(BudgetService budgetService) {
         this.budgetService = budgetService;
-        this.userRepository = userRepository;
-    }
-
-    private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        return userRepository.findByEmail(email).orElseThrow();
     }
 
     @GetMapping
     public List<BudgetStatusResponse> list(
+            @CurrentUser User user,
             @RequestParam int year,
             @RequestParam int month
     ) {
-        return budgetService.getBudgetsWithStatus(getCurrentUser(), year, month);
+        return budgetService.getBudgetsWithStatus(user, year, month);
     }
 
     @PostMapping
-    public BudgetStatusResponse create(@Valid @RequestBody BudgetRequest request) {
-        var user = getCurrentUser();
+    public BudgetStatusResponse create(@CurrentUser User user, @Valid @RequestBody BudgetRequest request) {
         var budget = budgetService.createBudget(user, request);
         return budgetService
                 .getBudgetsWithStatus(user, budget.getYear(), budget.getMonth())
@@ -52,8 +42,7 @@ public class BudgetController {
     }
 
     @PutMapping("/{id}")
-    public BudgetStatusResponse update(@PathVariable Long id, @Valid @RequestBody BudgetRequest request) {
-        var user = getCurrentUser();
+    public BudgetStatusResponse update(@CurrentUser User user, @PathVariable Long id, @Valid @RequestBody BudgetRequest request) {
         var budget = budgetService.updateBudget(user, id, request);
         return budgetService
                 .getBudgetsWithStatus(user, budget.getYear(), budget.getMonth())
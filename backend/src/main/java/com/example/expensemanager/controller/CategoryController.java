@@ -1,13 +1,11 @@
 package com.example.expensemanager.controller;
 
+import com.example.expensemanager.config.CurrentUser;
 import com.example.expensemanager.dto.CategoryRequest;
 import com.example.expensemanager.model.Category;
 import com.example.expensemanager.model.User;
 import com.example.expensemanager.repository.CategoryRepository;
-import com.example.expensemanager.repository.UserRepository;
 import jakarta.validation.Valid;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -18,30 +16,22 @@ import java.util.List;
 public class CategoryController {
 
     private final CategoryRepository categoryRepository;
-    private final UserRepository userRepository;
 
-    public CategoryController(CategoryRepository categoryRepository, UserRepository userRepository) {
+    public CategoryController(CategoryRepository categoryRepository) {
         this.categoryRepository = categoryRepository;
-        this.userRepository = userRepository;
-    }
-
-    private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        return userRepository.findByEmail(email).orElseThrow();
     }
 
     @GetMapping
-    public List<Category> list() {
-        return categoryRepository.findByUser(getCurrentUser());
+    public List<Category> list(@CurrentUser User user) {
+        return categoryRepository.findByUser(user);
     }
 
     @PostMapping
-    public Category create(@Valid @RequestBody CategoryRequest request) {
+    public Category create(@CurrentUser User user, @Valid @RequestBody CategoryRequest request) {
         Category c = new Category();
         c.setName(request.getName());
         c.setColor(request.getColor());
-        c.setUser(getCurrentUser());
+        c.setUser(user);
         return categoryRepository.save(c);
     }
 
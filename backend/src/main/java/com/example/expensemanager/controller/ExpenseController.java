@@ -1,17 +1,28 @@
 package com.example.expensemanager.controller;
 
+import com.example.expensemanager.config.CurrentUser;
+import com.example.expensemanager.dto.ExpenseBatchRequest;
+import com.example.expensemanager.dto.ExpenseBatchResponse;
+import com.example.expensemanager.dto.ExpenseImportResponse;
+import com.example.expensemanager.dto.ExpensePageResponse;
 import com.example.expensemanager.dto.ExpenseRequest;
 import com.example.expensemanager.dto.ExpenseSummaryResponse;
 import com.example.expensemanager.dto.MonthlySummaryItem;
 import com.example.expensemanager.model.Expense;
 import com.example.expensemanager.model.User;
-import com.example.expensemanager.repository.UserRepository;
+import com.example.expensemanager.service.ExpenseBatchService;
+import com.example.expensemanager.service.ExpenseExportService;
+import com.example.expensemanager.service.ExpenseImportService;
 import com.example.expensemanager.service.ExpenseService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -21,57 +32,107 @@ import java.util.List;
 public class ExpenseController {
 
     private final ExpenseService expenseService;
-    private final UserRepository userRepository;
+    private final ExpenseExportService expenseExportService;
+    private final ExpenseImportService expenseImportService;
+    private final ExpenseBatchService expenseBatchService;
 
-    public ExpenseController(ExpenseService expenseService, UserRepository userRepository) {
+    public ExpenseController(ExpenseService expenseService, ExpenseExportService expenseExportService,
+                             ExpenseImportService expenseImportService, ExpenseBatchService expenseBatchService) {
         this.expenseService = expenseService;
-        this.userRepository = userRepository;
-    }
-
-    private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        return userRepository.findByEmail(email).orElseThrow();
+        this.expenseExportService = expenseExportService;
+        this.expenseImportService = expenseImportService;
+        this.expenseBatchService = expenseBatchService;
     }
 
     @PostMapping
-    public Expense create(@Valid @RequestBody ExpenseRequest request) {
-        return expenseService.createExpense(getCurrentUser(), request);
+    public Expense create(@CurrentUser User user, @Valid @RequestBody ExpenseRequest request) {
+        return expenseService.createExpense(user, request);
     }
 
     @GetMapping
     public List<Expense> list(
+            @CurrentUser User user,
             @RequestParam(required = false) Long categoryId,
             @RequestParam(required = false) String startDate,
             @RequestParam(required = false) String endDate
     ) {
         LocalDate start = startDate != null ? LocalDate.parse(startDate) : null;
         LocalDate end = endDate != null ? LocalDate.parse(endDate) : null;
-        return expenseService.getExpenses(getCurrentUser(), categoryId, start, end);
+        return expenseService.getExpenses(user, categoryId, start, end);
+    }
+
+    // Cursor-paginated variant of list, selected when the client sends a page size
+    @GetMapping(params = "limit")
+    public ExpensePageResponse page(
+            @CurrentUser User user,
+            @RequestParam int limit,
+            @RequestParam(required = false) String next,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate
+    ) {
+        LocalDate start = startDate != null ? LocalDate.parse(startDate) : null;
+        LocalDate end = endDate != null ? LocalDate.parse(endDate) : null;
+        return expenseService.getExpensePage(user, categoryId, start, end, limit, next);
+    }
+
+    @GetMapping("/export")
+    public void export(@CurrentUser User user, @RequestParam(defaultValue = "csv") String format, HttpServletResponse response) throws IOException {
+        ExpenseExportService.Format exportFormat = ExpenseExportService.Format.from(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"expenses." + exportFormat.getExtension() + "\"");
+        expenseExportService.export(user, exportFormat, response.getOutputStream());
+    }
+
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ExpenseImportResponse importCsv(@CurrentUser User user, InputStream body) throws IOException {
+        return expenseImportService.importCsv(user, body);
+    }
+
+    @PostMapping("/batch")
+    public ExpenseBatchResponse batch(@CurrentUser User user, @Valid @RequestBody ExpenseBatchRequest request) {
+        return expenseBatchService.apply(user, request.getOperations());
     }
 
     @GetMapping("/summary")
     public ExpenseSummaryResponse summary(
+            @CurrentUser User user,
             @RequestParam(required = false) String startDate,
             @RequestParam(required = false) String endDate
     ) {
         LocalDate start = startDate != null ? LocalDate.parse(startDate) : null;
         LocalDate end = endDate != null ? LocalDate.parse(endDate) : null;
-        return expenseService.summarize(getCurrentUser(), start, end);
+        return expenseService.summarize(user, start, end);
     }
 
     @GetMapping("/summary/monthly")
-    public List<MonthlySummaryItem> monthlySummary(@RequestParam int year) {
-        return expenseService.monthlySummary(getCurrentUser(), year);
+    public List<MonthlySummaryItem> monthlySummary(
+            @CurrentUser User user,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) Integer fromYear,
+            @RequestParam(required = false) Integer toYear
+    ) {
+        if (year != null) {
+            return expenseService.monthlySummary(user, year);
+        }
+        if (fromYear == null || toYear == null) {
+            throw new BusinessException(
+                "INVALID_YEAR_RANGE",
+                "Provide either year or both fromYear and toYear.",
+                HttpStatus.BAD_REQUEST
+            );
+        }
+        return expenseService.monthlySummary(user, fromYear, toYear);
     }
 
     @PutMapping("/{id}")
-    public Expense update(@PathVariable Long id, @Valid @RequestBody ExpenseRequest request) {
-        return expenseService.updateExpense(getCurrentUser(), id, request);
+    public Expense update(@CurrentUser User user, @PathVariable Long id, @Valid @RequestBody ExpenseRequest request) {
+        return expenseService.updateExpense(user, id, request);
     }
 
     @DeleteMapping("/{id}")
-    public void delete(@PathVariable Long id) {
-        expenseService.deleteExpense(getCurrentUser(), id);
+    public void delete(@CurrentUser User user, @PathVariable Long id) {
+        expenseService.deleteExpense(user, id);
     }
 }
@@ -0,0 +1,34 @@
+package com.example.expensemanager.dto;
+
+import com.example.expensemanager.model.Money;
+
+import java.math.BigDecimal;
+
+public class CategoryTotal {
+
+    private final Long categoryId; // null = uncategorized
+    private final String categoryName;
+    private final long totalMinor; // Money.SCALE fixed-point units
+
+    public CategoryTotal(Long categoryId, String categoryName, Long totalMinor) {
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+        this.totalMinor = totalMinor != null ? totalMinor : 0L;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public long getTotalMinor() {
+        return totalMinor;
+    }
+
+    public BigDecimal getTotal() {
+        return Money.toDecimal(totalMinor);
+    }
+}
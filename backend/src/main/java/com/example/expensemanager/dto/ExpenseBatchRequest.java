@@ -0,0 +1,56 @@
+package com.example.expensemanager.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public class ExpenseBatchRequest {
+
+    @NotEmpty
+    private List<Operation> operations;
+
+    public List<Operation> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<Operation> operations) {
+        this.operations = operations;
+    }
+
+    public enum Type {
+        CREATE, UPDATE, DELETE
+    }
+
+    public static class Operation {
+
+        private Type type;
+
+        private Long id; // required for UPDATE and DELETE
+
+        private ExpenseRequest expense; // required for CREATE and UPDATE
+
+        public Type getType() {
+            return type;
+        }
+
+        public void setType(Type type) {
+            this.type = type;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public ExpenseRequest getExpense() {
+            return expense;
+        }
+
+        public void setExpense(ExpenseRequest expense) {
+            this.expense = expense;
+        }
+    }
+}
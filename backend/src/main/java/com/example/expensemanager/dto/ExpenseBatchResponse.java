@@ -0,0 +1,63 @@
+package com.example.expensemanager.dto;
+
+import java.util.List;
+
+public class ExpenseBatchResponse {
+
+    private int succeeded;
+    private int failed;
+    private List<ItemResult> results; // one per operation, in request order
+
+    public ExpenseBatchResponse(int succeeded, int failed, List<ItemResult> results) {
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.results = results;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<ItemResult> getResults() {
+        return results;
+    }
+
+    public enum Status {
+        CREATED, UPDATED, DELETED, FAILED
+    }
+
+    public static class ItemResult {
+
+        private int index;
+        private Status status;
+        private Long id;
+        private String error;
+
+        public ItemResult(int index, Status status, Long id, String error) {
+            this.index = index;
+            this.status = status;
+            this.id = id;
+            this.error = error;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.expensemanager.dto;
+
+import java.util.List;
+
+public class ExpenseImportResponse {
+
+    private int imported;
+    private int failed;
+    private List<RowError> errors; // capped; failed holds the full count
+
+    public ExpenseImportResponse(int imported, int failed, List<RowError> errors) {
+        this.imported = imported;
+        this.failed = failed;
+        this.errors = errors;
+    }
+
+    public int getImported() {
+        return imported;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<RowError> getErrors() {
+        return errors;
+    }
+
+    public static class RowError {
+
+        private int line;
+        private String message;
+
+        public RowError(int line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
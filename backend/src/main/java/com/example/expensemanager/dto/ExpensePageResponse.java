@@ -0,0 +1,24 @@
+package com.example.expensemanager.dto;
+
+import com.example.expensemanager.model.Expense;
+
+import java.util.List;
+
+public class ExpensePageResponse {
+
+    private List<Expense> items;
+    private String next; // opaque cursor for the following page, null on the last page
+
+    public ExpensePageResponse(List<Expense> items, String next) {
+        this.items = items;
+        this.next = next;
+    }
+
+    public List<Expense> getItems() {
+        return items;
+    }
+
+    public String getNext() {
+        return next;
+    }
+}
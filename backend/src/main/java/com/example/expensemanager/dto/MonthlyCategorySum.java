@@ -0,0 +1,46 @@
+package com.example.expensemanager.dto;
+
+import com.example.expensemanager.model.Money;
+
+import java.math.BigDecimal;
+
+public class MonthlyCategorySum {
+
+    private final int year;
+    private final int month; // 1-12
+    private final Long categoryId; // null = uncategorized
+    private final long totalMinor; // Money.SCALE fixed-point units
+    private final long count;
+
+    public MonthlyCategorySum(Integer year, Integer month, Long categoryId, Long totalMinor, Long count) {
+        this.year = year;
+        this.month = month;
+        this.categoryId = categoryId;
+        this.totalMinor = totalMinor != null ? totalMinor : 0L;
+        this.count = count;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public long getTotalMinor() {
+        return totalMinor;
+    }
+
+    public BigDecimal getTotal() {
+        return Money.toDecimal(totalMinor);
+    }
+
+    public long getCount() {
+        return count;
+    }
+}
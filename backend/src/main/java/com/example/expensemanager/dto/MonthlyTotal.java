@@ -0,0 +1,34 @@
+package com.example.expensemanager.dto;
+
+import com.example.expensemanager.model.Money;
+
+import java.math.BigDecimal;
+
+public class MonthlyTotal {
+
+    private final int year;
+    private final int month; // 1-12
+    private final long totalMinor; // Money.SCALE fixed-point units
+
+    public MonthlyTotal(Integer year, Integer month, Long totalMinor) {
+        this.year = year;
+        this.month = month;
+        this.totalMinor = totalMinor != null ? totalMinor : 0L;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public long getTotalMinor() {
+        return totalMinor;
+    }
+
+    public BigDecimal getTotal() {
+        return Money.toDecimal(totalMinor);
+    }
+}
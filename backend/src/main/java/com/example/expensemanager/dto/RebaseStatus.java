@@ -0,0 +1,87 @@
+package com.example.expensemanager.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public class RebaseStatus {
+
+    public enum State { RUNNING, COMPLETED, FAILED }
+
+    private State state;
+    private String fromCurrency;
+    private String toCurrency;
+    private long totalExpenses;
+    private long processedExpenses;
+    private int budgets;
+    private List<Long> skippedExpenseIds;
+    private List<Long> skippedBudgetIds;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+
+    public RebaseStatus(State state, String fromCurrency, String toCurrency, long totalExpenses,
+                        long processedExpenses, int budgets, List<Long> skippedExpenseIds, List<Long> skippedBudgetIds,
+                        Instant startedAt, Instant finishedAt, String error) {
+        this.state = state;
+        this.fromCurrency = fromCurrency;
+        this.toCurrency = toCurrency;
+        this.totalExpenses = totalExpenses;
+        this.processedExpenses = processedExpenses;
+        this.budgets = budgets;
+        this.skippedExpenseIds = skippedExpenseIds;
+        this.skippedBudgetIds = skippedBudgetIds;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.error = error;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public String getFromCurrency() {
+        return fromCurrency;
+    }
+
+    public String getToCurrency() {
+        return toCurrency;
+    }
+
+    public long getTotalExpenses() {
+        return totalExpenses;
+    }
+
+    public long getProcessedExpenses() {
+        return processedExpenses;
+    }
+
+    public int getBudgets() {
+        return budgets;
+    }
+
+    /**
+     * Expenses left in the old currency because the converted amount is too large to store.
+     */
+    public List<Long> getSkippedExpenseIds() {
+        return skippedExpenseIds;
+    }
+
+    /**
+     * Budgets left in the old currency because the converted limit is too large to store.
+     */
+    public List<Long> getSkippedBudgetIds() {
+        return skippedBudgetIds;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -1,18 +1,23 @@
 package com.example.expensemanager.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "budgets")
+@Table(name = "budgets", indexes = {
+        @Index(name = "idx_budgets_user_period", columnList = "user_id, budget_year, budget_month")
+})
 public class Budget {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "budgets_seq")
+    @SequenceGenerator(name = "budgets_seq", sequenceName = "budgets_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne(optional = false)
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     private User user;
 
     @ManyToOne
@@ -24,8 +29,13 @@ public class Budget {
     @Column(nullable = false, name = "budget_month")
     private int month; // 1-12
 
-    @Column(nullable = false)
-    private BigDecimal limitAmount;
+    // Money.SCALE fixed-point units of the user's base currency
+    @Column(nullable = false, name = "limit_minor")
+    private long limitMinor;
+
+    // Base currency the limit was set or last converted in; null on rows from before it was recorded
+    @Column(length = 3)
+    private String currency;
 
     public Long getId() {
         return id;
@@ -64,12 +74,27 @@ public class Budget {
     }
 
     public BigDecimal getLimitAmount() {
-        return limitAmount;
+        return Money.toDecimal(limitMinor);
     }
 
     public void setLimitAmount(BigDecimal limitAmount) {
-        this.limitAmount = limitAmount;
+        this.limitMinor = Money.toMinor(limitAmount);
     }
-}
 
+    @JsonIgnore
+    public long getLimitMinor() {
+        return limitMinor;
+    }
+
+    public void setLimitMinor(long limitMinor) {
+        this.limitMinor = limitMinor;
+    }
 
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.expensemanager.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Last fetched rate of one currency against USD. The table is replaced as a whole on
+ * every successful refresh and reloaded on startup, so conversions never depend on
+ * the upstream provider being reachable.
+ */
+@Entity
+@Table(name = "exchange_rates")
+public class ExchangeRate {
+
+    @Id
+    @Column(length = 3)
+    private String currency;
+
+    @Column(nullable = false, precision = 24, scale = 10)
+    private BigDecimal rate; // units of this currency per 1 USD
+
+    @Column(nullable = false)
+    private Instant fetchedAt;
+
+    @Column(nullable = false, length = 32)
+    private String source;
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public BigDecimal getRate() {
+        return rate;
+    }
+
+    public void setRate(BigDecimal rate) {
+        this.rate = rate;
+    }
+
+    public Instant getFetchedAt() {
+        return fetchedAt;
+    }
+
+    public void setFetchedAt(Instant fetchedAt) {
+        this.fetchedAt = fetchedAt;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+}
@@ -1,26 +1,37 @@
 package com.example.expensemanager.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "expenses")
+@Table(name = "expenses", indexes = {
+        // Covers the per-user date-range listing, keyset pagination and summaries
+        @Index(name = "idx_expenses_user_date", columnList = "user_id, expense_date, id"),
+        // Covers category-filtered listings and per-category budget totals
+        @Index(name = "idx_expenses_user_category_date", columnList = "user_id, category_id, expense_date")
+})
 public class Expense {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence rather than IDENTITY so Hibernate can batch inserts and
+    // hand out ids without a round trip per row
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expenses_seq")
+    @SequenceGenerator(name = "expenses_seq", sequenceName = "expenses_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne(optional = false)
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     private User user;
 
     @ManyToOne
     private Category category;
 
-    @Column(nullable = false)
-    private BigDecimal amount; // Always stored in USD (base currency)
+    // In the user's base currency, in Money.SCALE fixed-point units
+    @Column(nullable = false, name = "amount_minor")
+    private long amountMinor;
 
     @Column(nullable = false, name = "expense_date")
     private LocalDate date;
@@ -37,6 +48,9 @@ public class Expense {
     @Column
     private BigDecimal originalAmount; // Original amount entered by user (for display)
 
+    @Column(precision = 24, scale = 12)
+    private BigDecimal exchangeRate; // Original currency -> base currency rate on the expense date
+
     public Long getId() {
         return id;
     }
@@ -58,11 +72,20 @@ public class Expense {
     }
 
     public BigDecimal getAmount() {
-        return amount;
+        return Money.toDecimal(amountMinor);
     }
 
     public void setAmount(BigDecimal amount) {
-        this.amount = amount;
+        this.amountMinor = Money.toMinor(amount);
+    }
+
+    @JsonIgnore
+    public long getAmountMinor() {
+        return amountMinor;
+    }
+
+    public void setAmountMinor(long amountMinor) {
+        this.amountMinor = amountMinor;
     }
 
     public LocalDate getDate() {
@@ -104,4 +127,12 @@ public class Expense {
     public void setOriginalAmount(BigDecimal originalAmount) {
         this.originalAmount = originalAmount;
     }
+
+    public BigDecimal getExchangeRate() {
+        return exchangeRate;
+    }
+
+    public void setExchangeRate(BigDecimal exchangeRate) {
+        this.exchangeRate = exchangeRate;
+    }
 }
@@ -0,0 +1,41 @@
+package com.example.expensemanager.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money. Amounts are stored and summed as {@code long} counts of
+ * 10<sup>-{@value #SCALE}</sup> units, which covers the minor unit of every ISO 4217 currency,
+ * so every row of a user shares one scale whatever their base currency. That lets the
+ * database and the services add amounts as plain integers; {@link BigDecimal} is only
+ * created at the API boundary.
+ */
+public final class Money {
+
+    public static final int SCALE = 4;
+
+    // Amounts always carry at least cents, as the old numeric(38,2) columns did
+    private static final int MIN_DISPLAY_SCALE = 2;
+
+    private Money() {
+    }
+
+    /**
+     * @throws ArithmeticException if the amount does not fit (above about 9 * 10<sup>14</sup>)
+     */
+    public static long toMinor(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Whether {@link #toMinor} can represent the amount.
+     */
+    public static boolean fits(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().bitLength() < Long.SIZE;
+    }
+
+    public static BigDecimal toDecimal(long minor) {
+        BigDecimal amount = BigDecimal.valueOf(minor, SCALE).stripTrailingZeros();
+        return amount.scale() < MIN_DISPLAY_SCALE ? amount.setScale(MIN_DISPLAY_SCALE) : amount;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.expensemanager.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Running total of a user's spending in one category for one month, kept in step with the
+ * expenses table by {@link com.example.expensemanager.service.ExpenseRollupService}.
+ */
+@Entity
+@Table(name = "user_month_category_totals",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_month_category_totals_bucket",
+                columnNames = {"user_id", "total_year", "total_month", "category_key"}))
+public class MonthlyCategoryTotal {
+
+    public static final long UNCATEGORIZED = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_month_category_totals_seq")
+    @SequenceGenerator(name = "user_month_category_totals_seq", sequenceName = "user_month_category_totals_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    private User user;
+
+    @Column(nullable = false, name = "total_year")
+    private int year;
+
+    @Column(nullable = false, name = "total_month")
+    private int month; // 1-12
+
+    // Category id, or UNCATEGORIZED. Not a foreign key so the bucket stays part of the
+    // unique constraint (a nullable column would let duplicate uncategorized rows in).
+    @Column(nullable = false, name = "category_key")
+    private long categoryKey;
+
+    // Money.SCALE fixed-point units
+    @Column(nullable = false, name = "total_minor")
+    private long totalMinor;
+
+    @Column(nullable = false)
+    private long expenseCount;
+
+    public Long getId() {
+        return id;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public void setYear(int year) {
+        this.year = year;
+    }
+
+    public int getMonth() {
+        return month;
+    }
+
+    public void setMonth(int month) {
+        this.month = month;
+    }
+
+    public long getCategoryKey() {
+        return categoryKey;
+    }
+
+    public void setCategoryKey(long categoryKey) {
+        this.categoryKey = categoryKey;
+    }
+
+    public long getTotalMinor() {
+        return totalMinor;
+    }
+
+    public void setTotalMinor(long totalMinor) {
+        this.totalMinor = totalMinor;
+    }
+
+    public long getExpenseCount() {
+        return expenseCount;
+    }
+
+    public void setExpenseCount(long expenseCount) {
+        this.expenseCount = expenseCount;
+    }
+}
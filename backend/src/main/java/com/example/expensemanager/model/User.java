@@ -7,7 +7,8 @@ import jakarta.persistence.*;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -22,6 +23,11 @@ public class User {
     @Column(length = 3)
     private String baseCurrency; // Base currency - must be set explicitly
 
+    // Earlier base currency some stored amounts may still be in; set when the base currency
+    // changes and cleared once the re-base to the new one has completed
+    @Column(length = 3)
+    private String rebaseFromCurrency;
+
     public Long getId() {
         return id;
     }
@@ -57,4 +63,12 @@ public class User {
     public void setBaseCurrency(String baseCurrency) {
         this.baseCurrency = baseCurrency;
     }
+
+    public String getRebaseFromCurrency() {
+        return rebaseFromCurrency;
+    }
+
+    public void setRebaseFromCurrency(String rebaseFromCurrency) {
+        this.rebaseFromCurrency = rebaseFromCurrency;
+    }
 }
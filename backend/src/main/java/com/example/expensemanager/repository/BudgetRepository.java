@@ -3,12 +3,24 @@ package com.example.expensemanager.repository;
 import com.example.expensemanager.model.Budget;
 import com.example.expensemanager.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface BudgetRepository extends JpaRepository<Budget, Long> {
 
-    List<Budget> findByUserAndYearAndMonth(User user, int year, int month);
+    // Categories are fetched in the same statement so building the status list
+    // does not issue a select per budget
+    @Query("select b from Budget b " +
+            "left join fetch b.category " +
+            "where b.user = :user and b.year = :year and b.month = :month")
+    List<Budget> findByUserAndYearAndMonth(@Param("user") User user, @Param("year") int year, @Param("month") int month);
+
+    @Query("select b from Budget b " +
+            "left join fetch b.category " +
+            "where b.user = :user")
+    List<Budget> findByUser(@Param("user") User user);
 
     long countByUser(User user);
 }
@@ -0,0 +1,7 @@
+package com.example.expensemanager.repository;
+
+import com.example.expensemanager.model.ExchangeRate;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ExchangeRateRepository extends JpaRepository<ExchangeRate, String> {
+}
@@ -1,14 +1,23 @@
 package com.example.expensemanager.repository;
 
+import com.example.expensemanager.dto.CategoryTotal;
+import com.example.expensemanager.dto.MonthlyCategorySum;
+import com.example.expensemanager.dto.MonthlyTotal;
 import com.example.expensemanager.model.Category;
 import com.example.expensemanager.model.Expense;
 import com.example.expensemanager.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ExpenseRepository extends JpaRepository<Expense, Long> {
 
@@ -23,6 +32,110 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
             @Param("startDate") LocalDate startDate,
             @Param("endDate") LocalDate endDate
     );
-}
 
+    // Same filter with the category required: a plain equality, unlike the optional form
+    // above, lets the database seek the (user, category, date) index
+    @Query("select e from Expense e " +
+            "where e.user = :user " +
+            "and e.category = :category " +
+            "and (:startDate is null or e.date >= :startDate) " +
+            "and (:endDate is null or e.date <= :endDate)")
+    List<Expense> findFilteredInCategory(
+            @Param("user") User user,
+            @Param("category") Category category,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    @Query("select new com.example.expensemanager.dto.CategoryTotal(c.id, c.name, sum(e.amountMinor)) " +
+            "from Expense e left join e.category c " +
+            "where e.user = :user " +
+            "and (:startDate is null or e.date >= :startDate) " +
+            "and (:endDate is null or e.date <= :endDate) " +
+            "group by c.id, c.name")
+    List<CategoryTotal> sumByCategory(
+            @Param("user") User user,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    @Query("select new com.example.expensemanager.dto.MonthlyTotal(year(e.date), month(e.date), sum(e.amountMinor)) " +
+            "from Expense e " +
+            "where e.user = :user " +
+            "and e.date >= :startDate " +
+            "and e.date <= :endDate " +
+            "group by year(e.date), month(e.date) " +
+            "order by year(e.date), month(e.date)")
+    List<MonthlyTotal> sumByMonth(
+            @Param("user") User user,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
 
+    // Source of truth for rebuilding and verifying the monthly category rollup
+    @Query("select new com.example.expensemanager.dto.MonthlyCategorySum(year(e.date), month(e.date), c.id, sum(e.amountMinor), count(e)) " +
+            "from Expense e left join e.category c " +
+            "where e.user = :user " +
+            "group by year(e.date), month(e.date), c.id")
+    List<MonthlyCategorySum> sumByMonthAndCategory(@Param("user") User user);
+
+    // Keyset pagination, newest first. The page size comes from the Pageable; callers
+    // always pass page 0 so no offset is ever applied.
+    @Query("select e from Expense e " +
+            "where e.user = :user " +
+            "and (:category is null or e.category = :category) " +
+            "and (:startDate is null or e.date >= :startDate) " +
+            "and (:endDate is null or e.date <= :endDate) " +
+            "order by e.date desc, e.id desc")
+    List<Expense> findFirstPage(
+            @Param("user") User user,
+            @Param("category") Category category,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            Pageable pageable
+    );
+
+    // The redundant "e.date <= :cursorDate" bound lets the (user, date, id) index seek
+    // straight to the cursor instead of filtering the OR over every earlier row.
+    @Query("select e from Expense e " +
+            "where e.user = :user " +
+            "and (:category is null or e.category = :category) " +
+            "and (:startDate is null or e.date >= :startDate) " +
+            "and (:endDate is null or e.date <= :endDate) " +
+            "and e.date <= :cursorDate " +
+            "and (e.date < :cursorDate or e.id < :cursorId) " +
+            "order by e.date desc, e.id desc")
+    List<Expense> findPageAfter(
+            @Param("user") User user,
+            @Param("category") Category category,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("cursorDate") LocalDate cursorDate,
+            @Param("cursorId") Long cursorId,
+            Pageable pageable
+    );
+
+    // Must be consumed inside a transaction and closed; rows are pulled from the
+    // cursor in fetch-size chunks instead of being materialised up front.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select e from Expense e " +
+            "left join fetch e.category " +
+            "where e.user = :user " +
+            "order by e.date, e.id")
+    Stream<Expense> streamByUser(@Param("user") User user);
+
+    // Ownership is part of the predicate: ids belonging to other users are simply not returned
+    @Query("select e from Expense e " +
+            "left join fetch e.category " +
+            "where e.user = :user and e.id in :ids")
+    List<Expense> findByUserAndIdIn(@Param("user") User user, @Param("ids") Collection<Long> ids);
+
+    long countByUser(User user);
+
+    // Keyset chunks by id for bulk rewrites; always pass page 0
+    @Query("select e from Expense e " +
+            "left join fetch e.category " +
+            "where e.user = :user and e.id > :afterId " +
+            "order by e.id")
+    List<Expense> findChunkAfter(@Param("user") User user, @Param("afterId") long afterId, Pageable pageable);
+}
@@ -0,0 +1,60 @@
+package com.example.expensemanager.repository;
+
+import com.example.expensemanager.dto.CategoryTotal;
+import com.example.expensemanager.dto.MonthlyTotal;
+import com.example.expensemanager.model.MonthlyCategoryTotal;
+import com.example.expensemanager.model.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface MonthlyCategoryTotalRepository extends JpaRepository<MonthlyCategoryTotal, Long> {
+
+    List<MonthlyCategoryTotal> findByUser(User user);
+
+    @Modifying
+    @Query("update MonthlyCategoryTotal t " +
+            "set t.totalMinor = t.totalMinor + :amountMinor, t.expenseCount = t.expenseCount + :count " +
+            "where t.user = :user and t.year = :year and t.month = :month and t.categoryKey = :categoryKey")
+    int addToTotal(
+            @Param("user") User user,
+            @Param("year") int year,
+            @Param("month") int month,
+            @Param("categoryKey") long categoryKey,
+            @Param("amountMinor") long amountMinor,
+            @Param("count") long count
+    );
+
+    // Periods are encoded as year * 12 + month so a month range is a single comparison
+    @Query("select new com.example.expensemanager.dto.CategoryTotal(c.id, c.name, sum(t.totalMinor)) " +
+            "from MonthlyCategoryTotal t left join Category c on c.id = t.categoryKey " +
+            "where t.user = :user " +
+            "and t.year * 12 + t.month between :fromPeriod and :toPeriod " +
+            "group by c.id, c.name " +
+            "having sum(t.expenseCount) > 0")
+    List<CategoryTotal> sumByCategory(
+            @Param("user") User user,
+            @Param("fromPeriod") int fromPeriod,
+            @Param("toPeriod") int toPeriod
+    );
+
+    @Query("select new com.example.expensemanager.dto.MonthlyTotal(t.year, t.month, sum(t.totalMinor)) " +
+            "from MonthlyCategoryTotal t " +
+            "where t.user = :user " +
+            "and t.year between :fromYear and :toYear " +
+            "group by t.year, t.month " +
+            "having sum(t.expenseCount) > 0 " +
+            "order by t.year, t.month")
+    List<MonthlyTotal> sumByMonth(
+            @Param("user") User user,
+            @Param("fromYear") int fromYear,
+            @Param("toYear") int toYear
+    );
+
+    @Modifying
+    @Query("delete from MonthlyCategoryTotal t where t.user = :user")
+    int deleteByUser(@Param("user") User user);
+}
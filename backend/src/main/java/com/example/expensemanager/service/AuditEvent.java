@@ -0,0 +1,17 @@
+package com.example.expensemanager.service;
+
+import java.time.Instant;
+
+/**
+ * One entry of the audit log. {@code principal}, {@code ipAddress} and {@code details} may
+ * be null where they do not apply.
+ */
+public record AuditEvent(Instant timestamp, String type, String principal, String ipAddress, String details) {
+
+    public static final String LOGIN_SUCCESS = "LOGIN_SUCCESS";
+    public static final String LOGIN_FAILURE = "LOGIN_FAILURE";
+    public static final String ACCOUNT_LOCKED = "ACCOUNT_LOCKED";
+    public static final String REGISTRATION = "REGISTRATION";
+    public static final String TOKEN_REFRESH = "TOKEN_REFRESH";
+    public static final String TOKEN_REFRESH_FAILURE = "TOKEN_REFRESH_FAILURE";
+}
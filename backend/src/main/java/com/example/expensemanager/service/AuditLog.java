@@ -0,0 +1,298 @@
+package com.example.expensemanager.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Append-only audit log in a directory of fixed-size, memory-mapped segment files
+ * ({@code audit-<index>.seg}). Records are appended to the newest segment; when one does not
+ * fit, the segment is forced to disk and the next one started, and the oldest segments beyond
+ * {@code maxSegments} are deleted.
+ *
+ * <p>A record is an int length followed by the encoded event. The length is written after the
+ * event, so a zero length marks the end of a segment, also after a crash mid-write. Reopening
+ * a directory scans the newest segment for that end and continues there.
+ *
+ * <p>{@link #append} and {@link #flush} must be called from a single writer thread. {@link #read}
+ * may run concurrently on any thread and sees every record appended before it started.
+ */
+final class AuditLog implements AutoCloseable {
+
+    private static final String PREFIX = "audit-";
+    private static final String SUFFIX = ".seg";
+    private static final int NULL_STRING = -1;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+
+    AuditLog(Path directory, int segmentSize, int maxSegments) throws IOException {
+        if (segmentSize < 1024) {
+            throw new IllegalArgumentException("Segment size must be at least 1KB: " + segmentSize);
+        }
+        if (maxSegments < 1) {
+            throw new IllegalArgumentException("At least one segment must be kept: " + maxSegments);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+
+        // Two writers appending to the same segment would corrupt it
+        this.lockChannel = FileChannel.open(directory.resolve(".lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock acquired;
+        try {
+            acquired = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            acquired = null;
+        }
+        if (acquired == null) {
+            lockChannel.close();
+            throw new IllegalStateException("Audit log directory " + directory + " is in use by another writer");
+        }
+        this.lock = acquired;
+
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> existing = files.filter(AuditLog::isSegment).sorted().toList();
+            for (Path file : existing) {
+                segments.add(Segment.open(file, segmentSize));
+            }
+        }
+        if (segments.isEmpty()) {
+            segments.add(Segment.open(segmentPath(0), segmentSize));
+        }
+        deleteExpiredSegments();
+    }
+
+    /**
+     * Appends the event to the active segment, rotating first if it does not fit.
+     *
+     * @throws IllegalArgumentException if the encoded event is larger than a segment
+     */
+    void append(AuditEvent event) throws IOException {
+        byte[] type = bytes(event.type());
+        byte[] principal = bytes(event.principal());
+        byte[] ipAddress = bytes(event.ipAddress());
+        byte[] details = bytes(event.details());
+        int length = Long.BYTES + Integer.BYTES
+                + encodedLength(type) + encodedLength(principal) + encodedLength(ipAddress) + encodedLength(details);
+        if (Integer.BYTES + length > segmentSize) {
+            throw new IllegalArgumentException("Audit event of " + length + " bytes does not fit in a segment");
+        }
+
+        Segment active = active();
+        if (active.end + Integer.BYTES + length > segmentSize) {
+            active = rotate();
+        }
+
+        MappedByteBuffer buffer = active.buffer;
+        int start = active.end;
+        buffer.position(start + Integer.BYTES);
+        buffer.putLong(event.timestamp().getEpochSecond());
+        buffer.putInt(event.timestamp().getNano());
+        put(buffer, type);
+        put(buffer, principal);
+        put(buffer, ipAddress);
+        put(buffer, details);
+        // Commits the record: readers and recovery stop at the first zero length
+        buffer.putInt(start, length);
+        active.end = start + Integer.BYTES + length;
+    }
+
+    /** Forces the active segment's appended records to disk. */
+    void flush() {
+        active().buffer.force();
+    }
+
+    /**
+     * Returns up to {@code limit} events accepted by {@code filter} with timestamps in
+     * {@code [from, to)}, newest segment first and, within a segment, newest first. Null bounds
+     * are open.
+     */
+    List<AuditEvent> read(Instant from, Instant to, Predicate<AuditEvent> filter, int limit) {
+        List<AuditEvent> result = new ArrayList<>();
+        List<Segment> snapshot = new ArrayList<>(segments);
+        for (int i = snapshot.size() - 1; i >= 0 && result.size() < limit; i--) {
+            Segment segment = snapshot.get(i);
+            int end = segment.end;
+            // The writer moves the shared buffer's position, so start from an explicit one
+            ByteBuffer buffer = segment.buffer.asReadOnlyBuffer().position(0).limit(end);
+            List<AuditEvent> matches = new ArrayList<>();
+            while (buffer.remaining() >= Integer.BYTES) {
+                int length = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    break;
+                }
+                int next = buffer.position() + length;
+                AuditEvent event = decode(buffer);
+                buffer.position(next);
+                if ((from == null || !event.timestamp().isBefore(from))
+                        && (to == null || event.timestamp().isBefore(to))
+                        && filter.test(event)) {
+                    matches.add(event);
+                }
+            }
+            Collections.reverse(matches);
+            result.addAll(matches.subList(0, Math.min(matches.size(), limit - result.size())));
+        }
+        return result;
+    }
+
+    int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        lock.release();
+        lockChannel.close();
+    }
+
+    private Segment active() {
+        return segments.get(segments.size() - 1);
+    }
+
+    private Segment rotate() throws IOException {
+        Segment previous = active();
+        previous.buffer.force();
+        Segment next = Segment.open(segmentPath(previous.index() + 1), segmentSize);
+        segments.add(next);
+        deleteExpiredSegments();
+        return next;
+    }
+
+    private void deleteExpiredSegments() throws IOException {
+        while (segments.size() > maxSegments) {
+            // Readers still holding the mapping keep working; the file goes once they drop it
+            Segment oldest = segments.remove(0);
+            Files.deleteIfExists(oldest.path);
+        }
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("%s%016d%s", PREFIX, index, SUFFIX));
+    }
+
+    private static boolean isSegment(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    private static AuditEvent decode(ByteBuffer buffer) {
+        Instant timestamp = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+        return new AuditEvent(timestamp, string(buffer), string(buffer), string(buffer), string(buffer));
+    }
+
+    private static byte[] bytes(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int encodedLength(byte[] value) {
+        return Integer.BYTES + (value != null ? value.length : 0);
+    }
+
+    private static void put(ByteBuffer buffer, byte[] value) {
+        if (value == null) {
+            buffer.putInt(NULL_STRING);
+        } else {
+            buffer.putInt(value.length);
+            buffer.put(value);
+        }
+    }
+
+    private static String string(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        buffer.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static final class Segment {
+
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        // Written by the writer thread only; volatile so readers see every committed record
+        private volatile int end;
+
+        private Segment(Path path, MappedByteBuffer buffer, int end) {
+            this.path = path;
+            this.buffer = buffer;
+            this.end = end;
+        }
+
+        static Segment open(Path path, int size) throws IOException {
+            try (FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                // Segments written with a larger configured size are mapped whole.
+                // The mapping stays valid after the channel is closed.
+                long mappedSize = Math.max(size, Math.min(channel.size(), Integer.MAX_VALUE));
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize);
+                int end = recoverEnd(buffer);
+                clearFrom(buffer, end);
+                return new Segment(path, buffer, end);
+            }
+        }
+
+        long index() {
+            String name = path.getFileName().toString();
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        }
+
+        /**
+         * Zeroes the segment from {@code end} on if anything was written there. A crash can
+         * leave a torn record behind a zero length, and its payload bytes would otherwise
+         * surface after later, shorter records.
+         */
+        private static void clearFrom(MappedByteBuffer buffer, int end) {
+            int dirty = end;
+            while (dirty < buffer.capacity() && buffer.get(dirty) == 0) {
+                dirty++;
+            }
+            for (int i = dirty; i < buffer.capacity(); i++) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+
+        /** Position after the last complete record. */
+        private static int recoverEnd(MappedByteBuffer mapped) {
+            ByteBuffer buffer = mapped.duplicate();
+            int end = 0;
+            while (buffer.remaining() >= Integer.BYTES) {
+                int length = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    break;
+                }
+                try {
+                    decode(buffer.duplicate().limit(buffer.position() + length));
+                } catch (RuntimeException e) {
+                    // Torn or corrupt record; appending resumes over it
+                    break;
+                }
+                buffer.position(buffer.position() + length);
+                end = buffer.position();
+            }
+            return end;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.expensemanager.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+
+/**
+ * Moves audit events off the request threads. {@link #publish} puts the event on a bounded
+ * lock-free queue and returns; a single writer thread drains the queue in batches into the
+ * {@link AuditLog} and forces each batch to disk.
+ *
+ * <p>Overflow policy: when the queue is full the new event is dropped, never the caller
+ * blocked. Drops are counted in {@code audit.events.dropped} (tagged {@code reason=overflow},
+ * or {@code reason=error} for events that could not be written) and logged by the writer once
+ * it catches up. Events still queued at shutdown are written before the log is closed. The
+ * writer thread survives any failure, errors included, so one bad write never stops auditing.
+ */
+@Component
+public class AuditLogWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    private final AuditLog log;
+    private final BoundedMpscQueue<AuditEvent> queue;
+    private final int batchSize;
+    private final long idleWaitNanos;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failed;
+    private final Thread thread;
+    private volatile boolean running;
+    private long droppedReported;
+
+    @Autowired
+    public AuditLogWriter(MeterRegistry meterRegistry,
+                          @Value("${expense.audit.directory:data/audit}") String directory,
+                          @Value("${expense.audit.segment-size:16MB}") DataSize segmentSize,
+                          @Value("${expense.audit.max-segments:16}") int maxSegments,
+                          @Value("${expense.audit.queue-capacity:65536}") int queueCapacity,
+                          @Value("${expense.audit.batch-size:1024}") int batchSize,
+                          @Value("${expense.audit.idle-wait:10ms}") Duration idleWait) throws IOException {
+        this(new AuditLog(Path.of(directory), Math.toIntExact(segmentSize.toBytes()), maxSegments),
+                meterRegistry, queueCapacity, batchSize, idleWait);
+    }
+
+    AuditLogWriter(AuditLog log, MeterRegistry meterRegistry, int queueCapacity, int batchSize, Duration idleWait) {
+        this.log = log;
+        this.queue = new BoundedMpscQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.idleWaitNanos = idleWait.toNanos();
+        this.written = Counter.builder("audit.events.written").register(meterRegistry);
+        this.dropped = Counter.builder("audit.events.dropped")
+                .description("Audit events not written")
+                .tag("reason", "overflow")
+                .register(meterRegistry);
+        this.failed = Counter.builder("audit.events.dropped")
+                .description("Audit events not written")
+                .tag("reason", "error")
+                .register(meterRegistry);
+        Gauge.builder("audit.queue.size", queue, BoundedMpscQueue::size).register(meterRegistry);
+        this.thread = new Thread(this::run, "audit-writer");
+        this.thread.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join();
+        log.close();
+    }
+
+    /**
+     * Queues the event for writing. Never blocks.
+     *
+     * @return false if the queue was full and the event was dropped
+     */
+    public boolean publish(AuditEvent event) {
+        if (queue.offer(event)) {
+            return true;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * Newest-first events with timestamps in {@code [from, to)} (null bounds are open) that
+     * match {@code filter}. Events still queued are not included.
+     */
+    public List<AuditEvent> query(Instant from, Instant to, Predicate<AuditEvent> filter, int limit) {
+        return log.read(from, to, filter, limit);
+    }
+
+    private void run() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (true) {
+            // Read before draining, so nothing queued before stop() is left behind
+            boolean stopping = !running;
+            queue.drain(batch::add, batchSize);
+            if (batch.isEmpty()) {
+                if (stopping) {
+                    return;
+                }
+                LockSupport.parkNanos(idleWaitNanos);
+                continue;
+            }
+            try {
+                write(batch);
+                reportDrops();
+            } catch (Throwable t) {
+                // Not knowing how far the batch got, count all of it; the thread must outlive this
+                failed.increment(batch.size());
+                logger.error("Audit writer failed on a batch of {} event(s)", batch.size(), t);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<AuditEvent> batch) {
+        int count = 0;
+        for (AuditEvent event : batch) {
+            try {
+                log.append(event);
+                count++;
+            } catch (IllegalArgumentException e) {
+                failed.increment();
+                logger.warn("Dropped {} audit event: {}", event.type(), e.getMessage());
+            } catch (Throwable t) {
+                // Errors too: a failed memory-mapped write surfaces as InternalError
+                failed.increment();
+                logger.error("Could not write {} audit event", event.type(), t);
+            }
+        }
+        try {
+            log.flush();
+        } catch (Throwable t) {
+            logger.error("Could not force audit log to disk", t);
+        }
+        written.increment(count);
+    }
+
+    private void reportDrops() {
+        long total = (long) dropped.count();
+        if (total > droppedReported) {
+            logger.warn("Audit queue overflowed: {} event(s) dropped since the last report", total - droppedReported);
+            droppedReported = total;
+        }
+    }
+}
@@ -1,85 +1,149 @@
 package com.example.expensemanager.service;
 
-import com.example.expensemanager.model.User;
-import com.example.expensemanager.repository.UserRepository;
+import com.example.expensemanager.config.UserDetailsCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.List;
+import java.util.Locale;
 
+/**
+ * Records security-relevant events. Called on request threads, so it only updates in-memory
+ * state and hands the event to {@link AuditLogWriter}; nothing here touches the database or
+ * waits for disk.
+ *
+ * <p>Failed logins are counted per email in a size-bounded cache. A count is forgotten once
+ * {@code failure-window} passes without another failure; reaching {@code max-failures} locks
+ * the email for {@code lockout-duration}, which {@link #isLocked} reports. Both caches evict by
+ * frequency when full, so a flood of one-off emails does not push out the counts and locks of
+ * accounts that are actually being attacked.
+ */
 @Service
 public class AuditService {
 
     private static final Logger logger = LoggerFactory.getLogger(AuditService.class);
-    
-    private final UserRepository userRepository;
-    
-    // In-memory store for failed login attempts (in production, use a database or Redis)
-    private final Map<String, FailedLoginAttempt> failedAttempts = new ConcurrentHashMap<>();
-
-    public AuditService(UserRepository userRepository) {
-        this.userRepository = userRepository;
+
+    private final AuditLogWriter auditLogWriter;
+    private final UserDetailsCache userDetailsCache;
+    private final int maxFailures;
+    private final Cache<String, FailedLoginAttempt> failedAttempts;
+    private final Cache<String, Boolean> lockedAccounts;
+
+    @Autowired
+    public AuditService(AuditLogWriter auditLogWriter,
+                        UserDetailsCache userDetailsCache,
+                        @Value("${security.login.max-failures:5}") int maxFailures,
+                        @Value("${security.login.failure-window:15m}") Duration failureWindow,
+                        @Value("${security.login.lockout-duration:15m}") Duration lockoutDuration,
+                        @Value("${security.login.max-tracked:100000}") long maxTracked) {
+        this(auditLogWriter, userDetailsCache, maxFailures, failureWindow, lockoutDuration, maxTracked, Ticker.systemTicker());
+    }
+
+    AuditService(AuditLogWriter auditLogWriter, UserDetailsCache userDetailsCache, int maxFailures,
+                 Duration failureWindow, Duration lockoutDuration, long maxTracked, Ticker ticker) {
+        this.auditLogWriter = auditLogWriter;
+        this.userDetailsCache = userDetailsCache;
+        this.maxFailures = maxFailures;
+        this.failedAttempts = Caffeine.newBuilder()
+                .maximumSize(maxTracked)
+                .expireAfterWrite(failureWindow)
+                .ticker(ticker)
+                .build();
+        this.lockedAccounts = Caffeine.newBuilder()
+                .maximumSize(maxTracked)
+                .expireAfterWrite(lockoutDuration)
+                .ticker(ticker)
+                .build();
+    }
+
+    /** Whether the email is locked out after repeated failed logins. */
+    public boolean isLocked(String email) {
+        return lockedAccounts.getIfPresent(key(email)) != null;
     }
 
-    @Async
     public void logLoginAttempt(String email, boolean success, String ipAddress) {
         if (success) {
-            failedAttempts.remove(email);
-            logger.info("AUDIT: Successful login for user: {} from IP: {}", email, ipAddress);
+            failedAttempts.invalidate(key(email));
+            publish(AuditEvent.LOGIN_SUCCESS, email, ipAddress, null);
         } else {
-            FailedLoginAttempt attempt = failedAttempts.compute(email, (k, v) -> {
+            FailedLoginAttempt attempt = failedAttempts.asMap().compute(key(email), (k, v) -> {
                 if (v == null) {
                     return new FailedLoginAttempt(1, LocalDateTime.now());
                 }
                 return new FailedLoginAttempt(v.count + 1, LocalDateTime.now());
             });
             
-            logger.warn("AUDIT: Failed login attempt ({}) for user: {} from IP: {}", 
-                    attempt.count, email, ipAddress);
+            publish(AuditEvent.LOGIN_FAILURE, email, ipAddress, "attempt " + attempt.count);
             
-            // Lock account after 5 failed attempts
-            if (attempt.count >= 5) {
-                lockAccount(email);
+            if (attempt.count >= maxFailures) {
+                lockAccount(email, ipAddress);
             }
         }
     }
 
-    @Async
     public void logRegistration(String email, String ipAddress) {
-        logger.info("AUDIT: New user registration: {} from IP: {}", email, ipAddress);
+        publish(AuditEvent.REGISTRATION, email, ipAddress, null);
     }
 
-    @Async
     public void logSecurityEvent(String eventType, String details) {
-        logger.info("AUDIT: {} - {}", eventType, details);
+        publish(eventType, null, null, details);
     }
 
-    @Async
     public void logTokenRefresh(String email, boolean success) {
-        if (success) {
-            logger.info("AUDIT: Token refreshed for user: {}", email);
-        } else {
-            logger.warn("AUDIT: Token refresh failed for user: {}", email);
-        }
+        publish(success ? AuditEvent.TOKEN_REFRESH : AuditEvent.TOKEN_REFRESH_FAILURE, email, null, null);
     }
 
-    private void lockAccount(String email) {
-        userRepository.findByEmail(email).ifPresent(user -> {
-            logger.warn("AUDIT: Account locked for user: {} due to multiple failed login attempts", email);
-            // In a real application, you would set a locked flag on the user
-        });
+    /**
+     * Audit events with timestamps in {@code [from, to)}, newest first. Null arguments do not
+     * filter; events accepted in the last few milliseconds may not be visible yet.
+     */
+    public List<AuditEvent> findEvents(Instant from, Instant to, String type, String principal, int limit) {
+        return auditLogWriter.query(from, to,
+                event -> (type == null || type.equals(event.type()))
+                        && (principal == null || principal.equals(event.principal())),
+                limit);
+    }
+
+    private void lockAccount(String email, String ipAddress) {
+        // Failed attempts are counted for unknown emails too; locking one that has no account is harmless
+        logger.warn("AUDIT: Account locked for user: {} due to multiple failed login attempts", email);
+        lockedAccounts.put(key(email), Boolean.TRUE);
+        publish(AuditEvent.ACCOUNT_LOCKED, email, ipAddress, null);
+        userDetailsCache.invalidate(email);
+    }
+
+    private void publish(String type, String principal, String ipAddress, String details) {
+        auditLogWriter.publish(new AuditEvent(Instant.now(), type, principal, ipAddress, details));
     }
 
     public FailedLoginAttempt getFailedAttempts(String email) {
-        return failedAttempts.get(email);
+        return failedAttempts.getIfPresent(key(email));
     }
 
+    /** Forgets the email's failed attempts and lifts a lockout. */
     public void resetFailedAttempts(String email) {
-        failedAttempts.remove(email);
+        failedAttempts.invalidate(key(email));
+        lockedAccounts.invalidate(key(email));
+    }
+
+    /** Emails with failed attempts currently counted, after pending evictions have been applied. */
+    long trackedEmails() {
+        failedAttempts.cleanUp();
+        return failedAttempts.estimatedSize();
+    }
+
+    private static String key(String email) {
+        // Otherwise every case variant of an address would get its own attempts
+        return email.toLowerCase(Locale.ROOT);
     }
 
     public record FailedLoginAttempt(int count, LocalDateTime lastAttempt) {}
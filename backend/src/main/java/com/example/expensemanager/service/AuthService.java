@@ -4,6 +4,7 @@ import com.example.expensemanager.config.JwtUtils;
 import com.example.expensemanager.controller.BusinessException;
 import com.example.expensemanager.dto.AuthRequest;
 import com.example.expensemanager.dto.AuthResponse;
+import com.example.expensemanager.dto.RebaseStatus;
 import com.example.expensemanager.dto.RegisterRequest;
 import com.example.expensemanager.model.Category;
 import com.example.expensemanager.model.User;
@@ -18,6 +19,9 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 @Service
 public class AuthService {
@@ -29,6 +33,7 @@ public class AuthService {
     private final JwtUtils jwtUtils;
     private final UserDetailsServiceImpl userDetailsService;
     private final AuditService auditService;
+    private final BaseCurrencyRebaseService rebaseService;
 
     public AuthService(AuthenticationManager authenticationManager,
                       UserRepository userRepository,
@@ -36,7 +41,8 @@ public class AuthService {
                       PasswordEncoder passwordEncoder,
                       JwtUtils jwtUtils,
                       UserDetailsServiceImpl userDetailsService,
-                      AuditService auditService) {
+                      AuditService auditService,
+                      BaseCurrencyRebaseService rebaseService) {
         this.authenticationManager = authenticationManager;
         this.userRepository = userRepository;
         this.categoryRepository = categoryRepository;
@@ -44,8 +50,10 @@ public class AuthService {
         this.jwtUtils = jwtUtils;
         this.userDetailsService = userDetailsService;
         this.auditService = auditService;
+        this.rebaseService = rebaseService;
     }
 
+    @Transactional
     public AuthResponse register(RegisterRequest request, String ipAddress) {
         if (userRepository.findByEmail(request.getEmail()).isPresent()) {
             throw new RuntimeException("Email already registered");
@@ -71,29 +79,41 @@ public class AuthService {
     }
 
     private void createDefaultCategories(User user) {
-        createCategory(user, "Food & Dining", "#ef4444");
-        createCategory(user, "Transportation", "#f59e0b");
-        createCategory(user, "Shopping", "#8b5cf6");
-        createCategory(user, "Entertainment", "#ec4899");
-        createCategory(user, "Bills & Utilities", "#0ea5e9");
-        createCategory(user, "Healthcare", "#10b981");
-        createCategory(user, "Education", "#6366f1");
-        createCategory(user, "Travel", "#14b8a6");
-        createCategory(user, "Groceries", "#84cc16");
-        createCategory(user, "Home & Garden", "#f97316");
-        createCategory(user, "Personal Care", "#a855f7");
-        createCategory(user, "Gifts & Donations", "#06b6d4");
+        // Saved together so the inserts go out as one JDBC batch with the user row
+        List<Category> categories = List.of(
+                category(user, "Food & Dining", "#ef4444"),
+                category(user, "Transportation", "#f59e0b"),
+                category(user, "Shopping", "#8b5cf6"),
+                category(user, "Entertainment", "#ec4899"),
+                category(user, "Bills & Utilities", "#0ea5e9"),
+                category(user, "Healthcare", "#10b981"),
+                category(user, "Education", "#6366f1"),
+                category(user, "Travel", "#14b8a6"),
+                category(user, "Groceries", "#84cc16"),
+                category(user, "Home & Garden", "#f97316"),
+                category(user, "Personal Care", "#a855f7"),
+                category(user, "Gifts & Donations", "#06b6d4"));
+        categoryRepository.saveAll(categories);
     }
 
-    private void createCategory(User user, String name, String color) {
+    private Category category(User user, String name, String color) {
         Category category = new Category();
         category.setUser(user);
         category.setName(name);
         category.setColor(color);
-        categoryRepository.save(category);
+        return category;
     }
 
     public AuthResponse login(AuthRequest request, String ipAddress) {
+        // Checked in memory before any lookup or password hashing, so a locked-out email costs neither
+        if (auditService.isLocked(request.getEmail())) {
+            throw new BusinessException(
+                "ACCOUNT_LOCKED",
+                "Too many failed login attempts. Please wait a few minutes before trying again.",
+                HttpStatus.TOO_MANY_REQUESTS
+            );
+        }
+
         // First check if user exists
         User user = userRepository.findByEmail(request.getEmail()).orElse(null);
 
@@ -134,8 +154,17 @@ public class AuthService {
         }
     }
 
-    public void updateBaseCurrency(User user, String baseCurrency) {
-        user.setBaseCurrency(baseCurrency);
-        userRepository.save(user);
+    /**
+     * Switches the user's base currency and, if amounts were already stored in the old one,
+     * starts converting them in the background.
+     *
+     * @return the started re-base, or null if there was nothing to convert
+     */
+    public RebaseStatus updateBaseCurrency(User user, String baseCurrency) {
+        return rebaseService.changeBaseCurrency(user, baseCurrency);
+    }
+
+    public RebaseStatus getRebaseStatus(User user) {
+        return rebaseService.status(user);
     }
 }
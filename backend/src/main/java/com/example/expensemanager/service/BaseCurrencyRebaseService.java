@@ -0,0 +1,340 @@
+package com.example.expensemanager.service;
+
+import com.example.expensemanager.config.ExecutorConfig;
+import com.example.expensemanager.config.UserDetailsCache;
+import com.example.expensemanager.controller.BusinessException;
+import com.example.expensemanager.dto.RebaseStatus;
+import com.example.expensemanager.model.Budget;
+import com.example.expensemanager.model.Expense;
+import com.example.expensemanager.model.Money;
+import com.example.expensemanager.model.User;
+import com.example.expensemanager.repository.BudgetRepository;
+import com.example.expensemanager.repository.ExpenseRepository;
+import com.example.expensemanager.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Re-expresses a user's stored amounts in a new base currency after they change it. The job
+ * runs on the {@link ExecutorConfig#REBASE_EXECUTOR} executor and walks the expenses in
+ * keyset chunks by id, one short transaction per chunk, so a large history neither blocks a
+ * request thread nor holds one long transaction. Every expense is converted again from its
+ * original amount and currency against one {@link RateSnapshot} taken when the job starts
+ * (historical rates still apply per expense date); the updates go out as JDBC batches when
+ * each chunk is flushed. Budgets are converted next, then the monthly rollup is rebuilt.
+ *
+ * <p>The new base currency is saved before the job runs, so new amounts are stored in it
+ * right away, together with the currency the old amounts are in
+ * ({@link User#getRebaseFromCurrency()}). That marker is only cleared in the job's last
+ * transaction: if the job is rejected or fails partway, asking for a base currency again
+ * resumes from it. Every step can be repeated: expenses are converted from their original
+ * amounts, and legacy rows without one get it recorded on their first conversion.
+ *
+ * <p>The job overwrites rows without checking for concurrent edits, so expense writes are
+ * rejected while it runs (see {@link #checkNotRunning}). An expense or budget whose converted
+ * amount is too large to store is left as it was and listed in the status instead of failing
+ * the whole job.
+ */
+@Service
+public class BaseCurrencyRebaseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BaseCurrencyRebaseService.class);
+    private static final long MAX_FINISHED_JOBS = 10_000;
+
+    private final UserRepository userRepository;
+    private final ExpenseRepository expenseRepository;
+    private final BudgetRepository budgetRepository;
+    private final UserDetailsCache userDetailsCache;
+    private final CurrencyService currencyService;
+    private final ExpenseRollupService rollupService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskExecutor executor;
+    private final int chunkSize;
+
+    // Running job per user id; a job moves to finishedJobs when it ends
+    private final Map<Long, Job> runningJobs = new ConcurrentHashMap<>();
+    // Last finished job per user id, kept for status-retention so clients can read the outcome
+    private final Cache<Long, Job> finishedJobs;
+
+    @Autowired
+    public BaseCurrencyRebaseService(UserRepository userRepository,
+                                     ExpenseRepository expenseRepository,
+                                     BudgetRepository budgetRepository,
+                                     UserDetailsCache userDetailsCache,
+                                     CurrencyService currencyService,
+                                     ExpenseRollupService rollupService,
+                                     EntityManager entityManager,
+                                     PlatformTransactionManager transactionManager,
+                                     @Qualifier(ExecutorConfig.REBASE_EXECUTOR) TaskExecutor executor,
+                                     @Value("${expense.rebase.chunk-size:1000}") int chunkSize,
+                                     @Value("${expense.rebase.status-retention:1h}") Duration statusRetention) {
+        this(userRepository, expenseRepository, budgetRepository, userDetailsCache, currencyService, rollupService,
+                entityManager, transactionManager, executor, chunkSize, statusRetention, Ticker.systemTicker());
+    }
+
+    BaseCurrencyRebaseService(UserRepository userRepository,
+                              ExpenseRepository expenseRepository,
+                              BudgetRepository budgetRepository,
+                              UserDetailsCache userDetailsCache,
+                              CurrencyService currencyService,
+                              ExpenseRollupService rollupService,
+                              EntityManager entityManager,
+                              PlatformTransactionManager transactionManager,
+                              TaskExecutor executor,
+                              int chunkSize,
+                              Duration statusRetention,
+                              Ticker ticker) {
+        this.userRepository = userRepository;
+        this.expenseRepository = expenseRepository;
+        this.budgetRepository = budgetRepository;
+        this.userDetailsCache = userDetailsCache;
+        this.currencyService = currencyService;
+        this.rollupService = rollupService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+        this.finishedJobs = Caffeine.newBuilder()
+                .maximumSize(MAX_FINISHED_JOBS)
+                .expireAfterWrite(statusRetention)
+                .ticker(ticker)
+                .build();
+    }
+
+    public boolean isRunning(User user) {
+        return runningJobs.containsKey(user.getId());
+    }
+
+    /**
+     * Called before changing any of the user's expenses.
+     *
+     * @throws BusinessException if their amounts are being converted
+     */
+    public void checkNotRunning(User user) {
+        Job current = runningJobs.get(user.getId());
+        if (current != null) {
+            throw inProgress(current);
+        }
+    }
+
+    private static BusinessException inProgress(Job job) {
+        return new BusinessException("REBASE_IN_PROGRESS",
+                "Your amounts are still being converted to " + job.toCurrency + ". Please try again shortly.",
+                HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Switches the user's base currency and, if stored amounts are in another one, starts
+     * converting them in the background. Synchronized so that checking for a running job,
+     * saving the switch and starting the job happen as one step; changes are rare.
+     *
+     * @return the started re-base, or null if there was nothing to convert
+     */
+    public synchronized RebaseStatus changeBaseCurrency(User user, String baseCurrency) {
+        checkNotRunning(user);
+
+        String previous = user.getBaseCurrency();
+        // A conversion that did not complete leaves amounts in its source currency (or already
+        // in its target, which converting again from the originals puts right)
+        String pending = user.getRebaseFromCurrency();
+        String fromCurrency = pending != null ? pending : previous;
+        boolean convert = pending != null
+                || (previous != null && !previous.isBlank() && !previous.equalsIgnoreCase(baseCurrency));
+
+        user.setBaseCurrency(baseCurrency);
+        user.setRebaseFromCurrency(convert ? fromCurrency : null);
+        userRepository.save(user);
+        // The cached principal carries the base currency
+        userDetailsCache.invalidate(user.getEmail());
+
+        return convert ? start(user.getId(), fromCurrency, baseCurrency) : null;
+    }
+
+    private RebaseStatus start(Long userId, String fromCurrency, String toCurrency) {
+        Job job = new Job(userId, fromCurrency.toUpperCase(), toCurrency.toUpperCase());
+        runningJobs.put(userId, job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (TaskRejectedException e) {
+            job.fail("Too many currency conversions are queued");
+            finish(job);
+            throw new BusinessException("REBASE_REJECTED",
+                    "Too many currency conversions are queued. Please try again later.", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return job.status();
+    }
+
+    /**
+     * @return the user's current or most recent re-base, or null if there has been none
+     */
+    public RebaseStatus status(User user) {
+        Job job = runningJobs.get(user.getId());
+        if (job == null) {
+            job = finishedJobs.getIfPresent(user.getId());
+        }
+        return job != null ? job.status() : null;
+    }
+
+    void run(Job job) {
+        try {
+            RateSnapshot rates = currencyService.snapshot();
+            job.total = transactionTemplate.execute(status -> expenseRepository.countByUser(user(job)));
+
+            long afterId = 0;
+            while (true) {
+                long from = afterId;
+                Long lastId = transactionTemplate.execute(status -> convertChunk(job, from, rates));
+                if (lastId == null) {
+                    break;
+                }
+                afterId = lastId;
+            }
+
+            // One transaction, so a failure here leaves every budget to be converted on a retry
+            transactionTemplate.executeWithoutResult(status -> {
+                convertBudgets(job, rates);
+                rollupService.rebuild(user(job));
+                user(job).setRebaseFromCurrency(null);
+            });
+
+            job.complete();
+            finish(job);
+            logger.info("Re-based {} expenses and {} budgets of user {} from {} to {}",
+                    job.processed.get(), job.budgets, job.userId, job.fromCurrency, job.toCurrency);
+        } catch (RuntimeException e) {
+            job.fail(e.getMessage());
+            finish(job);
+            logger.error("Re-base of user {} from {} to {} failed after {} expenses",
+                    job.userId, job.fromCurrency, job.toCurrency, job.processed.get(), e);
+        }
+    }
+
+    /**
+     * Converts the next chunk after {@code afterId}.
+     *
+     * @return the id of the last converted expense, or null when there are no more
+     */
+    private Long convertChunk(Job job, long afterId, RateSnapshot rates) {
+        List<Expense> chunk = expenseRepository.findChunkAfter(user(job), afterId, PageRequest.of(0, chunkSize));
+        if (chunk.isEmpty()) {
+            return null;
+        }
+        for (Expense expense : chunk) {
+            if (expense.getOriginalAmount() == null) {
+                // Rows from before original amounts were recorded hold the amount in the old base;
+                // recorded now so converting them again after a failed run starts from the same value
+                expense.setOriginalCurrency(job.fromCurrency);
+                expense.setOriginalAmount(expense.getAmount());
+            } else if (expense.getOriginalCurrency() == null) {
+                expense.setOriginalCurrency(job.fromCurrency);
+            }
+            BigDecimal rate = currencyService.rateOn(expense.getDate(), expense.getOriginalCurrency(), job.toCurrency, rates);
+            BigDecimal amount = CurrencyService.applyRate(expense.getOriginalAmount(), rate);
+            if (!Money.fits(amount)) {
+                job.skippedExpenseIds.add(expense.getId());
+                continue;
+            }
+            expense.setExchangeRate(rate);
+            expense.setAmount(amount);
+        }
+        // Sends the dirty rows as batched updates and keeps the persistence context chunk-sized
+        entityManager.flush();
+        entityManager.clear();
+        job.processed.addAndGet(chunk.size());
+        return chunk.get(chunk.size() - 1).getId();
+    }
+
+    private void convertBudgets(Job job, RateSnapshot rates) {
+        int converted = 0;
+        for (Budget budget : budgetRepository.findByUser(user(job))) {
+            // Budgets saved since the switch already hold the new currency
+            String currency = budget.getCurrency() != null ? budget.getCurrency() : job.fromCurrency;
+            if (!currency.equalsIgnoreCase(job.toCurrency)) {
+                BigDecimal limit = rates.convert(budget.getLimitAmount(), currency, job.toCurrency);
+                if (!Money.fits(limit)) {
+                    job.skippedBudgetIds.add(budget.getId());
+                    continue;
+                }
+                budget.setLimitAmount(limit);
+                converted++;
+            }
+            budget.setCurrency(job.toCurrency);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        job.budgets = converted;
+    }
+
+    private void finish(Job job) {
+        // Published as finished before it stops counting as running, so status never goes missing
+        finishedJobs.put(job.userId, job);
+        runningJobs.remove(job.userId, job);
+    }
+
+    private User user(Job job) {
+        return entityManager.getReference(User.class, job.userId);
+    }
+
+    static class Job {
+
+        private final Long userId;
+        private final String fromCurrency;
+        private final String toCurrency;
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong processed = new AtomicLong();
+        // Rows left unconverted because the converted amount does not fit
+        private final List<Long> skippedExpenseIds = new CopyOnWriteArrayList<>();
+        private final List<Long> skippedBudgetIds = new CopyOnWriteArrayList<>();
+        private volatile RebaseStatus.State state = RebaseStatus.State.RUNNING;
+        private volatile long total;
+        private volatile int budgets;
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        Job(Long userId, String fromCurrency, String toCurrency) {
+            this.userId = userId;
+            this.fromCurrency = fromCurrency;
+            this.toCurrency = toCurrency;
+        }
+
+        void complete() {
+            finishedAt = Instant.now();
+            state = RebaseStatus.State.COMPLETED;
+        }
+
+        void fail(String message) {
+            error = message;
+            finishedAt = Instant.now();
+            state = RebaseStatus.State.FAILED;
+        }
+
+        RebaseStatus status() {
+            return new RebaseStatus(state, fromCurrency, toCurrency, total, processed.get(), budgets,
+                    List.copyOf(skippedExpenseIds), List.copyOf(skippedBudgetIds), startedAt, finishedAt, error);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.expensemanager.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Fixed-capacity, lock-free queue for many producers and a single consumer. Producers claim a
+ * slot with one CAS on the tail and never block: {@link #offer} fails immediately when the
+ * queue is full. Each slot carries a sequence number that tells producers whether it is free
+ * and the consumer whether it has been published (the bounded queue design by Dmitry Vyukov).
+ *
+ * <p>{@link #poll} and {@link #drain} must only ever be called from one thread.
+ */
+final class BoundedMpscQueue<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    BoundedMpscQueue(int requestedCapacity) {
+        if (requestedCapacity < 2 || requestedCapacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 2 and 2^30: " + requestedCapacity);
+        }
+        this.capacity = Integer.highestOneBit(requestedCapacity - 1) << 1;
+        this.mask = capacity - 1;
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /** Capacity rounded up to a power of two. */
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Adds the element unless the queue is full.
+     *
+     * @return false if there was no free slot
+     */
+    boolean offer(E element) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long available = sequences.get(index) - position;
+            if (available == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    // Publishes the element to the consumer
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (available < 0) {
+                // The consumer has not freed this slot since the last lap
+                return false;
+            }
+            // Otherwise another producer took the slot; retry with the new tail
+        }
+    }
+
+    /** Removes the oldest published element, or returns null if there is none. Consumer only. */
+    E poll() {
+        long position = head;
+        int index = (int) position & mask;
+        if (sequences.get(index) != position + 1) {
+            return null;
+        }
+        E element = elements.get(index);
+        elements.lazySet(index, null);
+        // Frees the slot for the producer one lap ahead
+        sequences.set(index, position + capacity);
+        head = position + 1;
+        return element;
+    }
+
+    /** Hands up to {@code limit} elements to {@code consumer}, oldest first. Consumer only. */
+    int drain(Consumer<? super E> consumer, int limit) {
+        int drained = 0;
+        E element;
+        while (drained < limit && (element = poll()) != null) {
+            consumer.accept(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    /** Approximate number of queued elements; exact when producers are idle. */
+    int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+}
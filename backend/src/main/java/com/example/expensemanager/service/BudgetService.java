@@ -1,11 +1,14 @@
 package com.example.expensemanager.service;
 
+import com.example.expensemanager.config.AuthenticatedUser;
+import com.example.expensemanager.config.UserDetailsCache;
 import com.example.expensemanager.controller.BusinessException;
 import com.example.expensemanager.dto.BudgetRequest;
 import com.example.expensemanager.dto.BudgetStatusResponse;
+import com.example.expensemanager.dto.CategoryTotal;
 import com.example.expensemanager.model.Budget;
 import com.example.expensemanager.model.Category;
-import com.example.expensemanager.model.Expense;
+import com.example.expensemanager.model.Money;
 import com.example.expensemanager.model.User;
 import com.example.expensemanager.repository.BudgetRepository;
 import com.example.expensemanager.repository.CategoryRepository;
@@ -13,12 +16,13 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 public class BudgetService {
@@ -26,25 +30,32 @@ public class BudgetService {
     private final BudgetRepository budgetRepository;
     private final CategoryRepository categoryRepository;
     private final ExpenseService expenseService;
+    private final UserDetailsCache userDetailsCache;
 
     public BudgetService(BudgetRepository budgetRepository,
                          CategoryRepository categoryRepository,
-                         ExpenseService expenseService) {
+                         ExpenseService expenseService,
+                         UserDetailsCache userDetailsCache) {
         this.budgetRepository = budgetRepository;
         this.categoryRepository = categoryRepository;
         this.expenseService = expenseService;
+        this.userDetailsCache = userDetailsCache;
     }
 
     @Transactional
     public Budget createBudget(User user, BudgetRequest request) {
+        ExpenseService.checkFits(request.getLimitAmount());
+
         // Check if user has base currency set, if not set it now
-        String baseCurrency = user.getBaseCurrency();
+        String baseCurrency = AuthenticatedUser.baseCurrencyOf(user);
         if (baseCurrency == null || baseCurrency.trim().isEmpty()) {
             // Set base currency from request or default to INR
             baseCurrency = request.getCurrency() != null && !request.getCurrency().trim().isEmpty()
                 ? request.getCurrency()
                 : "INR";
             user.setBaseCurrency(baseCurrency);
+            // The cached principal still carries no base currency
+            userDetailsCache.invalidate(user.getEmail());
         }
 
         Budget b = new Budget();
@@ -52,6 +63,7 @@ public class BudgetService {
         b.setYear(request.getYear());
         b.setMonth(request.getMonth());
         b.setLimitAmount(request.getLimitAmount());
+        b.setCurrency(baseCurrency);
 
         if (request.getCategoryId() != null) {
             Optional<Category> categoryOpt = categoryRepository.findById(request.getCategoryId());
@@ -69,10 +81,12 @@ public class BudgetService {
         if (!budget.getUser().getId().equals(user.getId())) {
             throw new RuntimeException("Unauthorized");
         }
+        ExpenseService.checkFits(request.getLimitAmount());
 
         budget.setYear(request.getYear());
         budget.setMonth(request.getMonth());
         budget.setLimitAmount(request.getLimitAmount());
+        budget.setCurrency(AuthenticatedUser.baseCurrencyOf(user));
 
         if (request.getCategoryId() != null) {
             Optional<Category> categoryOpt = categoryRepository.findById(request.getCategoryId());
@@ -86,37 +100,44 @@ public class BudgetService {
 
     public List<BudgetStatusResponse> getBudgetsWithStatus(User user, int year, int month) {
         List<Budget> budgets = budgetRepository.findByUserAndYearAndMonth(user, year, month);
+        if (budgets.isEmpty()) {
+            return List.of();
+        }
+
         YearMonth ym = YearMonth.of(year, month);
         LocalDate start = ym.atDay(1);
         LocalDate end = ym.atEndOfMonth();
 
-        return budgets.stream()
-                .map(budget -> {
-                    Long categoryId = budget.getCategory() != null ? budget.getCategory().getId() : null;
-                    String categoryName = budget.getCategory() != null ? budget.getCategory().getName() : "All expenses";
-
-                    List<Expense> expenses = expenseService.getExpenses(
-                            user,
-                            categoryId,
-                            start,
-                            end
-                    );
-
-                    BigDecimal spent = expenses.stream()
-                            .map(Expense::getAmount)
-                            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-                    return new BudgetStatusResponse(
-                            budget.getId(),
-                            budget.getYear(),
-                            budget.getMonth(),
-                            categoryId,
-                            categoryName,
-                            budget.getLimitAmount(),
-                            spent
-                    );
-                })
-                .collect(Collectors.toList());
+        // One grouped query serves every budget; the overall budget is the sum of all rows.
+        // Summed as fixed-point longs; BigDecimal only for the response.
+        Map<Long, Long> spentByCategory = new HashMap<>();
+        long spentOverall = 0;
+        for (CategoryTotal total : expenseService.categoryTotals(user, start, end)) {
+            spentOverall += total.getTotalMinor();
+            if (total.getCategoryId() != null) {
+                spentByCategory.put(total.getCategoryId(), total.getTotalMinor());
+            }
+        }
+
+        List<BudgetStatusResponse> statuses = new ArrayList<>(budgets.size());
+        for (Budget budget : budgets) {
+            Long categoryId = budget.getCategory() != null ? budget.getCategory().getId() : null;
+            String categoryName = budget.getCategory() != null ? budget.getCategory().getName() : "All expenses";
+            long spent = budget.getCategory() != null
+                    ? spentByCategory.getOrDefault(categoryId, 0L)
+                    : spentOverall;
+
+            statuses.add(new BudgetStatusResponse(
+                    budget.getId(),
+                    budget.getYear(),
+                    budget.getMonth(),
+                    categoryId,
+                    categoryName,
+                    budget.getLimitAmount(),
+                    Money.toDecimal(spent)
+            ));
+        }
+        return statuses;
     }
 
     @Transactional
@@ -1,106 +1,123 @@
 package com.example.expensemanager.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.expensemanager.config.CacheConfig;
+import com.example.expensemanager.controller.BusinessException;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.client.RestClientException;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Currency conversion against the local {@link ExchangeRateStore} and, for dated amounts, the
+ * {@link HistoricalRateStore}. Nothing here performs I/O; rates are fetched in the background
+ * by {@link ExchangeRateRefresher}.
+ */
 @Service
-@EnableCaching
 public class CurrencyService {
 
-    private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper;
+    private final ExchangeRateStore rateStore;
+    private final HistoricalRateStore historicalRateStore;
 
-    // ExchangeRate-API free tier endpoint
-    private static final String EXCHANGE_RATE_API_URL = "https://api.exchangerate-api.com/v4/latest/";
-
-    public CurrencyService() {
-        this.restTemplate = new RestTemplate();
-        this.objectMapper = new ObjectMapper();
+    public CurrencyService(ExchangeRateStore rateStore, HistoricalRateStore historicalRateStore) {
+        this.rateStore = rateStore;
+        this.historicalRateStore = historicalRateStore;
     }
 
-    @Cacheable(value = "exchangeRates", key = "#baseCurrency")
+    /**
+     * Rates from the given base currency to every known currency. Loaded at most once per base
+     * at a time; see {@link CacheConfig} for size, expiry and refresh.
+     */
+    @Cacheable(value = CacheConfig.EXCHANGE_RATES, key = "#baseCurrency?.toUpperCase() ?: ''", sync = true)
     public Map<String, BigDecimal> getExchangeRates(String baseCurrency) {
-        try {
-            String url = EXCHANGE_RATE_API_URL + baseCurrency.toUpperCase();
-            String response = restTemplate.getForObject(url, String.class);
-
-            JsonNode root = objectMapper.readTree(response);
-            JsonNode rates = root.path("rates");
-
-            Map<String, BigDecimal> exchangeRates = new HashMap<>();
-            rates.fields().forEachRemaining(entry -> {
-                exchangeRates.put(entry.getKey(), BigDecimal.valueOf(entry.getValue().asDouble()));
-            });
-
-            return exchangeRates;
-        } catch (Exception e) {
-            // Fallback: return direct conversion (1:1) if API fails
-            Map<String, BigDecimal> fallbackRates = new HashMap<>();
-            fallbackRates.put("USD", BigDecimal.ONE);
-            fallbackRates.put("EUR", BigDecimal.ONE);
-            fallbackRates.put("GBP", BigDecimal.ONE);
-            fallbackRates.put("JPY", BigDecimal.ONE);
-            fallbackRates.put("CNY", BigDecimal.ONE);
-            fallbackRates.put("INR", BigDecimal.ONE);
-            fallbackRates.put("AUD", BigDecimal.ONE);
-            fallbackRates.put("CAD", BigDecimal.ONE);
-            fallbackRates.put("CHF", BigDecimal.ONE);
-            fallbackRates.put("SEK", BigDecimal.ONE);
-            fallbackRates.put("NZD", BigDecimal.ONE);
-            fallbackRates.put("SGD", BigDecimal.ONE);
-            return fallbackRates;
+        if (baseCurrency == null || !baseCurrency.matches("[A-Za-z]{3}")) {
+            throw new BusinessException("INVALID_CURRENCY", "Currency must be a three-letter ISO code", HttpStatus.BAD_REQUEST);
         }
+        return ratesFor(rateStore.current(), baseCurrency.toUpperCase());
     }
 
-    public BigDecimal convertToUSD(BigDecimal amount, String fromCurrency) {
-        if ("USD".equalsIgnoreCase(fromCurrency)) {
-            return amount;
+    public static Map<String, BigDecimal> ratesFor(RateSnapshot snapshot, String baseCurrency) {
+        int baseId = snapshot.idOf(baseCurrency);
+
+        Map<String, BigDecimal> exchangeRates = new HashMap<>();
+        for (int id = 0; id < snapshot.size(); id++) {
+            // Fallback: direct conversion (1:1) for an unknown base currency
+            exchangeRates.put(snapshot.currencyOf(id), baseId >= 0 ? snapshot.crossRate(baseId, id) : BigDecimal.ONE);
         }
+        return Map.copyOf(exchangeRates);
+    }
 
-        Map<String, BigDecimal> rates = getExchangeRates("USD");
-        BigDecimal rate = rates.get(fromCurrency.toUpperCase());
+    /**
+     * Drops cached per-base rate maps after the store has been refreshed.
+     */
+    @CacheEvict(value = CacheConfig.EXCHANGE_RATES, allEntries = true)
+    public void evictExchangeRates() {
+    }
 
-        if (rate != null) {
-            return amount.divide(rate, 6, RoundingMode.HALF_UP);
-        }
+    /**
+     * The current rates, for bulk operations that should convert every row against the
+     * same snapshot via {@link #convertCurrency(BigDecimal, String, String, RateSnapshot)}.
+     */
+    public RateSnapshot snapshot() {
+        return rateStore.current();
+    }
 
-        // Fallback: return original amount if conversion fails
-        return amount;
+    public BigDecimal convertToUSD(BigDecimal amount, String fromCurrency) {
+        return convertCurrency(amount, fromCurrency, "USD");
     }
 
     public BigDecimal convertFromUSD(BigDecimal amountUSD, String toCurrency) {
-        if ("USD".equalsIgnoreCase(toCurrency)) {
-            return amountUSD;
-        }
+        return convertCurrency(amountUSD, "USD", toCurrency);
+    }
 
-        Map<String, BigDecimal> rates = getExchangeRates("USD");
-        BigDecimal rate = rates.get(toCurrency.toUpperCase());
+    public BigDecimal convertCurrency(BigDecimal amount, String fromCurrency, String toCurrency) {
+        return convertCurrency(amount, fromCurrency, toCurrency, rateStore.current());
+    }
 
-        if (rate != null) {
-            return amountUSD.multiply(rate).setScale(2, RoundingMode.HALF_UP);
+    /**
+     * Converts with the precomputed cross rate of the given snapshot. Currencies without
+     * a rate are treated as USD.
+     */
+    public BigDecimal convertCurrency(BigDecimal amount, String fromCurrency, String toCurrency, RateSnapshot snapshot) {
+        if (fromCurrency.equalsIgnoreCase(toCurrency)) {
+            return amount;
         }
+        return snapshot.convert(amount, fromCurrency, toCurrency);
+    }
 
-        // Fallback: return USD amount if conversion fails
-        return amountUSD;
+    public BigDecimal rateOn(LocalDate date, String fromCurrency, String toCurrency) {
+        return rateOn(date, fromCurrency, toCurrency, rateStore.current());
     }
 
-    public BigDecimal convertCurrency(BigDecimal amount, String fromCurrency, String toCurrency) {
+    /**
+     * The rate in effect on the date: from the historical series when it covers the date and
+     * both currencies, otherwise the current rate from the given snapshot.
+     */
+    public BigDecimal rateOn(LocalDate date, String fromCurrency, String toCurrency, RateSnapshot current) {
         if (fromCurrency.equalsIgnoreCase(toCurrency)) {
-            return amount;
+            return BigDecimal.ONE;
+        }
+        if (date != null) {
+            BigDecimal historical = historicalRateStore.current().crossRate(fromCurrency, toCurrency, date);
+            if (historical != null) {
+                return historical;
+            }
         }
+        return current.crossRate(fromCurrency, toCurrency);
+    }
 
-        // Convert to USD first, then to target currency
-        BigDecimal amountUSD = convertToUSD(amount, fromCurrency);
-        return convertFromUSD(amountUSD, toCurrency);
+    /**
+     * Applies a rate from {@link #rateOn} with the same rounding as {@link RateSnapshot#convert}.
+     */
+    public static BigDecimal applyRate(BigDecimal amount, BigDecimal rate) {
+        if (rate.compareTo(BigDecimal.ONE) == 0) {
+            return amount;
+        }
+        return amount.multiply(rate).setScale(2, RoundingMode.HALF_UP);
     }
 }
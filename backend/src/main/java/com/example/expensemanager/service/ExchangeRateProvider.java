@@ -0,0 +1,20 @@
+package com.example.expensemanager.service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Source of current exchange rates. Only {@link ExchangeRateRefresher} calls it, on a
+ * background schedule; request handling reads the local {@link ExchangeRateStore} instead.
+ * The implementation is chosen with {@code expense.rates.provider} ({@code http} or {@code file}).
+ */
+public interface ExchangeRateProvider {
+
+    /**
+     * @return units of each currency per 1 USD, keyed by upper-case ISO code
+     */
+    Map<String, BigDecimal> fetchUsdRates() throws IOException;
+
+    String name();
+}
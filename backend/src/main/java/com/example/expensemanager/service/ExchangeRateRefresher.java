@@ -0,0 +1,54 @@
+package com.example.expensemanager.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Keeps {@link ExchangeRateStore} current from the configured {@link ExchangeRateProvider}.
+ * Runs on the scheduler thread, first right after startup and then at a fixed delay; a failed
+ * refresh is logged and the last good snapshot stays in use.
+ */
+@Component
+public class ExchangeRateRefresher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExchangeRateRefresher.class);
+
+    private final ExchangeRateProvider provider;
+    private final ExchangeRateStore store;
+    private final CurrencyService currencyService;
+
+    public ExchangeRateRefresher(ExchangeRateProvider provider, ExchangeRateStore store, CurrencyService currencyService) {
+        this.provider = provider;
+        this.store = store;
+        this.currencyService = currencyService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadPersisted() {
+        if (store.loadPersisted()) {
+            currencyService.evictExchangeRates();
+            logger.info("Loaded persisted exchange rates from {}", store.current().getFetchedAt());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${expense.rates.refresh-interval:PT1H}", initialDelayString = "${expense.rates.initial-delay:PT5S}")
+    public void refresh() {
+        try {
+            Map<String, BigDecimal> rates = provider.fetchUsdRates();
+            if (store.update(rates, provider.name())) {
+                currencyService.evictExchangeRates();
+            }
+            logger.info("Refreshed {} exchange rates from {}", rates.size(), provider.name());
+        } catch (Exception e) {
+            logger.warn("Exchange rate refresh from {} failed, keeping rates from {}: {}",
+                    provider.name(), store.current().getFetchedAt(), e.getMessage());
+        }
+    }
+}
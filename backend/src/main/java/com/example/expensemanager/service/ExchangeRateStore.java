@@ -0,0 +1,101 @@
+package com.example.expensemanager.service;
+
+import com.example.expensemanager.model.ExchangeRate;
+import com.example.expensemanager.repository.ExchangeRateRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Local source of exchange rates for request handling. {@link #current()} only reads an
+ * in-memory snapshot, so conversions never wait on the network or the database. The snapshot
+ * starts from the rates bundled with the application, is replaced by the persisted table on
+ * startup and by {@link ExchangeRateRefresher} on every successful refresh; a snapshot is
+ * only ever replaced by a newer one.
+ */
+@Component
+public class ExchangeRateStore {
+
+    private final ExchangeRateRepository exchangeRateRepository;
+    private final AtomicReference<RateSnapshot> snapshot;
+
+    public ExchangeRateStore(ExchangeRateRepository exchangeRateRepository, ObjectMapper objectMapper) {
+        this.exchangeRateRepository = exchangeRateRepository;
+        this.snapshot = new AtomicReference<>(bundled(objectMapper));
+    }
+
+    public RateSnapshot current() {
+        return snapshot.get();
+    }
+
+    /**
+     * Persists freshly fetched rates and publishes them to readers.
+     *
+     * @return whether the snapshot was replaced
+     */
+    @Transactional
+    public boolean update(Map<String, BigDecimal> usdRates, String source) {
+        RateSnapshot next = new RateSnapshot(usdRates, Instant.now(), source);
+
+        List<ExchangeRate> rows = new ArrayList<>(usdRates.size());
+        for (Map.Entry<String, BigDecimal> entry : usdRates.entrySet()) {
+            ExchangeRate row = new ExchangeRate();
+            row.setCurrency(entry.getKey());
+            row.setRate(entry.getValue());
+            row.setFetchedAt(next.getFetchedAt());
+            row.setSource(source);
+            rows.add(row);
+        }
+        exchangeRateRepository.deleteAllInBatch();
+        exchangeRateRepository.saveAll(rows);
+
+        return publish(next);
+    }
+
+    /**
+     * Loads the rates persisted by an earlier run, if they are newer than what is in memory.
+     */
+    @Transactional(readOnly = true)
+    public boolean loadPersisted() {
+        List<ExchangeRate> rows = exchangeRateRepository.findAll();
+        if (rows.isEmpty()) {
+            return false;
+        }
+        Map<String, BigDecimal> rates = new HashMap<>();
+        Instant fetchedAt = Instant.EPOCH;
+        String source = rows.get(0).getSource();
+        for (ExchangeRate row : rows) {
+            rates.put(row.getCurrency(), row.getRate());
+            if (row.getFetchedAt().isAfter(fetchedAt)) {
+                fetchedAt = row.getFetchedAt();
+            }
+        }
+        return publish(new RateSnapshot(rates, fetchedAt, source));
+    }
+
+    private boolean publish(RateSnapshot next) {
+        RateSnapshot previous = snapshot.getAndUpdate(current -> next.isNewerThan(current) ? next : current);
+        return next.isNewerThan(previous);
+    }
+
+    private static RateSnapshot bundled(ObjectMapper objectMapper) {
+        try (InputStream in = new ClassPathResource(FileExchangeRateProvider.BUNDLED_RATES).getInputStream()) {
+            // Dated at the epoch so any persisted or fetched snapshot replaces it
+            return new RateSnapshot(FileExchangeRateProvider.readUsdRates(objectMapper, in), Instant.EPOCH, "bundled");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Bundled exchange rates are missing or invalid", e);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.example.expensemanager.service;
+
+import com.example.expensemanager.config.AuthenticatedUser;
+import com.example.expensemanager.controller.BusinessException;
+import com.example.expensemanager.dto.ExpenseBatchRequest;
+import com.example.expensemanager.dto.ExpenseBatchResponse;
+import com.example.expensemanager.dto.ExpenseRequest;
+import com.example.expensemanager.model.Category;
+import com.example.expensemanager.model.Expense;
+import com.example.expensemanager.model.Money;
+import com.example.expensemanager.model.User;
+import com.example.expensemanager.repository.BudgetRepository;
+import com.example.expensemanager.repository.CategoryRepository;
+import com.example.expensemanager.repository.ExpenseRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies a list of create/update/delete operations for one user in a single transaction,
+ * as sent by clients replaying queued offline edits. The expenses touched, the user's
+ * categories and the exchange rates are each loaded once for the whole batch. Operations
+ * that cannot be applied (unknown or foreign expense, unknown category, missing fields)
+ * are reported as failed and skipped; the rest are still applied, in request order.
+ */
+@Service
+public class ExpenseBatchService {
+
+    static final int MAX_BATCH_SIZE = 500;
+
+    private final ExpenseRepository expenseRepository;
+    private final CategoryRepository categoryRepository;
+    private final BudgetRepository budgetRepository;
+    private final CurrencyService currencyService;
+    private final ExpenseRollupService rollupService;
+    private final BaseCurrencyRebaseService rebaseService;
+
+    public ExpenseBatchService(ExpenseRepository expenseRepository,
+                               CategoryRepository categoryRepository,
+                               BudgetRepository budgetRepository,
+                               CurrencyService currencyService,
+                               ExpenseRollupService rollupService,
+                               BaseCurrencyRebaseService rebaseService) {
+        this.expenseRepository = expenseRepository;
+        this.categoryRepository = categoryRepository;
+        this.budgetRepository = budgetRepository;
+        this.currencyService = currencyService;
+        this.rollupService = rollupService;
+        this.rebaseService = rebaseService;
+    }
+
+    @Transactional
+    public ExpenseBatchResponse apply(User user, List<ExpenseBatchRequest.Operation> operations) {
+        if (operations.size() > MAX_BATCH_SIZE) {
+            throw new BusinessException(
+                "INVALID_BATCH_SIZE",
+                "A batch may contain at most " + MAX_BATCH_SIZE + " operations.",
+                HttpStatus.BAD_REQUEST
+            );
+        }
+        rebaseService.checkNotRunning(user);
+
+        boolean hasCreates = operations.stream().anyMatch(op -> op.getType() == ExpenseBatchRequest.Type.CREATE);
+        boolean hasWrites = hasCreates || operations.stream().anyMatch(op -> op.getType() == ExpenseBatchRequest.Type.UPDATE);
+
+        // Same preconditions as ExpenseService.createExpense, checked once per batch
+        if (hasCreates && budgetRepository.countByUser(user) == 0) {
+            throw new BusinessException(
+                "BUDGET_REQUIRED",
+                "Please set up a budget first before adding expenses.",
+                HttpStatus.BAD_REQUEST
+            );
+        }
+        String baseCurrency = AuthenticatedUser.baseCurrencyOf(user);
+        if (hasWrites && (baseCurrency == null || baseCurrency.trim().isEmpty())) {
+            throw new BusinessException(
+                "BASE_CURRENCY_REQUIRED",
+                "Please select your base currency in settings before adding expenses.",
+                HttpStatus.BAD_REQUEST
+            );
+        }
+
+        Map<Long, Expense> owned = loadOwnedExpenses(user, operations);
+        Map<Long, Category> categories = hasWrites
+                ? categoryRepository.findByUser(user).stream().collect(Collectors.toMap(Category::getId, Function.identity()))
+                : Map.of();
+        RateSnapshot rates = hasWrites ? currencyService.snapshot() : null;
+
+        ExpenseRollupService.Deltas deltas = new ExpenseRollupService.Deltas();
+        List<Expense> created = new ArrayList<>();
+        List<Expense> deleted = new ArrayList<>();
+        Set<Long> deletedIds = new HashSet<>();
+        Outcome[] outcomes = new Outcome[operations.size()];
+
+        for (int i = 0; i < operations.size(); i++) {
+            ExpenseBatchRequest.Operation op = operations.get(i);
+            try {
+                if (op.getType() == null) {
+                    throw new IllegalArgumentException("Operation type is required");
+                }
+                switch (op.getType()) {
+                    case CREATE -> {
+                        validate(op.getExpense(), categories);
+                        Conversion conversion = convert(op.getExpense(), rates, baseCurrency);
+                        Expense expense = new Expense();
+                        expense.setUser(user);
+                        copy(op.getExpense(), conversion, expense, categories);
+                        created.add(expense);
+                        deltas.add(expense);
+                        outcomes[i] = new Outcome(ExpenseBatchResponse.Status.CREATED, expense);
+                    }
+                    case UPDATE -> {
+                        Expense expense = owned(op, owned, deletedIds);
+                        validate(op.getExpense(), categories);
+                        // Everything that can fail happens before the managed entity is touched,
+                        // so a rejected update leaves neither the row nor the rollup half-changed
+                        Conversion conversion = convert(op.getExpense(), rates, baseCurrency);
+                        deltas.remove(expense);
+                        copy(op.getExpense(), conversion, expense, categories);
+                        deltas.add(expense);
+                        outcomes[i] = new Outcome(ExpenseBatchResponse.Status.UPDATED, expense);
+                    }
+                    case DELETE -> {
+                        Expense expense = owned(op, owned, deletedIds);
+                        deletedIds.add(expense.getId());
+                        deleted.add(expense);
+                        deltas.remove(expense);
+                        outcomes[i] = new Outcome(ExpenseBatchResponse.Status.DELETED, expense);
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                outcomes[i] = new Outcome(e.getMessage());
+            }
+        }
+
+        // Updates are flushed by dirty checking; inserts and deletes go out as JDBC batches
+        expenseRepository.saveAll(created);
+        expenseRepository.deleteAll(deleted);
+        rollupService.apply(user, deltas);
+
+        List<ExpenseBatchResponse.ItemResult> results = new ArrayList<>(operations.size());
+        int failed = 0;
+        for (int i = 0; i < outcomes.length; i++) {
+            Outcome outcome = outcomes[i];
+            if (outcome.error != null) {
+                failed++;
+                results.add(new ExpenseBatchResponse.ItemResult(i, ExpenseBatchResponse.Status.FAILED, null, outcome.error));
+            } else {
+                results.add(new ExpenseBatchResponse.ItemResult(i, outcome.status, outcome.expense.getId(), null));
+            }
+        }
+        return new ExpenseBatchResponse(operations.size() - failed, failed, results);
+    }
+
+    private Map<Long, Expense> loadOwnedExpenses(User user, List<ExpenseBatchRequest.Operation> operations) {
+        Set<Long> ids = new HashSet<>();
+        for (ExpenseBatchRequest.Operation op : operations) {
+            if (op.getType() != ExpenseBatchRequest.Type.CREATE && op.getId() != null) {
+                ids.add(op.getId());
+            }
+        }
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Expense> owned = new HashMap<>();
+        for (Expense expense : expenseRepository.findByUserAndIdIn(user, ids)) {
+            owned.put(expense.getId(), expense);
+        }
+        return owned;
+    }
+
+    private static Expense owned(ExpenseBatchRequest.Operation op, Map<Long, Expense> owned, Set<Long> deletedIds) {
+        if (op.getId() == null) {
+            throw new IllegalArgumentException("Expense id is required");
+        }
+        Expense expense = owned.get(op.getId());
+        // Expenses of other users are reported exactly like missing ones
+        if (expense == null || deletedIds.contains(op.getId())) {
+            throw new IllegalArgumentException("Expense not found");
+        }
+        return expense;
+    }
+
+    private static void validate(ExpenseRequest request, Map<Long, Category> categories) {
+        if (request == null) {
+            throw new IllegalArgumentException("Expense details are required");
+        }
+        if (request.getAmount() == null || request.getAmount().signum() < 0) {
+            throw new IllegalArgumentException("Amount is required and must not be negative");
+        }
+        if (request.getDate() == null) {
+            throw new IllegalArgumentException("Date is required");
+        }
+        if (request.getCategoryId() != null && !categories.containsKey(request.getCategoryId())) {
+            throw new IllegalArgumentException("Unknown category");
+        }
+    }
+
+    private Conversion convert(ExpenseRequest request, RateSnapshot rates, String baseCurrency) {
+        String currency = request.getCurrency() != null ? request.getCurrency() : "USD";
+        BigDecimal rate = currencyService.rateOn(request.getDate(), currency, baseCurrency, rates);
+        BigDecimal amount = CurrencyService.applyRate(request.getAmount(), rate);
+        if (!Money.fits(amount)) {
+            throw new IllegalArgumentException("Amount " + amount.toPlainString() + " is too large");
+        }
+        return new Conversion(currency, rate, amount);
+    }
+
+    private static void copy(ExpenseRequest request, Conversion conversion, Expense expense,
+                             Map<Long, Category> categories) {
+        // Store original currency and amount for display purposes
+        expense.setOriginalCurrency(conversion.currency());
+        expense.setOriginalAmount(request.getAmount());
+        expense.setExchangeRate(conversion.rate());
+        expense.setAmount(conversion.amount());
+
+        expense.setDate(request.getDate());
+        expense.setDescription(request.getDescription());
+        expense.setRecurring(request.isRecurring());
+        expense.setCategory(request.getCategoryId() != null ? categories.get(request.getCategoryId()) : null);
+    }
+
+    private record Conversion(String currency, BigDecimal rate, BigDecimal amount) {
+    }
+
+    private static class Outcome {
+        private final ExpenseBatchResponse.Status status;
+        private final Expense expense;
+        private final String error;
+
+        Outcome(ExpenseBatchResponse.Status status, Expense expense) {
+            this.status = status;
+            this.expense = expense;
+            this.error = null;
+        }
+
+        Outcome(String error) {
+            this.status = ExpenseBatchResponse.Status.FAILED;
+            this.expense = null;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.expensemanager.service;
+
+import com.example.expensemanager.controller.BusinessException;
+import com.example.expensemanager.model.Expense;
+import com.example.expensemanager.model.User;
+import com.example.expensemanager.repository.ExpenseRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams a user's full expense ledger to an output stream without holding it in memory.
+ * Each row is detached from the persistence context once written, so heap use stays flat
+ * regardless of how many expenses the user has.
+ */
+@Service
+public class ExpenseExportService {
+
+    // Matches the fetch size of the streaming query, so each database round trip is
+    // followed by pushing its rows out to the client.
+    static final int FLUSH_EVERY = 500;
+
+    private final ExpenseRepository expenseRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public ExpenseExportService(ExpenseRepository expenseRepository, EntityManager entityManager, ObjectMapper objectMapper) {
+        this.expenseRepository = expenseRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format from(String value) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new BusinessException(
+                "INVALID_EXPORT_FORMAT",
+                "Export format must be one of: csv, ndjson.",
+                HttpStatus.BAD_REQUEST
+            );
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public void export(User user, Format format, OutputStream out) throws IOException {
+        try (Stream<Expense> expenses = expenseRepository.streamByUser(user)) {
+            Iterator<Expense> rows = expenses.iterator();
+            if (format == Format.CSV) {
+                writeCsv(rows, out);
+            } else {
+                writeNdjson(rows, out);
+            }
+        }
+    }
+
+    private void writeCsv(Iterator<Expense> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("id,date,amount,originalAmount,originalCurrency,categoryId,category,description,recurring\n");
+
+        int written = 0;
+        while (rows.hasNext()) {
+            Expense e = rows.next();
+            writer.write(e.getId() != null ? e.getId().toString() : "");
+            writer.write(',');
+            writer.write(e.getDate().toString());
+            writer.write(',');
+            writer.write(e.getAmount().toPlainString());
+            writer.write(',');
+            writer.write(e.getOriginalAmount() != null ? e.getOriginalAmount().toPlainString() : "");
+            writer.write(',');
+            writer.write(e.getOriginalCurrency() != null ? e.getOriginalCurrency() : "");
+            writer.write(',');
+            writer.write(e.getCategory() != null && e.getCategory().getId() != null
+                    ? e.getCategory().getId().toString() : "");
+            writer.write(',');
+            writer.write(csvField(e.getCategory() != null ? e.getCategory().getName() : null));
+            writer.write(',');
+            writer.write(csvField(e.getDescription()));
+            writer.write(',');
+            writer.write(String.valueOf(e.isRecurring()));
+            writer.write('\n');
+
+            entityManager.detach(e);
+            if (++written % FLUSH_EVERY == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeNdjson(Iterator<Expense> rows, OutputStream out) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.setRootValueSeparator(null);
+
+        int written = 0;
+        while (rows.hasNext()) {
+            Expense e = rows.next();
+            json.writeStartObject();
+            writeIdField(json, "id", e.getId());
+            json.writeStringField("date", e.getDate().toString());
+            json.writeNumberField("amount", e.getAmount());
+            if (e.getOriginalAmount() != null) {
+                json.writeNumberField("originalAmount", e.getOriginalAmount());
+            }
+            json.writeStringField("originalCurrency", e.getOriginalCurrency());
+            if (e.getCategory() != null) {
+                writeIdField(json, "categoryId", e.getCategory().getId());
+                json.writeStringField("category", e.getCategory().getName());
+            }
+            json.writeStringField("description", e.getDescription());
+            json.writeBooleanField("recurring", e.isRecurring());
+            json.writeEndObject();
+            json.writeRaw('\n');
+
+            entityManager.detach(e);
+            if (++written % FLUSH_EVERY == 0) {
+                json.flush();
+            }
+        }
+        json.flush();
+    }
+
+    private static void writeIdField(JsonGenerator json, String name, Long id) throws IOException {
+        if (id != null) {
+            json.writeNumberField(name, id);
+        } else {
+            json.writeNullField(name);
+        }
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
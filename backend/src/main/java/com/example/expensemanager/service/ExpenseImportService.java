@@ -0,0 +1,310 @@
+package com.example.expensemanager.service;
+
+import com.example.expensemanager.config.AuthenticatedUser;
+import com.example.expensemanager.controller.BusinessException;
+import com.example.expensemanager.dto.ExpenseImportResponse;
+import com.example.expensemanager.model.Category;
+import com.example.expensemanager.model.Expense;
+import com.example.expensemanager.model.Money;
+import com.example.expensemanager.model.User;
+import com.example.expensemanager.repository.BudgetRepository;
+import com.example.expensemanager.repository.CategoryRepository;
+import com.example.expensemanager.repository.ExpenseRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bulk import of a CSV bank export with the columns {@code date,amount,currency,description,category}
+ * (a header row is optional). The body is read line by line, categories are resolved by name from a
+ * map loaded once, every row is converted with the same exchange-rate snapshot, and valid rows are
+ * saved in chunks, one transaction per chunk. With sequence ids and {@code hibernate.jdbc.batch_size}
+ * set, each chunk is flushed as JDBC insert batches and then cleared from the persistence context.
+ * Invalid rows are skipped and reported. If a chunk fails to save, its rows are retried one by one
+ * so only the rows the database rejects are reported and the rest of the file is still imported.
+ */
+@Service
+public class ExpenseImportService {
+
+    // Only the first errors are returned; the failed count still covers every rejected row
+    static final int MAX_REPORTED_ERRORS = 1000;
+    // Length of the description column
+    static final int MAX_DESCRIPTION_LENGTH = 255;
+
+    private final CategoryRepository categoryRepository;
+    private final BudgetRepository budgetRepository;
+    private final CurrencyService currencyService;
+    private final ExpenseRollupService rollupService;
+    private final BaseCurrencyRebaseService rebaseService;
+    private final ExpenseRepository expenseRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public ExpenseImportService(CategoryRepository categoryRepository,
+                                BudgetRepository budgetRepository,
+                                CurrencyService currencyService,
+                                ExpenseRollupService rollupService,
+                                BaseCurrencyRebaseService rebaseService,
+                                ExpenseRepository expenseRepository,
+                                EntityManager entityManager,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${expense.import.batch-size:500}") int batchSize) {
+        this.categoryRepository = categoryRepository;
+        this.budgetRepository = budgetRepository;
+        this.currencyService = currencyService;
+        this.rollupService = rollupService;
+        this.rebaseService = rebaseService;
+        this.expenseRepository = expenseRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    public ExpenseImportResponse importCsv(User user, InputStream csv) throws IOException {
+        rebaseService.checkNotRunning(user);
+
+        // Same preconditions as ExpenseService.createExpense, checked once per import
+        if (budgetRepository.countByUser(user) == 0) {
+            throw new BusinessException(
+                "BUDGET_REQUIRED",
+                "Please set up a budget first before adding expenses.",
+                HttpStatus.BAD_REQUEST
+            );
+        }
+        String baseCurrency = AuthenticatedUser.baseCurrencyOf(user);
+        if (baseCurrency == null || baseCurrency.trim().isEmpty()) {
+            throw new BusinessException(
+                "BASE_CURRENCY_REQUIRED",
+                "Please select your base currency in settings before adding expenses.",
+                HttpStatus.BAD_REQUEST
+            );
+        }
+
+        Map<String, Category> categories = new HashMap<>();
+        for (Category category : categoryRepository.findByUser(user)) {
+            categories.putIfAbsent(categoryKey(category.getName()), category);
+        }
+        RateSnapshot rates = currencyService.snapshot();
+
+        List<ExpenseImportResponse.RowError> errors = new ArrayList<>();
+        List<Row> chunk = new ArrayList<>(batchSize);
+        int imported = 0;
+        int failed = 0;
+        int lineNumber = 0;
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || (lineNumber == 1 && isHeader(line))) {
+                continue;
+            }
+
+            Row row;
+            try {
+                row = parseRow(lineNumber, line, categories, rates, baseCurrency);
+            } catch (IllegalArgumentException e) {
+                failed++;
+                reportError(errors, lineNumber, e.getMessage());
+                continue;
+            }
+
+            chunk.add(row);
+            if (chunk.size() == batchSize) {
+                int saved = saveChunk(user, chunk, errors);
+                imported += saved;
+                failed += chunk.size() - saved;
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            int saved = saveChunk(user, chunk, errors);
+            imported += saved;
+            failed += chunk.size() - saved;
+        }
+
+        return new ExpenseImportResponse(imported, failed, errors);
+    }
+
+    /**
+     * Saves the chunk, falling back to one transaction per row if the chunk is rejected.
+     *
+     * @return how many rows were saved
+     */
+    private int saveChunk(User user, List<Row> chunk, List<ExpenseImportResponse.RowError> errors) {
+        try {
+            return insertChunk(user, chunk);
+        } catch (RuntimeException chunkFailure) {
+            // The chunk was rolled back as a whole; find the rows that cannot be saved
+            int saved = 0;
+            for (Row row : chunk) {
+                try {
+                    saved += insertChunk(user, List.of(row));
+                } catch (RuntimeException e) {
+                    reportError(errors, row.line,
+                            "Could not be saved: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+                }
+            }
+            return saved;
+        }
+    }
+
+    private static void reportError(List<ExpenseImportResponse.RowError> errors, int line, String message) {
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new ExpenseImportResponse.RowError(line, message));
+        }
+    }
+
+    private int insertChunk(User user, List<Row> chunk) {
+        ExpenseRollupService.Deltas deltas = new ExpenseRollupService.Deltas();
+        List<Expense> expenses = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            Expense expense = new Expense();
+            expense.setUser(user);
+            expense.setCategory(row.category);
+            expense.setAmount(row.amount);
+            expense.setDate(row.date);
+            expense.setDescription(row.description);
+            expense.setOriginalCurrency(row.currency);
+            expense.setOriginalAmount(row.originalAmount);
+            expense.setExchangeRate(row.exchangeRate);
+            expenses.add(expense);
+            deltas.add(expense);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            expenseRepository.saveAll(expenses);
+            rollupService.apply(user, deltas);
+            // Send the batched inserts now and drop the chunk so the context does not grow with the file
+            entityManager.flush();
+            entityManager.clear();
+        });
+        return chunk.size();
+    }
+
+    private Row parseRow(int lineNumber, String line, Map<String, Category> categories, RateSnapshot rates,
+                         String baseCurrency) {
+        List<String> fields = splitCsvLine(line);
+        if (fields.size() < 4 || fields.size() > 5) {
+            throw new IllegalArgumentException("Expected 4 or 5 columns but found " + fields.size());
+        }
+
+        LocalDate date;
+        try {
+            date = LocalDate.parse(fields.get(0).trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date '" + fields.get(0).trim() + "', expected yyyy-MM-dd");
+        }
+
+        BigDecimal originalAmount;
+        try {
+            originalAmount = new BigDecimal(fields.get(1).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount '" + fields.get(1).trim() + "'");
+        }
+        if (originalAmount.signum() < 0) {
+            throw new IllegalArgumentException("Amount must not be negative");
+        }
+        checkFits(originalAmount);
+
+        String currency = fields.get(2).trim().toUpperCase(Locale.ROOT);
+        if (currency.isEmpty()) {
+            currency = "USD";
+        } else if (currency.length() != 3) {
+            throw new IllegalArgumentException("Invalid currency '" + fields.get(2).trim() + "'");
+        }
+
+        String description = fields.get(3).trim();
+        if (description.length() > MAX_DESCRIPTION_LENGTH) {
+            throw new IllegalArgumentException("Description is longer than " + MAX_DESCRIPTION_LENGTH + " characters");
+        }
+
+        Category category = null;
+        String categoryName = fields.size() == 5 ? fields.get(4).trim() : "";
+        if (!categoryName.isEmpty()) {
+            category = categories.get(categoryKey(categoryName));
+            if (category == null) {
+                throw new IllegalArgumentException("Unknown category '" + categoryName + "'");
+            }
+        }
+
+        BigDecimal rate = currencyService.rateOn(date, currency, baseCurrency, rates);
+        BigDecimal amount = CurrencyService.applyRate(originalAmount, rate);
+        checkFits(amount);
+        return new Row(lineNumber, date, amount, originalAmount, currency, rate,
+                description.isEmpty() ? null : description, category);
+    }
+
+    private static void checkFits(BigDecimal amount) {
+        if (!Money.fits(amount)) {
+            throw new IllegalArgumentException("Amount " + amount.toPlainString() + " is too large");
+        }
+    }
+
+    private static boolean isHeader(String line) {
+        return line.trim().toLowerCase(Locale.ROOT).startsWith("date");
+    }
+
+    private static String categoryKey(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Splits one CSV record, honouring double-quoted fields with {@code ""} escapes.
+     * Quoted fields spanning several lines are not supported.
+     */
+    static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private record Row(int line, LocalDate date, BigDecimal amount, BigDecimal originalAmount, String currency,
+                       BigDecimal exchangeRate, String description, Category category) {}
+}
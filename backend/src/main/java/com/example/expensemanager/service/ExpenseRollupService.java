@@ -0,0 +1,203 @@
+package com.example.expensemanager.service;
+
+import com.example.expensemanager.dto.CategoryTotal;
+import com.example.expensemanager.dto.MonthlyCategorySum;
+import com.example.expensemanager.dto.MonthlyTotal;
+import com.example.expensemanager.model.Expense;
+import com.example.expensemanager.model.MonthlyCategoryTotal;
+import com.example.expensemanager.model.User;
+import com.example.expensemanager.repository.ExpenseRepository;
+import com.example.expensemanager.repository.MonthlyCategoryTotalRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maintains the per-user, per-month, per-category spending rollup. Writers apply signed
+ * deltas inside their own transaction, so the rollup always commits or rolls back together
+ * with the expense rows it describes. Readers get month-granular totals in O(categories).
+ *
+ * <p>A missing bucket is created empty in a short transaction of its own and then updated like
+ * any other, so two writers racing to create it both end up adding to the one row instead of
+ * one of them failing on the unique constraint.
+ */
+@Service
+public class ExpenseRollupService {
+
+    private final MonthlyCategoryTotalRepository rollupRepository;
+    private final ExpenseRepository expenseRepository;
+    private final TransactionTemplate newTransaction;
+
+    public ExpenseRollupService(MonthlyCategoryTotalRepository rollupRepository,
+                                ExpenseRepository expenseRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.expenseRepository = expenseRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Transactional
+    public void apply(User user, Deltas deltas) {
+        deltas.changes.forEach((bucket, change) -> {
+            if (change.amountMinor == 0 && change.count == 0) {
+                return;
+            }
+            int updated = rollupRepository.addToTotal(
+                    user, bucket.year(), bucket.month(), bucket.categoryKey(), change.amountMinor, change.count);
+            if (updated == 0) {
+                createBucket(user, bucket);
+                updated = rollupRepository.addToTotal(
+                        user, bucket.year(), bucket.month(), bucket.categoryKey(), change.amountMinor, change.count);
+                if (updated == 0) {
+                    throw new IllegalStateException("Rollup bucket " + bucket + " of user " + user.getId() + " is missing");
+                }
+            }
+        });
+    }
+
+    /**
+     * Commits an empty row for the bucket, independently of the caller's transaction. An empty
+     * row reads the same as no row (readers skip buckets without expenses), so it does no harm
+     * if the caller later rolls back.
+     */
+    private void createBucket(User user, Bucket bucket) {
+        try {
+            newTransaction.executeWithoutResult(status -> {
+                MonthlyCategoryTotal row = new MonthlyCategoryTotal();
+                row.setUser(user);
+                row.setYear(bucket.year());
+                row.setMonth(bucket.month());
+                row.setCategoryKey(bucket.categoryKey());
+                rollupRepository.saveAndFlush(row);
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another writer created it first, which is just as good
+        }
+    }
+
+    public List<CategoryTotal> categoryTotals(User user, YearMonth from, YearMonth to) {
+        int fromPeriod = from != null ? period(from.getYear(), from.getMonthValue()) : 0;
+        int toPeriod = to != null ? period(to.getYear(), to.getMonthValue()) : Integer.MAX_VALUE;
+        return rollupRepository.sumByCategory(user, fromPeriod, toPeriod);
+    }
+
+    public List<MonthlyTotal> monthlyTotals(User user, int fromYear, int toYear) {
+        return rollupRepository.sumByMonth(user, fromYear, toYear);
+    }
+
+    /**
+     * Recomputes the user's rollup from the raw expense rows and compares it with what is
+     * stored. When {@code repair} is set and any bucket drifted, the rollup is rebuilt.
+     */
+    @Transactional
+    public List<Drift> verify(User user, boolean repair) {
+        Map<Bucket, MonthlyCategorySum> expected = new HashMap<>();
+        for (MonthlyCategorySum sum : expenseRepository.sumByMonthAndCategory(user)) {
+            expected.put(new Bucket(sum.getYear(), sum.getMonth(), categoryKey(sum.getCategoryId())), sum);
+        }
+
+        List<Drift> drift = new ArrayList<>();
+        Set<Bucket> seen = new HashSet<>();
+        for (MonthlyCategoryTotal row : rollupRepository.findByUser(user)) {
+            Bucket bucket = new Bucket(row.getYear(), row.getMonth(), row.getCategoryKey());
+            seen.add(bucket);
+            MonthlyCategorySum sum = expected.get(bucket);
+            long expectedTotal = sum != null ? sum.getTotalMinor() : 0;
+            long expectedCount = sum != null ? sum.getCount() : 0;
+            if (expectedTotal != row.getTotalMinor() || expectedCount != row.getExpenseCount()) {
+                drift.add(new Drift(bucket.year(), bucket.month(), bucket.categoryKey(), expectedTotal, row.getTotalMinor()));
+            }
+        }
+        expected.forEach((bucket, sum) -> {
+            if (!seen.contains(bucket)) {
+                drift.add(new Drift(bucket.year(), bucket.month(), bucket.categoryKey(), sum.getTotalMinor(), 0));
+            }
+        });
+
+        if (repair && !drift.isEmpty()) {
+            rebuild(user);
+        }
+        return drift;
+    }
+
+    @Transactional
+    public void rebuild(User user) {
+        rollupRepository.deleteByUser(user);
+        List<MonthlyCategoryTotal> rows = new ArrayList<>();
+        for (MonthlyCategorySum sum : expenseRepository.sumByMonthAndCategory(user)) {
+            MonthlyCategoryTotal row = new MonthlyCategoryTotal();
+            row.setUser(user);
+            row.setYear(sum.getYear());
+            row.setMonth(sum.getMonth());
+            row.setCategoryKey(categoryKey(sum.getCategoryId()));
+            row.setTotalMinor(sum.getTotalMinor());
+            row.setExpenseCount(sum.getCount());
+            rows.add(row);
+        }
+        rollupRepository.saveAll(rows);
+    }
+
+    static int period(int year, int month) {
+        return year * 12 + month;
+    }
+
+    static long categoryKey(Long categoryId) {
+        return categoryId != null ? categoryId : MonthlyCategoryTotal.UNCATEGORIZED;
+    }
+
+    record Bucket(int year, int month, long categoryKey) {}
+
+    // Totals in Money.SCALE fixed-point units
+    public record Drift(int year, int month, long categoryKey, long expectedMinor, long actualMinor) {}
+
+    /**
+     * Signed changes to a user's rollup, netted per bucket before they are written. Amounts
+     * are added as fixed-point longs, so building deltas for a large import does not allocate
+     * per row beyond the first change to each bucket.
+     */
+    public static class Deltas {
+
+        private final Map<Bucket, Change> changes = new LinkedHashMap<>();
+
+        public Deltas add(Expense expense) {
+            return add(expense.getDate(), expense.getCategory() != null ? expense.getCategory().getId() : null,
+                    expense.getAmountMinor(), 1);
+        }
+
+        public Deltas remove(Expense expense) {
+            return add(expense.getDate(), expense.getCategory() != null ? expense.getCategory().getId() : null,
+                    -expense.getAmountMinor(), -1);
+        }
+
+        public Deltas add(LocalDate date, Long categoryId, long amountMinor, int count) {
+            Bucket bucket = new Bucket(date.getYear(), date.getMonthValue(), categoryKey(categoryId));
+            Change change = changes.computeIfAbsent(bucket, b -> new Change());
+            change.amountMinor += amountMinor;
+            change.count += count;
+            return this;
+        }
+
+        public boolean isEmpty() {
+            return changes.isEmpty();
+        }
+    }
+
+    private static class Change {
+        private long amountMinor;
+        private long count;
+    }
+}
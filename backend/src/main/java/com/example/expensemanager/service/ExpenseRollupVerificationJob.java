@@ -0,0 +1,58 @@
+package com.example.expensemanager.service;
+
+import com.example.expensemanager.model.User;
+import com.example.expensemanager.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Periodically recomputes every user's monthly rollup from the raw expense rows and reports
+ * (and by default repairs) any bucket that no longer matches.
+ */
+@Component
+public class ExpenseRollupVerificationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpenseRollupVerificationJob.class);
+    private static final int USER_PAGE_SIZE = 100;
+
+    private final UserRepository userRepository;
+    private final ExpenseRollupService rollupService;
+    private final boolean repairDrift;
+
+    public ExpenseRollupVerificationJob(UserRepository userRepository,
+                                        ExpenseRollupService rollupService,
+                                        @Value("${expense.rollup.repair-drift:true}") boolean repairDrift) {
+        this.userRepository = userRepository;
+        this.rollupService = rollupService;
+        this.repairDrift = repairDrift;
+    }
+
+    @Scheduled(cron = "${expense.rollup.verify-cron:0 30 3 * * *}")
+    public void verifyAll() {
+        int usersWithDrift = 0;
+        Page<User> page = userRepository.findAll(PageRequest.of(0, USER_PAGE_SIZE, Sort.by("id")));
+        while (true) {
+            for (User user : page) {
+                List<ExpenseRollupService.Drift> drift = rollupService.verify(user, repairDrift);
+                if (!drift.isEmpty()) {
+                    usersWithDrift++;
+                    logger.warn("Rollup drift for user {} in {} bucket(s){}: {}", user.getId(), drift.size(),
+                            repairDrift ? " (rebuilt)" : "", drift);
+                }
+            }
+            if (!page.hasNext()) {
+                break;
+            }
+            page = userRepository.findAll(page.nextPageable());
+        }
+        logger.info("Rollup verification finished, {} user(s) with drift", usersWithDrift);
+    }
+}
@@ -1,44 +1,61 @@
 package com.example.expensemanager.service;
 
+import com.example.expensemanager.config.AuthenticatedUser;
 import com.example.expensemanager.controller.BusinessException;
+import com.example.expensemanager.dto.CategoryTotal;
+import com.example.expensemanager.dto.ExpensePageResponse;
 import com.example.expensemanager.dto.ExpenseRequest;
 import com.example.expensemanager.dto.ExpenseSummaryResponse;
 import com.example.expensemanager.dto.MonthlySummaryItem;
 import com.example.expensemanager.model.Category;
 import com.example.expensemanager.model.Expense;
+import com.example.expensemanager.model.Money;
 import com.example.expensemanager.model.User;
 import com.example.expensemanager.repository.BudgetRepository;
 import com.example.expensemanager.repository.CategoryRepository;
 import com.example.expensemanager.repository.ExpenseRepository;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 public class ExpenseService {
 
+    static final int MAX_PAGE_SIZE = 200;
+    static final int MAX_SUMMARY_YEARS = 50;
+
     private final ExpenseRepository expenseRepository;
     private final CategoryRepository categoryRepository;
     private final BudgetRepository budgetRepository;
     private final CurrencyService currencyService;
+    private final ExpenseRollupService rollupService;
+    private final BaseCurrencyRebaseService rebaseService;
 
-    public ExpenseService(ExpenseRepository expenseRepository, CategoryRepository categoryRepository, BudgetRepository budgetRepository, CurrencyService currencyService) {
+    public ExpenseService(ExpenseRepository expenseRepository, CategoryRepository categoryRepository, BudgetRepository budgetRepository, CurrencyService currencyService, ExpenseRollupService rollupService, BaseCurrencyRebaseService rebaseService) {
         this.expenseRepository = expenseRepository;
         this.categoryRepository = categoryRepository;
         this.budgetRepository = budgetRepository;
         this.currencyService = currencyService;
+        this.rollupService = rollupService;
+        this.rebaseService = rebaseService;
     }
 
     @Transactional
     public Expense createExpense(User user, ExpenseRequest request) {
+        rebaseService.checkNotRunning(user);
+
         // Check if user has any budgets set first
         long budgetCount = budgetRepository.countByUser(user);
         if (budgetCount == 0) {
@@ -50,7 +67,7 @@ public class ExpenseService {
         }
 
         // Check if user has base currency set
-        String baseCurrency = user.getBaseCurrency();
+        String baseCurrency = AuthenticatedUser.baseCurrencyOf(user);
         if (baseCurrency == null || baseCurrency.trim().isEmpty()) {
             throw new BusinessException(
                 "BASE_CURRENCY_REQUIRED",
@@ -59,16 +76,18 @@ public class ExpenseService {
             );
         }
 
+        // Convert to user's base currency at the rate on the expense date and keep the rate with the row
+        BigDecimal rate = currencyService.rateOn(request.getDate(), request.getCurrency(), baseCurrency);
+        BigDecimal amount = checkFits(CurrencyService.applyRate(request.getAmount(), rate));
+
         Expense expense = new Expense();
         expense.setUser(user);
 
         // Store original currency and amount for display purposes
         expense.setOriginalCurrency(request.getCurrency());
         expense.setOriginalAmount(request.getAmount());
-
-        // Convert to user's base currency and store as the base currency amount
-        BigDecimal baseAmount = currencyService.convertCurrency(request.getAmount(), request.getCurrency(), baseCurrency);
-        expense.setAmount(baseAmount);
+        expense.setExchangeRate(rate);
+        expense.setAmount(amount);
 
         expense.setDate(request.getDate());
         expense.setDescription(request.getDescription());
@@ -79,7 +98,9 @@ public class ExpenseService {
             categoryOpt.ifPresent(expense::setCategory);
         }
 
-        return expenseRepository.save(expense);
+        Expense saved = expenseRepository.save(expense);
+        rollupService.apply(user, new ExpenseRollupService.Deltas().add(saved));
+        return saved;
     }
 
     public List<Expense> getExpenses(User user, Long categoryId, LocalDate startDate, LocalDate endDate) {
@@ -87,46 +108,104 @@ public class ExpenseService {
         if (categoryId != null) {
             category = categoryRepository.findById(categoryId).orElse(null);
         }
-        return expenseRepository.findFiltered(user, category, startDate, endDate);
+        if (category != null) {
+            return expenseRepository.findFilteredInCategory(user, category, startDate, endDate);
+        }
+        return expenseRepository.findFiltered(user, null, startDate, endDate);
     }
 
-    public ExpenseSummaryResponse summarize(User user, LocalDate startDate, LocalDate endDate) {
-        List<Expense> expenses = getExpenses(user, null, startDate, endDate);
+    public ExpensePageResponse getExpensePage(User user, Long categoryId, LocalDate startDate, LocalDate endDate,
+                                              int limit, String next) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BusinessException(
+                "INVALID_PAGE_SIZE",
+                "Page size must be between 1 and " + MAX_PAGE_SIZE + ".",
+                HttpStatus.BAD_REQUEST
+            );
+        }
+
+        Category category = null;
+        if (categoryId != null) {
+            category = categoryRepository.findById(categoryId).orElse(null);
+        }
+
+        // Fetch one extra row to find out whether another page exists
+        PageRequest pageRequest = PageRequest.of(0, limit + 1);
+        List<Expense> rows;
+        if (next == null || next.isBlank()) {
+            rows = expenseRepository.findFirstPage(user, category, startDate, endDate, pageRequest);
+        } else {
+            Cursor cursor = Cursor.decode(next);
+            rows = expenseRepository.findPageAfter(user, category, startDate, endDate,
+                    cursor.date(), cursor.id(), pageRequest);
+        }
+
+        if (rows.size() <= limit) {
+            return new ExpensePageResponse(rows, null);
+        }
+        List<Expense> page = rows.subList(0, limit);
+        Expense last = page.get(limit - 1);
+        return new ExpensePageResponse(page, new Cursor(last.getDate(), last.getId()).encode());
+    }
+
+    /**
+     * Spending per category in the range. Ranges made of whole months are served from the
+     * monthly rollup; anything else is aggregated from the expense rows by the database.
+     * Uncategorized spending has a null category id.
+     */
+    public List<CategoryTotal> categoryTotals(User user, LocalDate startDate, LocalDate endDate) {
+        if (coversWholeMonths(startDate, endDate)) {
+            return rollupService.categoryTotals(user,
+                    startDate != null ? YearMonth.from(startDate) : null,
+                    endDate != null ? YearMonth.from(endDate) : null);
+        }
+        return expenseRepository.sumByCategory(user, startDate, endDate);
+    }
+
+    private static boolean coversWholeMonths(LocalDate startDate, LocalDate endDate) {
+        return (startDate == null || startDate.getDayOfMonth() == 1)
+                && (endDate == null || endDate.equals(YearMonth.from(endDate).atEndOfMonth()));
+    }
 
-        BigDecimal total = expenses.stream()
-                .map(Expense::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    public ExpenseSummaryResponse summarize(User user, LocalDate startDate, LocalDate endDate) {
+        List<CategoryTotal> totals = categoryTotals(user, startDate, endDate);
 
-        Map<String, BigDecimal> byCategory = expenses.stream()
-                .collect(Collectors.groupingBy(
-                        e -> e.getCategory() != null ? e.getCategory().getName() : "Uncategorized",
-                        Collectors.mapping(Expense::getAmount,
-                                Collectors.reducing(BigDecimal.ZERO, BigDecimal::add))
-                ));
+        // Summed as fixed-point longs; BigDecimal only for the response
+        long total = 0;
+        Map<String, Long> byCategory = new HashMap<>();
+        for (CategoryTotal t : totals) {
+            total += t.getTotalMinor();
+            String name = t.getCategoryName() != null ? t.getCategoryName() : "Uncategorized";
+            byCategory.merge(name, t.getTotalMinor(), Long::sum);
+        }
 
-        return new ExpenseSummaryResponse(total, byCategory);
+        Map<String, BigDecimal> totalByCategory = new HashMap<>(byCategory.size() * 2);
+        byCategory.forEach((name, minor) -> totalByCategory.put(name, Money.toDecimal(minor)));
+        return new ExpenseSummaryResponse(Money.toDecimal(total), totalByCategory);
     }
 
     public List<MonthlySummaryItem> monthlySummary(User user, int year) {
-        LocalDate start = LocalDate.of(year, 1, 1);
-        LocalDate end = LocalDate.of(year, 12, 31);
-        List<Expense> expenses = getExpenses(user, null, start, end);
-
-        Map<YearMonth, BigDecimal> byMonth = expenses.stream()
-                .collect(Collectors.groupingBy(
-                        e -> YearMonth.from(e.getDate()),
-                        Collectors.mapping(Expense::getAmount,
-                                Collectors.reducing(BigDecimal.ZERO, BigDecimal::add))
-                ));
-
-        return byMonth.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey())
-                .map(e -> new MonthlySummaryItem(e.getKey().toString(), e.getValue()))
+        return monthlySummary(user, year, year);
+    }
+
+    public List<MonthlySummaryItem> monthlySummary(User user, int fromYear, int toYear) {
+        if (toYear < fromYear || toYear - fromYear >= MAX_SUMMARY_YEARS) {
+            throw new BusinessException(
+                "INVALID_YEAR_RANGE",
+                "The year range must be ascending and span at most " + MAX_SUMMARY_YEARS + " years.",
+                HttpStatus.BAD_REQUEST
+            );
+        }
+
+        // Served from the monthly rollup: at most 12 rows per year
+        return rollupService.monthlyTotals(user, fromYear, toYear).stream()
+                .map(t -> new MonthlySummaryItem(YearMonth.of(t.getYear(), t.getMonth()).toString(), t.getTotal()))
                 .toList();
     }
 
     @Transactional
     public Expense updateExpense(User user, Long id, ExpenseRequest request) {
+        rebaseService.checkNotRunning(user);
         Expense expense = expenseRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Expense not found"));
 
@@ -134,14 +213,20 @@ public class ExpenseService {
             throw new RuntimeException("Unauthorized");
         }
 
+        // Convert to user's base currency at the rate on the (possibly new) expense date
+        String baseCurrency = AuthenticatedUser.baseCurrencyOf(user);
+        BigDecimal rate = currencyService.rateOn(request.getDate(), request.getCurrency(), baseCurrency);
+        BigDecimal amount = checkFits(CurrencyService.applyRate(request.getAmount(), rate));
+
+        // Take the old values out of the rollup before they are overwritten; the new ones
+        // are added back below, which also covers moves across months and categories
+        ExpenseRollupService.Deltas deltas = new ExpenseRollupService.Deltas().remove(expense);
+
         // Store original currency and amount for display purposes
         expense.setOriginalCurrency(request.getCurrency());
         expense.setOriginalAmount(request.getAmount());
-
-        // Convert to user's base currency and update the base currency amount
-        String baseCurrency = user.getBaseCurrency();
-        BigDecimal baseAmount = currencyService.convertCurrency(request.getAmount(), request.getCurrency(), baseCurrency);
-        expense.setAmount(baseAmount);
+        expense.setExchangeRate(rate);
+        expense.setAmount(amount);
 
         expense.setDate(request.getDate());
         expense.setDescription(request.getDescription());
@@ -154,11 +239,14 @@ public class ExpenseService {
             expense.setCategory(null);
         }
 
-        return expenseRepository.save(expense);
+        Expense saved = expenseRepository.save(expense);
+        rollupService.apply(user, deltas.add(saved));
+        return saved;
     }
 
     @Transactional
     public void deleteExpense(User user, Long id) {
+        rebaseService.checkNotRunning(user);
         Expense expense = expenseRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Expense not found"));
 
@@ -167,5 +255,38 @@ public class ExpenseService {
         }
 
         expenseRepository.deleteById(id);
+        rollupService.apply(user, new ExpenseRollupService.Deltas().remove(expense));
+    }
+
+    static BigDecimal checkFits(BigDecimal amount) {
+        if (!Money.fits(amount)) {
+            throw new BusinessException(
+                "AMOUNT_TOO_LARGE",
+                "The amount " + amount.toPlainString() + " is too large.",
+                HttpStatus.BAD_REQUEST
+            );
+        }
+        return amount;
+    }
+
+    /**
+     * Position of the last row of a page, handed to clients as an opaque token.
+     */
+    record Cursor(LocalDate date, Long id) {
+
+        String encode() {
+            String raw = date + ":" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int sep = raw.indexOf(':');
+                return new Cursor(LocalDate.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+                throw new BusinessException("INVALID_CURSOR", "The page cursor is invalid.", HttpStatus.BAD_REQUEST);
+            }
+        }
     }
 }
@@ -0,0 +1,78 @@
+package com.example.expensemanager.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Reads rates from a local JSON file in the exchangerate-api format
+ * ({@code {"base": "USD", "rates": {"EUR": 0.88, ...}}}). Used offline and in tests;
+ * the bundled {@code classpath:rates/usd-rates.json} is the default.
+ */
+@Component
+@ConditionalOnProperty(name = "expense.rates.provider", havingValue = "file", matchIfMissing = true)
+public class FileExchangeRateProvider implements ExchangeRateProvider {
+
+    static final String BUNDLED_RATES = "rates/usd-rates.json";
+
+    private final Resource file;
+    private final ObjectMapper objectMapper;
+
+    public FileExchangeRateProvider(@Value("${expense.rates.file:classpath:" + BUNDLED_RATES + "}") Resource file,
+                                    ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Map<String, BigDecimal> fetchUsdRates() throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return readUsdRates(objectMapper, in);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "file";
+    }
+
+    /**
+     * Parses an exchangerate-api style document. Rates are read as exact decimals and
+     * entries that are not positive or not a three-letter code are dropped.
+     */
+    static Map<String, BigDecimal> readUsdRates(ObjectMapper objectMapper, InputStream in) throws IOException {
+        JsonNode root = objectMapper.reader()
+                .with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+                .readTree(in);
+        if (!"USD".equalsIgnoreCase(root.path("base").asText("USD"))) {
+            throw new IOException("Expected USD based rates but got " + root.path("base").asText());
+        }
+
+        Map<String, BigDecimal> rates = new HashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = root.path("rates").fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> entry = fields.next();
+            String code = entry.getKey().toUpperCase();
+            BigDecimal rate = entry.getValue().decimalValue();
+            if (code.length() == 3 && rate.signum() > 0) {
+                rates.put(code, rate);
+            }
+        }
+        if (rates.isEmpty()) {
+            throw new IOException("No exchange rates found");
+        }
+        rates.put("USD", BigDecimal.ONE);
+        return rates;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.expensemanager.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the {@link HistoricalRates} used to convert expenses at their own date. The series is
+ * loaded from the bulk file at {@code expense.rates.history-file} on startup and can be
+ * replaced with {@link #load(InputStream)}; without a file it is empty and conversions use
+ * the current rates from {@link ExchangeRateStore}.
+ */
+@Component
+public class HistoricalRateStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoricalRateStore.class);
+
+    private final AtomicReference<HistoricalRates> rates = new AtomicReference<>(HistoricalRates.EMPTY);
+
+    public HistoricalRateStore(ResourceLoader resourceLoader,
+                               @Value("${expense.rates.history-file:}") String historyFile) {
+        if (!historyFile.isBlank()) {
+            Resource resource = resourceLoader.getResource(historyFile);
+            try (InputStream in = resource.getInputStream()) {
+                load(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not load historical exchange rates from " + historyFile, e);
+            }
+        }
+    }
+
+    public HistoricalRates current() {
+        return rates.get();
+    }
+
+    public HistoricalRates load(InputStream in) throws IOException {
+        HistoricalRates loaded = HistoricalRates.readCsv(new InputStreamReader(in, StandardCharsets.UTF_8));
+        rates.set(loaded);
+        logger.info("Loaded historical exchange rates for {} currencies from {} to {}",
+                loaded.size(), loaded.firstDate(), loaded.lastDate());
+        return loaded;
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.expensemanager.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable daily exchange rates over a date range. Each currency is one {@code double[]} of
+ * units per 1 USD indexed by {@code epochDay - firstDay}, so a lookup is two array reads and
+ * a year of 30 currencies takes about 90 KB. Days without a published rate (weekends,
+ * holidays) carry the previous rate forward; days before a currency's first rate, and days
+ * outside the range, have no rate (NaN).
+ */
+public final class HistoricalRates {
+
+    public static final HistoricalRates EMPTY = new HistoricalRates(new String[0], new double[0][], 0, 0);
+
+    // Guards against a stray date in the file turning into a huge allocation
+    static final int MAX_DAYS = 200 * 366;
+
+    private final String[] currencies;
+    private final Map<String, Integer> ids;
+    private final double[][] usdRates; // [currency id][day - firstDay]
+    private final long firstDay;
+    private final int days;
+
+    private HistoricalRates(String[] currencies, double[][] usdRates, long firstDay, int days) {
+        this.currencies = currencies;
+        this.usdRates = usdRates;
+        this.firstDay = firstDay;
+        this.days = days;
+        this.ids = new HashMap<>(currencies.length * 2);
+        for (int i = 0; i < currencies.length; i++) {
+            ids.put(currencies[i], i);
+        }
+    }
+
+    public boolean isEmpty() {
+        return days == 0;
+    }
+
+    public int size() {
+        return currencies.length;
+    }
+
+    public LocalDate firstDate() {
+        return isEmpty() ? null : LocalDate.ofEpochDay(firstDay);
+    }
+
+    public LocalDate lastDate() {
+        return isEmpty() ? null : LocalDate.ofEpochDay(firstDay + days - 1);
+    }
+
+    /**
+     * @return the id of the currency (case-insensitive), or -1 if the series has no rates for it
+     */
+    public int idOf(String currency) {
+        Integer id = ids.get(currency);
+        if (id == null) {
+            id = ids.get(currency.toUpperCase(Locale.ROOT));
+        }
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Units of the currency per 1 USD on the day, or NaN if there is no rate for it.
+     */
+    public double usdRate(int id, long epochDay) {
+        long index = epochDay - firstDay;
+        if (id < 0 || index < 0 || index >= days) {
+            return Double.NaN;
+        }
+        return usdRates[id][(int) index];
+    }
+
+    /**
+     * Units of {@code to} per one unit of {@code from} on the day, or NaN if either rate is
+     * missing. Allocation-free, for loops over many rows.
+     */
+    public double crossRate(int fromId, int toId, long epochDay) {
+        return usdRate(toId, epochDay) / usdRate(fromId, epochDay);
+    }
+
+    /**
+     * The cross rate on the date at the same scale as {@link RateSnapshot#crossRate(int, int)},
+     * or null if the series does not cover the date or either currency.
+     */
+    public BigDecimal crossRate(String fromCurrency, String toCurrency, LocalDate date) {
+        long day = date.toEpochDay();
+        double from = usdRate(idOf(fromCurrency), day);
+        double to = usdRate(idOf(toCurrency), day);
+        if (Double.isNaN(from) || Double.isNaN(to)) {
+            return null;
+        }
+        return BigDecimal.valueOf(to).divide(BigDecimal.valueOf(from), RateSnapshot.CROSS_RATE_SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Reads {@code date,currency,rate} lines (rate in units per 1 USD, an optional header,
+     * any order). A later line for the same day and currency wins. USD is always 1.
+     */
+    public static HistoricalRates readCsv(Reader reader) throws IOException {
+        BufferedReader in = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> codes = new ArrayList<>();
+        int count = 0;
+        int[] currencyIds = new int[1024];
+        long[] epochDays = new long[1024];
+        double[] rates = new double[1024];
+        long minDay = Long.MAX_VALUE;
+        long maxDay = Long.MIN_VALUE;
+
+        String line;
+        int lineNumber = 0;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || (lineNumber == 1 && line.trim().toLowerCase(Locale.ROOT).startsWith("date"))) {
+                continue;
+            }
+            int first = line.indexOf(',');
+            int second = first < 0 ? -1 : line.indexOf(',', first + 1);
+            if (second < 0) {
+                throw new IOException("Line " + lineNumber + ": expected date,currency,rate");
+            }
+
+            long day;
+            double rate;
+            try {
+                day = LocalDate.parse(line.substring(0, first).trim()).toEpochDay();
+                rate = Double.parseDouble(line.substring(second + 1).trim());
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IOException("Line " + lineNumber + ": " + e.getMessage());
+            }
+            String code = line.substring(first + 1, second).trim().toUpperCase(Locale.ROOT);
+            if (code.length() != 3 || !(rate > 0) || Double.isInfinite(rate)) {
+                throw new IOException("Line " + lineNumber + ": invalid currency or rate");
+            }
+
+            Integer id = ids.get(code);
+            if (id == null) {
+                id = codes.size();
+                ids.put(code, id);
+                codes.add(code);
+            }
+            if (count == rates.length) {
+                currencyIds = Arrays.copyOf(currencyIds, count * 2);
+                epochDays = Arrays.copyOf(epochDays, count * 2);
+                rates = Arrays.copyOf(rates, count * 2);
+            }
+            currencyIds[count] = id;
+            epochDays[count] = day;
+            rates[count] = rate;
+            count++;
+            minDay = Math.min(minDay, day);
+            maxDay = Math.max(maxDay, day);
+        }
+
+        if (count == 0) {
+            return EMPTY;
+        }
+        if (maxDay - minDay >= MAX_DAYS) {
+            throw new IOException("Rates span " + LocalDate.ofEpochDay(minDay) + " to " + LocalDate.ofEpochDay(maxDay)
+                    + ", more than " + MAX_DAYS + " days");
+        }
+        if (!ids.containsKey("USD")) {
+            ids.put("USD", codes.size());
+            codes.add("USD");
+        }
+
+        int days = (int) (maxDay - minDay + 1);
+        double[][] series = new double[codes.size()][days];
+        for (double[] values : series) {
+            Arrays.fill(values, Double.NaN);
+        }
+        for (int i = 0; i < count; i++) {
+            series[currencyIds[i]][(int) (epochDays[i] - minDay)] = rates[i];
+        }
+        Arrays.fill(series[ids.get("USD")], 1.0);
+        for (double[] values : series) {
+            double last = Double.NaN;
+            for (int day = 0; day < days; day++) {
+                if (Double.isNaN(values[day])) {
+                    values[day] = last;
+                } else {
+                    last = values[day];
+                }
+            }
+        }
+
+        return new HistoricalRates(codes.toArray(new String[0]), series, minDay, days);
+    }
+}
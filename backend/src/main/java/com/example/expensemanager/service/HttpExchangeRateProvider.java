@@ -0,0 +1,176 @@
+package com.example.expensemanager.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Fetches current rates from ExchangeRate-API (free tier) with the JDK's non-blocking
+ * {@link HttpClient}. Every attempt is bounded by the connect and request timeouts,
+ * transient failures (I/O errors, timeouts, 429 and 5xx) are retried with jittered
+ * exponential backoff, and a {@link CircuitBreaker} stops calling a host that keeps failing.
+ * Only the refresher's background thread waits on the result, so while the circuit is open
+ * requests keep being served from the last good snapshot in {@link ExchangeRateStore}.
+ */
+@Component
+@ConditionalOnProperty(name = "expense.rates.provider", havingValue = "http")
+public class HttpExchangeRateProvider implements ExchangeRateProvider {
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final HttpRequest request;
+    private final Duration requestTimeout;
+    private final int maxAttempts;
+    private final Duration backoff;
+    private final CircuitBreaker circuitBreaker;
+
+    @Autowired
+    public HttpExchangeRateProvider(ObjectMapper objectMapper,
+                                    @Value("${expense.rates.url:https://api.exchangerate-api.com/v4/latest/USD}") String url,
+                                    @Value("${expense.rates.connect-timeout:2s}") Duration connectTimeout,
+                                    @Value("${expense.rates.request-timeout:5s}") Duration requestTimeout,
+                                    @Value("${expense.rates.retry.max-attempts:3}") int maxAttempts,
+                                    @Value("${expense.rates.retry.backoff:500ms}") Duration backoff,
+                                    @Value("${expense.rates.circuit.failure-threshold:3}") int failureThreshold,
+                                    @Value("${expense.rates.circuit.open-duration:PT15M}") Duration openDuration) {
+        this(objectMapper, URI.create(url), connectTimeout, requestTimeout, maxAttempts, backoff,
+                new CircuitBreaker(failureThreshold, openDuration, Clock.systemUTC()));
+    }
+
+    HttpExchangeRateProvider(ObjectMapper objectMapper, URI url, Duration connectTimeout, Duration requestTimeout,
+                             int maxAttempts, Duration backoff, CircuitBreaker circuitBreaker) {
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        this.objectMapper = objectMapper;
+        this.request = HttpRequest.newBuilder(url)
+                .timeout(requestTimeout)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        this.requestTimeout = requestTimeout;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoff = backoff;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public Map<String, BigDecimal> fetchUsdRates() throws IOException {
+        if (!circuitBreaker.tryAcquire()) {
+            throw new IOException("Circuit open after repeated failures, next attempt after " + circuitBreaker.retryAt());
+        }
+        try {
+            Map<String, BigDecimal> rates = fetchAsync(1).get();
+            circuitBreaker.onSuccess();
+            return rates;
+        } catch (ExecutionException e) {
+            circuitBreaker.onFailure();
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException io ? io : new IOException("Exchange rate request failed: " + cause, cause);
+        } catch (InterruptedException e) {
+            // Shutting down; not the host's fault, so it does not count as a failure
+            circuitBreaker.release();
+            Thread.currentThread().interrupt();
+            throw new IOException("Exchange rate request interrupted", e);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "http";
+    }
+
+    CircuitBreaker.State circuitState() {
+        return circuitBreaker.state();
+    }
+
+    private CompletableFuture<Map<String, BigDecimal>> fetchAsync(int attempt) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                // The request timeout only covers the headers; this also bounds a stalled body
+                .orTimeout(requestTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .thenApply(this::parse)
+                .handle((rates, error) -> {
+                    if (error == null) {
+                        return CompletableFuture.completedFuture(rates);
+                    }
+                    Throwable cause = unwrap(error);
+                    if (attempt >= maxAttempts || !isRetryable(cause)) {
+                        return CompletableFuture.<Map<String, BigDecimal>>failedFuture(cause);
+                    }
+                    return CompletableFuture
+                            .runAsync(() -> { }, CompletableFuture.delayedExecutor(backoffMillis(attempt), TimeUnit.MILLISECONDS))
+                            .thenCompose(ignored -> fetchAsync(attempt + 1));
+                })
+                .thenCompose(Function.identity());
+    }
+
+    private Map<String, BigDecimal> parse(HttpResponse<byte[]> response) {
+        try {
+            if (response.statusCode() != 200) {
+                throw new StatusException(response.statusCode());
+            }
+            return FileExchangeRateProvider.readUsdRates(objectMapper, new ByteArrayInputStream(response.body()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Exponential backoff with equal jitter: half the window is fixed, half is random, so
+     * instances that failed together do not retry together.
+     */
+    private long backoffMillis(int attempt) {
+        long window = backoff.toMillis() << Math.min(attempt - 1, 16);
+        return window / 2 + ThreadLocalRandom.current().nextLong(window / 2 + 1);
+    }
+
+    private static boolean isRetryable(Throwable error) {
+        if (error instanceof StatusException status) {
+            return status.status == 429 || status.status >= 500;
+        }
+        if (error instanceof JsonProcessingException) {
+            return false;
+        }
+        return error instanceof IOException || error instanceof TimeoutException;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof UncheckedIOException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    private static class StatusException extends IOException {
+
+        private final int status;
+
+        StatusException(int status) {
+            super("Exchange rate request returned HTTP " + status);
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.expensemanager.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable set of exchange rates as of one refresh. Currencies are mapped to dense int ids
+ * and every pairwise rate is precomputed when the snapshot is built, so a conversion is one
+ * array lookup and one multiply. Cross rates are held at {@value #CROSS_RATE_SCALE} decimal
+ * places (HALF_UP) and converted amounts are rounded to 2 places (HALF_UP), so the same
+ * inputs always give the same result.
+ */
+public final class RateSnapshot {
+
+    static final int CROSS_RATE_SCALE = 12;
+    private static final int AMOUNT_SCALE = 2;
+
+    private final Map<String, BigDecimal> usdRates; // units of currency per 1 USD
+    private final Instant fetchedAt;
+    private final String source;
+
+    private final String[] currencies; // id -> code, sorted
+    private final Map<String, Integer> ids;
+    private final BigDecimal[][] crossRates; // [from][to]: units of "to" per 1 unit of "from"
+    private final int usdId;
+
+    public RateSnapshot(Map<String, BigDecimal> usdRates, Instant fetchedAt, String source) {
+        Map<String, BigDecimal> rates = new HashMap<>(usdRates);
+        rates.putIfAbsent("USD", BigDecimal.ONE);
+        this.usdRates = Map.copyOf(rates);
+        this.fetchedAt = fetchedAt;
+        this.source = source;
+
+        this.currencies = rates.keySet().toArray(new String[0]);
+        Arrays.sort(currencies);
+        this.ids = new HashMap<>(currencies.length * 2);
+        for (int i = 0; i < currencies.length; i++) {
+            ids.put(currencies[i], i);
+        }
+        this.usdId = ids.get("USD");
+
+        int n = currencies.length;
+        this.crossRates = new BigDecimal[n][n];
+        for (int from = 0; from < n; from++) {
+            BigDecimal fromRate = rates.get(currencies[from]);
+            for (int to = 0; to < n; to++) {
+                crossRates[from][to] = from == to
+                        ? BigDecimal.ONE
+                        : rates.get(currencies[to]).divide(fromRate, CROSS_RATE_SCALE, RoundingMode.HALF_UP);
+            }
+        }
+    }
+
+    public Map<String, BigDecimal> getUsdRates() {
+        return usdRates;
+    }
+
+    public Instant getFetchedAt() {
+        return fetchedAt;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public boolean isNewerThan(RateSnapshot other) {
+        return other == null || fetchedAt.isAfter(other.fetchedAt);
+    }
+
+    /**
+     * @return the dense id of the currency (case-insensitive), or -1 if it has no rate
+     */
+    public int idOf(String currency) {
+        Integer id = ids.get(currency);
+        if (id == null) {
+            id = ids.get(currency.toUpperCase());
+        }
+        return id != null ? id : -1;
+    }
+
+    public String currencyOf(int id) {
+        return currencies[id];
+    }
+
+    public int size() {
+        return currencies.length;
+    }
+
+    /**
+     * Units of {@code to} per one unit of {@code from}.
+     */
+    public BigDecimal crossRate(int fromId, int toId) {
+        return crossRates[fromId][toId];
+    }
+
+    /**
+     * Units of {@code to} per one unit of {@code from}, treating a currency without a rate as USD.
+     */
+    public BigDecimal crossRate(String fromCurrency, String toCurrency) {
+        int from = idOf(fromCurrency);
+        int to = idOf(toCurrency);
+        return crossRates[from >= 0 ? from : usdId][to >= 0 ? to : usdId];
+    }
+
+    /**
+     * Converts between currencies resolved with {@link #idOf(String)}. An unknown (-1)
+     * currency is treated as USD, as the service has always done for currencies without a rate.
+     */
+    public BigDecimal convert(BigDecimal amount, int fromId, int toId) {
+        int from = fromId >= 0 ? fromId : usdId;
+        int to = toId >= 0 ? toId : usdId;
+        if (from == to) {
+            return amount;
+        }
+        return amount.multiply(crossRates[from][to]).setScale(AMOUNT_SCALE, RoundingMode.HALF_UP);
+    }
+
+    public BigDecimal convert(BigDecimal amount, String fromCurrency, String toCurrency) {
+        return convert(amount, idOf(fromCurrency), idOf(toCurrency));
+    }
+}
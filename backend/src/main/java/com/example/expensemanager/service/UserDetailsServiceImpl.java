@@ -1,5 +1,6 @@
 package com.example.expensemanager.service;
 
+import com.example.expensemanager.config.AuthenticatedUser;
 import com.example.expensemanager.model.User;
 import com.example.expensemanager.repository.UserRepository;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -21,10 +22,6 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 
-        return org.springframework.security.core.userdetails.User
-                .withUsername(user.getEmail())
-                .password(user.getPasswordHash())
-                .authorities("USER")
-                .build();
+        return AuthenticatedUser.from(user);
     }
 }
@@ -1,13 +1,25 @@
 package com.example.expensemanager;
 
+import com.example.expensemanager.service.ExchangeRateProvider;
+import com.example.expensemanager.service.HttpExchangeRateProvider;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+@SpringBootTest(properties = {
+        "expense.audit.directory=target/audit/ExpenseManagerApplicationTest",
+        "expense.rates.provider=http"
+})
 class ExpenseManagerApplicationTest {
 
+    @Autowired
+    private ExchangeRateProvider exchangeRateProvider;
+
     @Test
     void contextLoads() {
-        // Test that the Spring context loads successfully
+        // Test that the Spring context loads successfully, with the provider application.yml selects
+        assertInstanceOf(HttpExchangeRateProvider.class, exchangeRateProvider);
     }
 }
@@ -0,0 +1,51 @@
+package com.example.expensemanager.config;
+
+import com.example.expensemanager.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AuthenticatedUserTest {
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testBaseCurrencyOf_ReadsPrincipalWithoutLoadingUser() {
+        authenticate(new AuthenticatedUser(1L, "test@example.com", "hash", "EUR"));
+        User user = mock(User.class);
+        when(user.getId()).thenReturn(1L);
+
+        assertEquals("EUR", AuthenticatedUser.baseCurrencyOf(user));
+        verify(user, never()).getBaseCurrency();
+    }
+
+    @Test
+    void testBaseCurrencyOf_FallsBackToUserForOtherPrincipal() {
+        authenticate(new AuthenticatedUser(2L, "other@example.com", "hash", "EUR"));
+        User user = mock(User.class);
+        when(user.getId()).thenReturn(1L);
+        when(user.getBaseCurrency()).thenReturn("USD");
+
+        assertEquals("USD", AuthenticatedUser.baseCurrencyOf(user));
+    }
+
+    @Test
+    void testBaseCurrencyOf_FallsBackToUserWithoutAuthentication() {
+        User user = new User();
+        user.setBaseCurrency("USD");
+
+        assertEquals("USD", AuthenticatedUser.baseCurrencyOf(user));
+    }
+
+    private static void authenticate(AuthenticatedUser principal) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.expensemanager.config;
+
+import com.example.expensemanager.repository.ExchangeRateRepository;
+import com.example.expensemanager.service.ExchangeRateStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.cache.CacheMetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheConfigTest {
+
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+
+    private ExchangeRateStore store;
+    private LoadingCache<Object, Object> cache;
+
+    @BeforeEach
+    void setUp() {
+        store = new ExchangeRateStore(exchangeRateRepository, new ObjectMapper());
+        store.update(Map.of("USD", BigDecimal.ONE, "EUR", new BigDecimal("0.8")), "test");
+        cache = CacheConfig.exchangeRatesCache(store, 2, Duration.ofHours(1), Duration.ofMinutes(10), Duration.ofMinutes(1));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testLoadsCrossRatesForKnownBase() {
+        Map<String, BigDecimal> rates = (Map<String, BigDecimal>) cache.get("EUR");
+
+        assertEquals(0, new BigDecimal("1.25").compareTo(rates.get("USD")));
+        assertEquals(1, cache.stats().missCount());
+        cache.get("EUR");
+        assertEquals(1, cache.stats().hitCount());
+    }
+
+    @Test
+    void testUnknownBaseIsCachedBriefly() {
+        cache.get("EUR");
+        cache.get("XYZ");
+
+        var expiry = cache.policy().expireVariably().orElseThrow();
+        assertTrue(expiry.getExpiresAfter("EUR").orElseThrow().compareTo(Duration.ofMinutes(59)) > 0);
+        assertTrue(expiry.getExpiresAfter("XYZ").orElseThrow().compareTo(Duration.ofMinutes(1)) <= 0);
+    }
+
+    @Test
+    void testSizeIsBounded() {
+        for (String code : new String[]{"AAA", "BBB", "CCC", "DDD", "EEE"}) {
+            cache.get(code);
+        }
+        cache.cleanUp();
+
+        assertTrue(cache.estimatedSize() <= 2);
+    }
+
+    @Test
+    void testCacheMetricsArePublished() {
+        new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(
+                        MetricsAutoConfiguration.class,
+                        SimpleMetricsExportAutoConfiguration.class,
+                        CompositeMeterRegistryAutoConfiguration.class,
+                        CacheAutoConfiguration.class,
+                        CacheMetricsAutoConfiguration.class))
+                // Binds the Duration settings as the application does
+                .withInitializer(context -> context.getBeanFactory()
+                        .setConversionService(ApplicationConversionService.getSharedInstance()))
+                .withUserConfiguration(CacheConfig.class)
+                .withBean(ExchangeRateStore.class, () -> store)
+                .run(context -> {
+                    MeterRegistry registry = context.getBean(MeterRegistry.class);
+                    assertNotNull(registry.find("cache.gets").tag("cache", CacheConfig.EXCHANGE_RATES)
+                            .tag("result", "hit").functionCounter());
+                    assertNotNull(registry.find("cache.gets").tag("cache", CacheConfig.EXCHANGE_RATES)
+                            .tag("result", "miss").functionCounter());
+                });
+    }
+
+    @Test
+    void testConcurrentMissesLoadOnce() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int i = 0; i < 8; i++) {
+                executor.submit(() -> {
+                    start.await();
+                    // Same single-flight path that @Cacheable(sync = true) uses
+                    return cache.get("USD", key -> {
+                        loads.incrementAndGet();
+                        return Map.of();
+                    });
+                });
+            }
+            start.countDown();
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        }
+
+        assertEquals(1, loads.get());
+    }
+}
@@ -1,10 +1,12 @@
 package com.example.expensemanager.config;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Collections;
 
@@ -17,10 +19,7 @@ class JwtUtilsTest {
 
     @BeforeEach
     void setUp() {
-        jwtUtils = new JwtUtils();
-        // Set the secret using reflection
-        ReflectionTestUtils.setField(jwtUtils, "secret", "expenseManagerSecretKeyThatIsAtLeast32CharactersLong");
-        ReflectionTestUtils.setField(jwtUtils, "expiration", 86400000L);
+        jwtUtils = new JwtUtils("expenseManagerSecretKeyThatIsAtLeast32CharactersLong", 86400000L);
         userDetails = User.withUsername("test@example.com")
                 .password("password")
                 .authorities(Collections.emptyList())
@@ -64,4 +63,26 @@ class JwtUtilsTest {
         String token = jwtUtils.generateToken(userDetails);
         assertFalse(jwtUtils.isTokenExpired(token));
     }
+
+    @Test
+    void testVerify_ReturnsClaims() {
+        String token = jwtUtils.generateToken(userDetails);
+        Claims claims = jwtUtils.verify(token);
+        assertEquals("test@example.com", claims.getSubject());
+        assertTrue(claims.getExpiration().after(claims.getIssuedAt()));
+    }
+
+    @Test
+    void testVerify_ExpiredToken() {
+        JwtUtils shortLived = new JwtUtils("expenseManagerSecretKeyThatIsAtLeast32CharactersLong", -1000L);
+        String token = shortLived.generateToken(userDetails);
+        assertThrows(ExpiredJwtException.class, () -> shortLived.verify(token));
+    }
+
+    @Test
+    void testVerify_WrongSigningKey() {
+        JwtUtils otherKey = new JwtUtils("aDifferentSecretKeyThatIsAlsoAtLeast32CharactersLong", 86400000L);
+        String token = otherKey.generateToken(userDetails);
+        assertThrows(JwtException.class, () -> jwtUtils.verify(token));
+    }
 }
@@ -1,15 +1,27 @@
 package com.example.expensemanager.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.mock.env.MockEnvironment;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -21,11 +33,28 @@ class RateLimitFilterTest {
     @Mock
     private FilterChain filterChain;
 
+    @Mock
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private RateLimitFilter rateLimitFilter;
 
     @BeforeEach
     void setUp() {
-        rateLimitFilter = new RateLimitFilter();
+        Map<RateLimitTier, RateLimitTier.Limit> limits = Map.of(
+                RateLimitTier.AUTH, new RateLimitTier.Limit(5, Duration.ofMinutes(1)),
+                RateLimitTier.WRITES, new RateLimitTier.Limit(100, Duration.ofMinutes(1)),
+                RateLimitTier.READS, new RateLimitTier.Limit(200, Duration.ofMinutes(1)),
+                RateLimitTier.REPORTS, new RateLimitTier.Limit(3, Duration.ofMinutes(1)),
+                RateLimitTier.EXPORTS, new RateLimitTier.Limit(1, Duration.ofMinutes(1)));
+        rateLimitFilter = new RateLimitFilter(limits, meterRegistry, 10_000, Duration.ofMinutes(10), nanos::get);
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
     }
 
     @Test
@@ -86,4 +115,212 @@ class RateLimitFilterTest {
         // Verify filter chain was called
         verify(filterChain, atLeastOnce()).doFilter(any(), any());
     }
+
+    @Test
+    void testAuthenticatedUsersHaveSeparateBuckets() throws Exception {
+        // Tokens of different users share the same header segment; only the verified principal counts
+        String sharedPrefix = "Bearer eyJhbGciOiJIUzI1NiJ9.";
+        authenticateAs(1L);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(200, filter(request("10.0.0.1", sharedPrefix + "user1")).getStatus());
+        }
+        assertEquals(429, filter(request("10.0.0.1", sharedPrefix + "user1")).getStatus());
+
+        authenticateAs(2L);
+        assertEquals(200, filter(request("10.0.0.1", sharedPrefix + "user2")).getStatus());
+    }
+
+    @Test
+    void testAuthenticatedUserIsLimitedAcrossAddresses() throws Exception {
+        authenticateAs(1L);
+        for (int i = 0; i < 100; i++) {
+            filter(request("10.0.0." + i, null));
+        }
+
+        assertEquals(429, filter(request("10.0.1.1", null)).getStatus());
+    }
+
+    @Test
+    void testUnverifiedBearerTokenIsLimitedByAddress() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            filter(request("10.0.0.1", "Bearer forged.token." + i));
+        }
+
+        assertEquals(429, filter(request("10.0.0.1", "Bearer another.forged.token")).getStatus());
+        assertEquals(200, filter(request("10.0.0.2", "Bearer forged.token.0")).getStatus());
+    }
+
+    @Test
+    void testIdleBucketsExpire() throws Exception {
+        filter(request("10.0.0.1", null));
+        assertEquals(1, rateLimitFilter.trackedBuckets());
+
+        nanos.addAndGet(Duration.ofMinutes(11).toNanos());
+
+        assertEquals(0, rateLimitFilter.trackedBuckets());
+    }
+
+    @Test
+    void testMillionDistinctAddressesStayBounded() throws Exception {
+        MockHttpServletRequest userRequest = request("10.0.0.1", null);
+        AuthenticatedUser busyUser = new AuthenticatedUser(1L, "user1@example.com", "hash", "USD");
+        for (int i = 0; i < 100; i++) {
+            filterAs(busyUser, userRequest);
+        }
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicLong passed = new AtomicLong();
+        FilterChain counting = (req, res) -> passed.incrementAndGet();
+        for (int i = 0; i < 1_000_000; i++) {
+            request.setRemoteAddr("10." + (i >>> 16) + "." + ((i >>> 8) & 0xff) + "." + (i & 0xff));
+            rateLimitFilter.doFilterInternal(request, response, counting);
+            if (i % 1_000 == 0) {
+                // A user who keeps sending requests keeps their exhausted bucket through the flood
+                assertEquals(429, filterAs(busyUser, userRequest).getStatus());
+            }
+            if (i % 100_000 == 0) {
+                assertTrue(rateLimitFilter.trackedBuckets() <= 10_000);
+            }
+        }
+
+        assertEquals(1_000_000, passed.get());
+        assertTrue(rateLimitFilter.trackedBuckets() <= 10_000);
+    }
+
+    @Test
+    void testRouteGroupsMapToTiers() {
+        assertEquals(RateLimitTier.AUTH, RateLimitTier.of(routeRequest("POST", "/api/auth/login")));
+        assertEquals(RateLimitTier.AUTH, RateLimitTier.of(routeRequest("POST", "/api/auth/register")));
+        assertEquals(RateLimitTier.WRITES, RateLimitTier.of(routeRequest("PUT", "/api/auth/base-currency")));
+        assertEquals(RateLimitTier.READS, RateLimitTier.of(routeRequest("GET", "/api/auth/base-currency/rebase")));
+        assertEquals(RateLimitTier.READS, RateLimitTier.of(routeRequest("GET", "/api/expenses")));
+        assertEquals(RateLimitTier.READS, RateLimitTier.of(routeRequest("GET", "/api/categories")));
+        assertEquals(RateLimitTier.WRITES, RateLimitTier.of(routeRequest("POST", "/api/expenses")));
+        assertEquals(RateLimitTier.WRITES, RateLimitTier.of(routeRequest("POST", "/api/expenses/batch")));
+        assertEquals(RateLimitTier.WRITES, RateLimitTier.of(routeRequest("DELETE", "/api/expenses/7")));
+        assertEquals(RateLimitTier.REPORTS, RateLimitTier.of(routeRequest("GET", "/api/expenses/summary")));
+        assertEquals(RateLimitTier.REPORTS, RateLimitTier.of(routeRequest("GET", "/api/expenses/summary/monthly")));
+        assertEquals(RateLimitTier.REPORTS, RateLimitTier.of(routeRequest("GET", "/api/budgets")));
+        assertEquals(RateLimitTier.WRITES, RateLimitTier.of(routeRequest("POST", "/api/budgets")));
+        assertEquals(RateLimitTier.EXPORTS, RateLimitTier.of(routeRequest("GET", "/api/expenses/export")));
+        assertEquals(RateLimitTier.EXPORTS, RateLimitTier.of(routeRequest("POST", "/api/expenses/import")));
+    }
+
+    @Test
+    void testReportLimitDoesNotThrottleReads() throws Exception {
+        authenticateAs(1L);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, filter(routeRequest("GET", "/api/expenses/summary")).getStatus());
+        }
+        assertEquals(429, filter(routeRequest("GET", "/api/expenses/summary/monthly")).getStatus());
+
+        assertEquals(200, filter(routeRequest("GET", "/api/expenses")).getStatus());
+        assertEquals(200, filter(routeRequest("POST", "/api/expenses")).getStatus());
+    }
+
+    @Test
+    void testRateLimitHeaders() throws Exception {
+        MockHttpServletResponse allowed = filter(routeRequest("GET", "/api/expenses/summary"));
+
+        assertEquals("3", allowed.getHeader("X-RateLimit-Limit"));
+        assertEquals("2", allowed.getHeader("X-RateLimit-Remaining"));
+        assertEquals("20", allowed.getHeader("X-RateLimit-Reset"));
+        assertNull(allowed.getHeader("Retry-After"));
+
+        filter(routeRequest("GET", "/api/expenses/summary"));
+        filter(routeRequest("GET", "/api/expenses/summary"));
+        MockHttpServletResponse rejected = filter(routeRequest("GET", "/api/expenses/summary"));
+
+        assertEquals(429, rejected.getStatus());
+        assertEquals("0", rejected.getHeader("X-RateLimit-Remaining"));
+        // One token comes back every 20 seconds
+        long retryAfter = Long.parseLong(rejected.getHeader("Retry-After"));
+        assertTrue(retryAfter > 0 && retryAfter <= 20);
+    }
+
+    @Test
+    void testBucketRefillsOnTheFilterClock() throws Exception {
+        assertEquals(200, filter(routeRequest("GET", "/api/expenses/export")).getStatus());
+        assertEquals(429, filter(routeRequest("GET", "/api/expenses/export")).getStatus());
+
+        nanos.addAndGet(Duration.ofSeconds(59).toNanos());
+        assertEquals(429, filter(routeRequest("GET", "/api/expenses/export")).getStatus());
+
+        nanos.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertEquals(200, filter(routeRequest("GET", "/api/expenses/export")).getStatus());
+    }
+
+    @Test
+    void testCountsOutcomesPerTier() throws Exception {
+        filter(routeRequest("GET", "/api/expenses/export"));
+        filter(routeRequest("GET", "/api/expenses/export"));
+        filter(routeRequest("GET", "/api/expenses"));
+
+        assertEquals(1, count("exports", "allowed"));
+        assertEquals(1, count("exports", "rejected"));
+        assertEquals(1, count("reads", "allowed"));
+        assertEquals(0, count("reads", "rejected"));
+    }
+
+    @Test
+    void testTierLimitsFromProperties() throws Exception {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("security.rate-limit.tiers.exports.capacity", "2")
+                .withProperty("security.rate-limit.tiers.exports.period", "30s");
+        environment.setConversionService((ApplicationConversionService) ApplicationConversionService.getSharedInstance());
+        when(meterRegistryProvider.getIfAvailable(any())).thenReturn(meterRegistry);
+        RateLimitFilter configured = new RateLimitFilter(environment, meterRegistryProvider, 1_000, Duration.ofMinutes(10));
+
+        MockHttpServletResponse export = new MockHttpServletResponse();
+        configured.doFilterInternal(routeRequest("GET", "/api/expenses/export"), export, filterChain);
+        MockHttpServletResponse read = new MockHttpServletResponse();
+        configured.doFilterInternal(routeRequest("GET", "/api/expenses"), read, filterChain);
+
+        assertEquals("2", export.getHeader("X-RateLimit-Limit"));
+        assertEquals("15", export.getHeader("X-RateLimit-Reset"));
+        // Tiers without properties keep their defaults
+        assertEquals(String.valueOf(RateLimitTier.READS.defaultLimit().capacity()), read.getHeader("X-RateLimit-Limit"));
+    }
+
+    private double count(String tier, String outcome) {
+        return meterRegistry.get(RateLimitFilter.METER_NAME).tag("tier", tier).tag("outcome", outcome).counter().count();
+    }
+
+    private MockHttpServletRequest routeRequest(String method, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr("10.0.0.1");
+        return request;
+    }
+
+    private MockHttpServletRequest request(String remoteAddr, String authorization) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddr);
+        if (authorization != null) {
+            request.addHeader("Authorization", authorization);
+        }
+        return request;
+    }
+
+    private MockHttpServletResponse filter(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        rateLimitFilter.doFilterInternal(request, response, (req, res) -> { });
+        return response;
+    }
+
+    private MockHttpServletResponse filterAs(AuthenticatedUser user, MockHttpServletRequest request) throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        try {
+            return filter(request);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private void authenticateAs(Long userId) {
+        AuthenticatedUser user = new AuthenticatedUser(userId, "user" + userId + "@example.com", "hash", "USD");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
 }
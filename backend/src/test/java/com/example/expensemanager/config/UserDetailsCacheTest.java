@@ -0,0 +1,85 @@
+package com.example.expensemanager.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserDetailsCacheTest {
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserDetailsCache userDetailsCache;
+    private AuthenticatedUser principal;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userDetailsCache = new UserDetailsCache(userDetailsService, meterRegistry, 100, Duration.ofMinutes(10));
+        principal = new AuthenticatedUser(1L, "test@example.com", "hash", "USD");
+    }
+
+    @Test
+    void testGet_LoadsOnceForWarmUser() {
+        when(userDetailsService.loadUserByUsername("test@example.com")).thenReturn(principal);
+
+        UserDetails first = userDetailsCache.get("test@example.com");
+        UserDetails second = userDetailsCache.get("test@example.com");
+
+        assertSame(principal, first);
+        assertSame(principal, second);
+        verify(userDetailsService, times(1)).loadUserByUsername("test@example.com");
+        assertEquals(1, userDetailsCache.stats().hitCount());
+        assertEquals(1, userDetailsCache.stats().missCount());
+    }
+
+    @Test
+    void testInvalidate_ReloadsOnNextGet() {
+        when(userDetailsService.loadUserByUsername("test@example.com")).thenReturn(principal);
+
+        userDetailsCache.get("test@example.com");
+        userDetailsCache.invalidate("test@example.com");
+        userDetailsCache.get("test@example.com");
+
+        verify(userDetailsService, times(2)).loadUserByUsername("test@example.com");
+    }
+
+    @Test
+    void testGet_UnknownUserIsNotCached() {
+        when(userDetailsService.loadUserByUsername("missing@example.com"))
+                .thenThrow(new UsernameNotFoundException("User not found with email: missing@example.com"));
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsCache.get("missing@example.com"));
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsCache.get("missing@example.com"));
+
+        verify(userDetailsService, times(2)).loadUserByUsername("missing@example.com");
+    }
+
+    @Test
+    void testMetrics_AreRegistered() {
+        when(userDetailsService.loadUserByUsername("test@example.com")).thenReturn(principal);
+
+        userDetailsCache.get("test@example.com");
+        userDetailsCache.get("test@example.com");
+
+        double hits = meterRegistry.get("cache.gets")
+                .tag("cache", UserDetailsCache.CACHE_NAME)
+                .tag("result", "hit")
+                .functionCounter()
+                .count();
+        assertEquals(1.0, hits);
+    }
+}
@@ -1,11 +1,18 @@
 package com.example.expensemanager.controller;
 
+import com.example.expensemanager.config.AuthenticatedUser;
+import com.example.expensemanager.dto.ExpenseBatchResponse;
+import com.example.expensemanager.dto.ExpenseImportResponse;
+import com.example.expensemanager.dto.ExpensePageResponse;
 import com.example.expensemanager.dto.ExpenseRequest;
 import com.example.expensemanager.dto.ExpenseSummaryResponse;
 import com.example.expensemanager.dto.MonthlySummaryItem;
 import com.example.expensemanager.model.Expense;
 import com.example.expensemanager.model.User;
 import com.example.expensemanager.repository.UserRepository;
+import com.example.expensemanager.service.ExpenseBatchService;
+import com.example.expensemanager.service.ExpenseExportService;
+import com.example.expensemanager.service.ExpenseImportService;
 import com.example.expensemanager.service.ExpenseService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -21,12 +28,14 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -42,12 +51,24 @@ class ExpenseControllerTest {
     @MockBean
     private ExpenseService expenseService;
 
+    @MockBean
+    private ExpenseExportService expenseExportService;
+
+    @MockBean
+    private ExpenseImportService expenseImportService;
+
+    @MockBean
+    private ExpenseBatchService expenseBatchService;
+
     @MockBean
     private UserRepository userRepository;
 
     @MockBean
     private com.example.expensemanager.config.JwtUtils jwtUtils;
 
+    @MockBean
+    private com.example.expensemanager.config.UserDetailsCache userDetailsCache;
+
     private User testUser;
     private Expense testExpense;
 
@@ -135,6 +156,65 @@ class ExpenseControllerTest {
                 .andExpect(jsonPath("$[0].description").value("Test expense"));
     }
 
+    @Test
+    @WithMockUser(username = "test@example.com")
+    void testListExpensesPage() throws Exception {
+        when(expenseService.getExpensePage(any(User.class), isNull(), isNull(), isNull(), eq(25), eq("abc")))
+                .thenReturn(new ExpensePageResponse(Arrays.asList(testExpense), "def"));
+
+        mockMvc.perform(get("/api/expenses")
+                .param("limit", "25")
+                .param("next", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].description").value("Test expense"))
+                .andExpect(jsonPath("$.next").value("def"));
+    }
+
+    @Test
+    @WithMockUser(username = "test@example.com")
+    void testExportExpenses() throws Exception {
+        mockMvc.perform(get("/api/expenses/export")
+                .param("format", "ndjson"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"expenses.ndjson\""));
+
+        verify(expenseExportService).export(any(User.class), eq(ExpenseExportService.Format.NDJSON), any());
+    }
+
+    @Test
+    @WithMockUser(username = "test@example.com")
+    void testImportExpenses() throws Exception {
+        when(expenseImportService.importCsv(any(User.class), any()))
+                .thenReturn(new ExpenseImportResponse(1, 1, List.of(new ExpenseImportResponse.RowError(3, "Invalid amount 'abc'"))));
+
+        mockMvc.perform(post("/api/expenses/import")
+                .with(csrf())
+                .contentType("text/csv")
+                .content("date,amount,currency,description,category\n2024-01-05,12.50,USD,Lunch,\n2024-01-06,abc,USD,Bus,\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(3));
+    }
+
+    @Test
+    @WithMockUser(username = "test@example.com")
+    void testBatchExpenses() throws Exception {
+        when(expenseBatchService.apply(any(User.class), anyList()))
+                .thenReturn(new ExpenseBatchResponse(1, 1, List.of(
+                        new ExpenseBatchResponse.ItemResult(0, ExpenseBatchResponse.Status.DELETED, 5L, null),
+                        new ExpenseBatchResponse.ItemResult(1, ExpenseBatchResponse.Status.FAILED, null, "Expense not found"))));
+
+        mockMvc.perform(post("/api/expenses/batch")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"operations\":[{\"type\":\"DELETE\",\"id\":5},{\"type\":\"DELETE\",\"id\":6}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.results[0].status").value("DELETED"))
+                .andExpect(jsonPath("$.results[1].error").value("Expense not found"));
+    }
+
     @Test
     @WithMockUser(username = "test@example.com")
     void testGetSummary() throws Exception {
@@ -166,6 +246,30 @@ class ExpenseControllerTest {
                 .andExpect(jsonPath("$[0].total").value(300.00));
     }
 
+    @Test
+    @WithMockUser(username = "test@example.com")
+    void testGetMonthlySummary_YearRange() throws Exception {
+        MonthlySummaryItem item = new MonthlySummaryItem("2022-03", new BigDecimal("42.00"));
+
+        when(expenseService.monthlySummary(any(User.class), eq(2022), eq(2024)))
+                .thenReturn(Arrays.asList(item));
+
+        mockMvc.perform(get("/api/expenses/summary/monthly")
+                .param("fromYear", "2022")
+                .param("toYear", "2024"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].month").value("2022-03"));
+    }
+
+    @Test
+    @WithMockUser(username = "test@example.com")
+    void testGetMonthlySummary_MissingYear() throws Exception {
+        mockMvc.perform(get("/api/expenses/summary/monthly")
+                .param("fromYear", "2022"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("INVALID_YEAR_RANGE"));
+    }
+
     @Test
     @WithMockUser(username = "test@example.com")
     void testUpdateExpense() throws Exception {
@@ -198,4 +302,21 @@ class ExpenseControllerTest {
 
         verify(expenseService).deleteExpense(any(User.class), eq(1L));
     }
+
+    @Test
+    void testAuthenticatedPrincipalResolvesUserWithoutEmailLookup() throws Exception {
+        setUserId(testUser, 1L);
+        AuthenticatedUser principal = new AuthenticatedUser(1L, "test@example.com", "hash", "USD");
+        when(userRepository.getReferenceById(1L)).thenReturn(testUser);
+        when(expenseService.getExpenses(same(testUser), isNull(), isNull(), isNull()))
+                .thenReturn(Arrays.asList(testExpense));
+
+        mockMvc.perform(get("/api/expenses").with(user(principal)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].description").value("Test expense"))
+                .andExpect(jsonPath("$[0].user").doesNotExist());
+
+        verify(userRepository).getReferenceById(1L);
+        verify(userRepository, never()).findByEmail(anyString());
+    }
 }
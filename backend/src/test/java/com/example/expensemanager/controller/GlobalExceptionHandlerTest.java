@@ -26,6 +26,9 @@ class GlobalExceptionHandlerTest {
     @MockBean
     private com.example.expensemanager.config.JwtUtils jwtUtils;
 
+    @MockBean
+    private com.example.expensemanager.config.UserDetailsCache userDetailsCache;
+
     @Test
     @WithMockUser(username = "test@example.com")
     void testHandleValidationException() throws Exception {
@@ -1,5 +1,7 @@
 package com.example.expensemanager.repository;
 
+import com.example.expensemanager.dto.CategoryTotal;
+import com.example.expensemanager.dto.MonthlyTotal;
 import com.example.expensemanager.model.Category;
 import com.example.expensemanager.model.Expense;
 import com.example.expensemanager.model.User;
@@ -7,10 +9,13 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -94,6 +99,25 @@ class ExpenseRepositoryTest {
         assertTrue(expenses.contains(expense2));
     }
 
+    @Test
+    void testFindFilteredInCategory_OnlyThatCategory() {
+        User user = createAndPersistUser("test@example.com");
+        Category food = createAndPersistCategory("Food", user);
+        Category travel = createAndPersistCategory("Travel", user);
+
+        Expense lunch = createExpense(user, food, LocalDate.of(2023, 10, 15), new BigDecimal("50.00"));
+        Expense taxi = createExpense(user, travel, LocalDate.of(2023, 10, 16), new BigDecimal("30.00"));
+        Expense other = createExpense(user, null, LocalDate.of(2023, 10, 17), new BigDecimal("20.00"));
+        entityManager.persistAndFlush(lunch);
+        entityManager.persistAndFlush(taxi);
+        entityManager.persistAndFlush(other);
+
+        List<Expense> expenses = expenseRepository.findFilteredInCategory(
+                user, food, LocalDate.of(2023, 10, 1), null);
+
+        assertEquals(List.of(lunch), expenses);
+    }
+
     @Test
     void testFindFiltered_DateRange() {
         // Create user and category
@@ -149,6 +173,93 @@ class ExpenseRepositoryTest {
         assertEquals(expense2, expensesUser2.get(0));
     }
 
+    @Test
+    void testSumByCategory_GroupsInDatabase() {
+        User user = createAndPersistUser("test@example.com");
+        User otherUser = createAndPersistUser("other@example.com");
+        Category food = createAndPersistCategory("Food", user);
+        Category transport = createAndPersistCategory("Transport", user);
+
+        entityManager.persistAndFlush(createExpense(user, food, LocalDate.of(2023, 10, 1), new BigDecimal("10.00")));
+        entityManager.persistAndFlush(createExpense(user, food, LocalDate.of(2023, 10, 2), new BigDecimal("15.50")));
+        entityManager.persistAndFlush(createExpense(user, transport, LocalDate.of(2023, 10, 3), new BigDecimal("7.00")));
+        entityManager.persistAndFlush(createExpense(user, null, LocalDate.of(2023, 10, 4), new BigDecimal("3.00")));
+        entityManager.persistAndFlush(createExpense(user, food, LocalDate.of(2023, 11, 1), new BigDecimal("99.00"))); // Outside range
+        entityManager.persistAndFlush(createExpense(otherUser, null, LocalDate.of(2023, 10, 1), new BigDecimal("50.00")));
+
+        List<CategoryTotal> totals = expenseRepository.sumByCategory(
+                user, LocalDate.of(2023, 10, 1), LocalDate.of(2023, 10, 31));
+
+        assertEquals(3, totals.size());
+        Map<String, BigDecimal> byName = totals.stream().collect(Collectors.toMap(
+                t -> t.getCategoryName() != null ? t.getCategoryName() : "", CategoryTotal::getTotal));
+        assertEquals(0, new BigDecimal("25.50").compareTo(byName.get("Food")));
+        assertEquals(0, new BigDecimal("7.00").compareTo(byName.get("Transport")));
+        assertEquals(0, new BigDecimal("3.00").compareTo(byName.get("")));
+    }
+
+    @Test
+    void testSumByMonth_SpansYearsInOrder() {
+        User user = createAndPersistUser("test@example.com");
+
+        entityManager.persistAndFlush(createExpense(user, null, LocalDate.of(2022, 12, 5), new BigDecimal("4.00")));
+        entityManager.persistAndFlush(createExpense(user, null, LocalDate.of(2023, 1, 3), new BigDecimal("1.00")));
+        entityManager.persistAndFlush(createExpense(user, null, LocalDate.of(2023, 1, 20), new BigDecimal("2.00")));
+        entityManager.persistAndFlush(createExpense(user, null, LocalDate.of(2024, 1, 1), new BigDecimal("8.00"))); // Outside range
+
+        List<MonthlyTotal> totals = expenseRepository.sumByMonth(
+                user, LocalDate.of(2022, 1, 1), LocalDate.of(2023, 12, 31));
+
+        assertEquals(2, totals.size());
+        assertEquals(2022, totals.get(0).getYear());
+        assertEquals(12, totals.get(0).getMonth());
+        assertEquals(2023, totals.get(1).getYear());
+        assertEquals(1, totals.get(1).getMonth());
+        assertEquals(0, new BigDecimal("3.00").compareTo(totals.get(1).getTotal()));
+    }
+
+    @Test
+    void testKeysetPagination_WalksAllRowsNewestFirst() {
+        User user = createAndPersistUser("test@example.com");
+        Category category = createAndPersistCategory("Food", user);
+
+        // Two expenses share a date so the id tie-breaker is exercised
+        Expense expense1 = entityManager.persistAndFlush(createExpense(user, category, LocalDate.of(2023, 10, 1), new BigDecimal("10.00")));
+        Expense expense2 = entityManager.persistAndFlush(createExpense(user, category, LocalDate.of(2023, 10, 5), new BigDecimal("20.00")));
+        Expense expense3 = entityManager.persistAndFlush(createExpense(user, category, LocalDate.of(2023, 10, 5), new BigDecimal("30.00")));
+        Expense expense4 = entityManager.persistAndFlush(createExpense(user, category, LocalDate.of(2023, 10, 9), new BigDecimal("40.00")));
+
+        List<Expense> first = expenseRepository.findFirstPage(user, null, null, null, PageRequest.of(0, 2));
+        assertEquals(List.of(expense4, expense3), first);
+
+        Expense last = first.get(1);
+        List<Expense> second = expenseRepository.findPageAfter(
+                user, null, null, null, last.getDate(), last.getId(), PageRequest.of(0, 2));
+        assertEquals(List.of(expense2, expense1), second);
+
+        Expense end = second.get(1);
+        List<Expense> third = expenseRepository.findPageAfter(
+                user, null, null, null, end.getDate(), end.getId(), PageRequest.of(0, 2));
+        assertTrue(third.isEmpty());
+    }
+
+    @Test
+    void testFindByUserAndIdIn_OnlyReturnsOwnedExpenses() {
+        User user = createAndPersistUser("test@example.com");
+        User other = createAndPersistUser("other@example.com");
+        Category category = createAndPersistCategory("Food", user);
+
+        Expense mine = entityManager.persistAndFlush(createExpense(user, category, LocalDate.of(2023, 10, 1), new BigDecimal("10.00")));
+        Expense theirs = entityManager.persistAndFlush(createExpense(other, null, LocalDate.of(2023, 10, 2), new BigDecimal("20.00")));
+        entityManager.clear();
+
+        List<Expense> found = expenseRepository.findByUserAndIdIn(user, List.of(mine.getId(), theirs.getId(), -1L));
+
+        assertEquals(1, found.size());
+        assertEquals(mine.getId(), found.get(0).getId());
+        assertEquals("Food", found.get(0).getCategory().getName());
+    }
+
     private User createAndPersistUser(String email) {
         User user = new User();
         user.setEmail(email);
@@ -0,0 +1,109 @@
+package com.example.expensemanager.repository;
+
+import com.example.expensemanager.dto.CategoryTotal;
+import com.example.expensemanager.dto.MonthlyTotal;
+import com.example.expensemanager.model.Category;
+import com.example.expensemanager.model.Money;
+import com.example.expensemanager.model.MonthlyCategoryTotal;
+import com.example.expensemanager.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class MonthlyCategoryTotalRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private MonthlyCategoryTotalRepository rollupRepository;
+
+    @Test
+    void testAddToTotal() {
+        User user = createAndPersistUser("test@example.com");
+        Category food = createAndPersistCategory("Food", user);
+        entityManager.persistAndFlush(createRow(user, 2024, 1, food.getId(), "10.00", 1));
+
+        int updated = rollupRepository.addToTotal(user, 2024, 1, food.getId(), Money.toMinor(new BigDecimal("5.50")), 1);
+        int missing = rollupRepository.addToTotal(user, 2024, 2, food.getId(), Money.toMinor(new BigDecimal("5.50")), 1);
+
+        assertEquals(1, updated);
+        assertEquals(0, missing);
+        entityManager.clear();
+        MonthlyCategoryTotal row = rollupRepository.findByUser(user).get(0);
+        assertEquals(Money.toMinor(new BigDecimal("15.50")), row.getTotalMinor());
+        assertEquals(2, row.getExpenseCount());
+    }
+
+    @Test
+    void testSumByCategory_JoinsCategoryNamesAndSkipsEmptyBuckets() {
+        User user = createAndPersistUser("test@example.com");
+        Category food = createAndPersistCategory("Food", user);
+        Category travel = createAndPersistCategory("Travel", user);
+        entityManager.persist(createRow(user, 2024, 1, food.getId(), "10.00", 1));
+        entityManager.persist(createRow(user, 2024, 2, food.getId(), "20.00", 2));
+        entityManager.persist(createRow(user, 2024, 2, MonthlyCategoryTotal.UNCATEGORIZED, "3.00", 1));
+        entityManager.persist(createRow(user, 2024, 2, travel.getId(), "0.00", 0)); // Emptied by deletes
+        entityManager.persist(createRow(user, 2024, 4, food.getId(), "99.00", 1)); // Outside range
+        entityManager.flush();
+
+        List<CategoryTotal> totals = rollupRepository.sumByCategory(user, 2024 * 12 + 1, 2024 * 12 + 3);
+
+        assertEquals(2, totals.size());
+        CategoryTotal foodTotal = totals.stream().filter(t -> "Food".equals(t.getCategoryName())).findFirst().orElseThrow();
+        assertEquals(0, new BigDecimal("30.00").compareTo(foodTotal.getTotal()));
+        CategoryTotal uncategorized = totals.stream().filter(t -> t.getCategoryId() == null).findFirst().orElseThrow();
+        assertEquals(0, new BigDecimal("3.00").compareTo(uncategorized.getTotal()));
+    }
+
+    @Test
+    void testSumByMonth() {
+        User user = createAndPersistUser("test@example.com");
+        Category food = createAndPersistCategory("Food", user);
+        entityManager.persist(createRow(user, 2023, 12, food.getId(), "5.00", 1));
+        entityManager.persist(createRow(user, 2024, 1, food.getId(), "10.00", 1));
+        entityManager.persist(createRow(user, 2024, 1, MonthlyCategoryTotal.UNCATEGORIZED, "2.00", 1));
+        entityManager.flush();
+
+        List<MonthlyTotal> totals = rollupRepository.sumByMonth(user, 2023, 2024);
+
+        assertEquals(2, totals.size());
+        assertEquals(12, totals.get(0).getMonth());
+        assertEquals(2024, totals.get(1).getYear());
+        assertEquals(0, new BigDecimal("12.00").compareTo(totals.get(1).getTotal()));
+    }
+
+    private MonthlyCategoryTotal createRow(User user, int year, int month, long categoryKey, String total, long count) {
+        MonthlyCategoryTotal row = new MonthlyCategoryTotal();
+        row.setUser(user);
+        row.setYear(year);
+        row.setMonth(month);
+        row.setCategoryKey(categoryKey);
+        row.setTotalMinor(Money.toMinor(new BigDecimal(total)));
+        row.setExpenseCount(count);
+        return row;
+    }
+
+    private User createAndPersistUser(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPasswordHash("password");
+        user.setFullName("Test User");
+        return entityManager.persistAndFlush(user);
+    }
+
+    private Category createAndPersistCategory(String name, User user) {
+        Category category = new Category();
+        category.setName(name);
+        category.setColor("#FF5733");
+        category.setUser(user);
+        return entityManager.persistAndFlush(category);
+    }
+}
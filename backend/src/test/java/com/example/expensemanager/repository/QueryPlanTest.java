@@ -0,0 +1,285 @@
+package com.example.expensemanager.repository;
+
+import com.example.expensemanager.model.Budget;
+import com.example.expensemanager.model.Category;
+import com.example.expensemanager.model.Expense;
+import com.example.expensemanager.model.User;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards the access paths of the repository queries. Each test calls a repository method,
+ * captures the statement Hibernate sent to the database together with the values it bound,
+ * and replays it under EXPLAIN; if a mapping, query or index change makes H2 fall back to a
+ * table scan, the corresponding test fails.
+ */
+@DataJpaTest
+@Import(QueryPlanTest.StatementCapture.class)
+class QueryPlanTest {
+
+    // "/* PUBLIC.SOME_INDEX: USER_ID = ?1 */" in an H2 plan
+    private static final Pattern INDEX_ACCESS = Pattern.compile("/\\* PUBLIC\\.(\\w+):");
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private BudgetRepository budgetRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        // Seed a few users so the optimizer sees a selective user_id predicate
+        for (int u = 0; u < 3; u++) {
+            user = new User();
+            user.setEmail("user" + u + "@example.com");
+            user.setPasswordHash("password");
+            user.setFullName("User " + u);
+            entityManager.persist(user);
+
+            category = new Category();
+            category.setName("Food");
+            category.setUser(user);
+            entityManager.persist(category);
+
+            for (int i = 0; i < 100; i++) {
+                Expense expense = new Expense();
+                expense.setUser(user);
+                expense.setCategory(i % 2 == 0 ? category : null);
+                expense.setAmount(BigDecimal.TEN);
+                expense.setDate(LocalDate.of(2024, 1, 1).plusDays(i));
+                entityManager.persist(expense);
+            }
+
+            for (int month = 1; month <= 12; month++) {
+                Budget budget = new Budget();
+                budget.setUser(user);
+                budget.setYear(2024);
+                budget.setMonth(month);
+                budget.setLimitAmount(new BigDecimal("500"));
+                entityManager.persist(budget);
+            }
+        }
+        entityManager.flush();
+    }
+
+    // The optional filters are rendered as "(? is null or ...)", which H2 cannot turn into
+    // index conditions, so for these only the user_id equality keeps them off a table scan.
+
+    @Test
+    void findFiltered_DateRange_UsesUserIndex() {
+        String plan = explain(() -> expenseRepository.findFiltered(user, null,
+                LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29)));
+        assertUserIndex(plan);
+    }
+
+    @Test
+    void findFilteredInCategory_UsesUserCategoryDateIndex() {
+        String plan = explain(() -> expenseRepository.findFilteredInCategory(user, category,
+                LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29)));
+        assertIndex(plan, "IDX_EXPENSES_USER_CATEGORY_DATE");
+    }
+
+    @Test
+    void findPageAfter_UsesUserDateIndex() {
+        String plan = explain(() -> expenseRepository.findPageAfter(user, null, null, null,
+                LocalDate.of(2024, 3, 1), 50L, PageRequest.of(0, 21)));
+        assertIndex(plan, "IDX_EXPENSES_USER_DATE");
+    }
+
+    @Test
+    void sumByCategory_UsesUserIndex() {
+        String plan = explain(() -> expenseRepository.sumByCategory(user,
+                LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29)));
+        assertUserIndex(plan);
+    }
+
+    @Test
+    void budgetFindByUserAndYearAndMonth_UsesPeriodIndex() {
+        String plan = explain(() -> budgetRepository.findByUserAndYearAndMonth(user, 2024, 3));
+        assertIndex(plan, "IDX_BUDGETS_USER_PERIOD");
+    }
+
+    @Test
+    void budgetCountByUser_UsesUserIndex() {
+        String plan = explain(() -> budgetRepository.countByUser(user));
+        assertUserIndex(plan);
+    }
+
+    @Test
+    void categoryFindByUser_UsesUserIndex() {
+        String plan = explain(() -> categoryRepository.findByUser(user));
+        assertIndex(plan, "IDX_CATEGORIES_USER");
+    }
+
+    @Test
+    void userFindByEmail_UsesUniqueIndex() {
+        String plan = explain(() -> userRepository.findByEmail("user1@example.com"));
+        assertFalse(plan.contains("tableScan"), plan);
+    }
+
+    /**
+     * Runs the query and returns the H2 plan of the last select it executed, explained with
+     * the same parameter values Hibernate bound.
+     */
+    private String explain(Runnable query) {
+        StatementCapture.executed.clear();
+        query.run();
+        Executed select = StatementCapture.executed.stream()
+                .filter(statement -> statement.sql().stripLeading().toLowerCase().startsWith("select"))
+                .reduce((first, second) -> second)
+                .orElseThrow(() -> new AssertionError("Query did not execute a select"));
+
+        return entityManager.getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + select.sql())) {
+                for (Binding binding : select.bindings()) {
+                    binding.applyTo(explain);
+                }
+                try (ResultSet rs = explain.executeQuery()) {
+                    assertTrue(rs.next());
+                    return rs.getString(1);
+                }
+            }
+        });
+    }
+
+    private static void assertIndex(String plan, String indexName) {
+        assertFalse(plan.contains("tableScan"), plan);
+        assertTrue(plan.toUpperCase().contains(indexName), plan);
+    }
+
+    /**
+     * Asserts that the first table is read through an index led by user_id. Which one H2 picks
+     * among those (its own foreign key index or one of ours) depends on its cost estimates.
+     */
+    private void assertUserIndex(String plan) {
+        assertFalse(plan.contains("tableScan"), plan);
+        Matcher access = INDEX_ACCESS.matcher(plan);
+        assertTrue(access.find(), plan);
+        Object leadingColumn = entityManager.getEntityManager()
+                .createNativeQuery("SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.INDEX_COLUMNS " +
+                        "WHERE INDEX_NAME = ?1 AND ORDINAL_POSITION = 1")
+                .setParameter(1, access.group(1))
+                .getSingleResult();
+        assertEquals("USER_ID", leadingColumn, plan);
+    }
+
+    record Executed(String sql, List<Binding> bindings) {
+    }
+
+    /** One parameter setter call, e.g. setLong(1, 42), recorded so it can be replayed. */
+    record Binding(Method setter, Object[] args) {
+
+        void applyTo(PreparedStatement statement) {
+            try {
+                setter.invoke(statement, args);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Could not bind " + setter.getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Wraps the test DataSource so every prepared statement records its SQL and the parameter
+     * values bound to it when it is executed.
+     */
+    @TestConfiguration
+    static class StatementCapture {
+
+        static final List<Executed> executed = new CopyOnWriteArrayList<>();
+
+        @Bean
+        static BeanPostProcessor statementCapturingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? capture(dataSource) : bean;
+                }
+            };
+        }
+
+        private static Object capture(DataSource dataSource) {
+            return proxy(dataSource, (p, method, args) -> {
+                Object result = invoke(dataSource, method, args);
+                return result instanceof Connection connection ? capture(connection) : result;
+            });
+        }
+
+        private static Object capture(Connection connection) {
+            return proxy(connection, (p, method, args) -> {
+                Object result = invoke(connection, method, args);
+                if (method.getName().equals("prepareStatement") && result instanceof PreparedStatement statement) {
+                    return capture(statement, (String) args[0]);
+                }
+                return result;
+            });
+        }
+
+        private static Object capture(PreparedStatement statement, String sql) {
+            List<Binding> bindings = new ArrayList<>();
+            return proxy(statement, (p, method, args) -> {
+                String name = method.getName();
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                    bindings.add(new Binding(method, args.clone()));
+                } else if (name.startsWith("execute")) {
+                    executed.add(new Executed(sql, List.copyOf(bindings)));
+                } else if (name.equals("clearParameters")) {
+                    bindings.clear();
+                }
+                return invoke(statement, method, args);
+            });
+        }
+
+        private static Object proxy(Object target, InvocationHandler handler) {
+            return Proxy.newProxyInstance(QueryPlanTest.class.getClassLoader(),
+                    ClassUtils.getAllInterfaces(target), handler);
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.expensemanager.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditLogTest {
+
+    private static final Instant START = Instant.parse("2024-03-01T10:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReadsBackNewestFirst() throws Exception {
+        try (AuditLog log = new AuditLog(directory, 4096, 4)) {
+            log.append(event(0, AuditEvent.LOGIN_FAILURE, "a@example.com"));
+            log.append(new AuditEvent(START.plusSeconds(1), AuditEvent.LOGIN_SUCCESS, "a@example.com", "10.0.0.1", null));
+
+            List<AuditEvent> events = log.read(null, null, event -> true, 10);
+
+            assertEquals(2, events.size());
+            assertEquals(new AuditEvent(START.plusSeconds(1), AuditEvent.LOGIN_SUCCESS, "a@example.com", "10.0.0.1", null),
+                    events.get(0));
+            assertEquals(AuditEvent.LOGIN_FAILURE, events.get(1).type());
+        }
+    }
+
+    @Test
+    void testFiltersByTimeRangeAndPredicateWithLimit() throws Exception {
+        try (AuditLog log = new AuditLog(directory, 64 * 1024, 4)) {
+            for (int i = 0; i < 100; i++) {
+                log.append(event(i, i % 2 == 0 ? AuditEvent.LOGIN_FAILURE : AuditEvent.LOGIN_SUCCESS, "u" + i));
+            }
+
+            List<AuditEvent> events = log.read(START.plusSeconds(10), START.plusSeconds(20),
+                    event -> event.type().equals(AuditEvent.LOGIN_FAILURE), 3);
+
+            assertEquals(List.of("u18", "u16", "u14"), events.stream().map(AuditEvent::principal).toList());
+        }
+    }
+
+    @Test
+    void testRotatesAndKeepsOnlyNewestSegments() throws Exception {
+        try (AuditLog log = new AuditLog(directory, 1024, 3)) {
+            for (int i = 0; i < 200; i++) {
+                log.append(event(i, AuditEvent.LOGIN_FAILURE, "user" + i + "@example.com"));
+            }
+
+            assertEquals(3, log.segmentCount());
+            assertEquals(3, segmentFiles().size());
+            List<AuditEvent> events = log.read(null, null, event -> true, 1000);
+            assertEquals("user199@example.com", events.get(0).principal());
+            assertTrue(events.size() < 200);
+            // What is kept is contiguous, newest first
+            for (int i = 1; i < events.size(); i++) {
+                assertEquals(events.get(i - 1).timestamp().minusSeconds(1), events.get(i).timestamp());
+            }
+        }
+    }
+
+    @Test
+    void testReopenContinuesAfterLastRecord() throws Exception {
+        try (AuditLog log = new AuditLog(directory, 4096, 4)) {
+            log.append(event(0, AuditEvent.REGISTRATION, "a@example.com"));
+        }
+        try (AuditLog log = new AuditLog(directory, 4096, 4)) {
+            log.append(event(1, AuditEvent.LOGIN_SUCCESS, "a@example.com"));
+
+            List<AuditEvent> events = log.read(null, null, event -> true, 10);
+
+            assertEquals(List.of(AuditEvent.LOGIN_SUCCESS, AuditEvent.REGISTRATION),
+                    events.stream().map(AuditEvent::type).toList());
+        }
+    }
+
+    @Test
+    void testTornRecordIsDiscardedOnReopen() throws Exception {
+        try (AuditLog log = new AuditLog(directory, 4096, 4)) {
+            log.append(event(0, AuditEvent.REGISTRATION, "a@example.com"));
+        }
+        Path segment = segmentFiles().get(0);
+        int end;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            channel.read(length, 0);
+            end = Integer.BYTES + length.flip().getInt();
+            // A length pointing past the data that follows, as if the writer died mid-record
+            channel.write(ByteBuffer.allocate(Integer.BYTES + 3).putInt(500).put(new byte[]{1, 2, 3}).flip(), end);
+        }
+
+        try (AuditLog log = new AuditLog(directory, 4096, 4)) {
+            log.append(event(1, AuditEvent.LOGIN_SUCCESS, "a@example.com"));
+
+            assertEquals(List.of(AuditEvent.LOGIN_SUCCESS, AuditEvent.REGISTRATION),
+                    log.read(null, null, event -> true, 10).stream().map(AuditEvent::type).toList());
+        }
+    }
+
+    @Test
+    void testUncommittedPayloadIsClearedOnReopen() throws Exception {
+        try (AuditLog log = new AuditLog(directory, 4096, 4)) {
+            log.append(event(0, AuditEvent.REGISTRATION, "a@example.com"));
+        }
+        Path segment = segmentFiles().get(0);
+        int end;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            channel.read(length, 0);
+            end = Integer.BYTES + length.flip().getInt();
+            // The writer died before committing the length: zero length, payload already written
+            byte[] payload = new byte[200];
+            Arrays.fill(payload, (byte) 0x7F);
+            channel.write(ByteBuffer.allocate(Integer.BYTES + payload.length).putInt(0).put(payload).flip(), end);
+        }
+
+        new AuditLog(directory, 4096, 4).close();
+
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer tail = ByteBuffer.allocate((int) channel.size() - end);
+            channel.read(tail, end);
+            for (byte b : tail.array()) {
+                assertEquals(0, b);
+            }
+        }
+    }
+
+    @Test
+    void testRejectsEventLargerThanSegment() throws Exception {
+        try (AuditLog log = new AuditLog(directory, 1024, 2)) {
+            AuditEvent huge = new AuditEvent(START, AuditEvent.LOGIN_FAILURE, "a@example.com", null, "x".repeat(2000));
+
+            assertThrows(IllegalArgumentException.class, () -> log.append(huge));
+            log.append(event(0, AuditEvent.LOGIN_FAILURE, "a@example.com"));
+            assertEquals(1, log.read(null, null, event -> true, 10).size());
+        }
+    }
+
+    @Test
+    void testSecondWriterOnSameDirectoryIsRejected() throws Exception {
+        try (AuditLog ignored = new AuditLog(directory, 4096, 2)) {
+            assertThrows(IllegalStateException.class, () -> new AuditLog(directory, 4096, 2));
+        }
+        // Released on close
+        new AuditLog(directory, 4096, 2).close();
+    }
+
+    private static AuditEvent event(int second, String type, String principal) {
+        return new AuditEvent(START.plusSeconds(second), type, principal, "127.0.0.1", null);
+    }
+
+    private List<Path> segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".seg")).sorted().toList();
+        }
+    }
+}
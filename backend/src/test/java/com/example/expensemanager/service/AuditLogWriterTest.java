@@ -0,0 +1,125 @@
+package com.example.expensemanager.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class AuditLogWriterTest {
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private AuditLogWriter writer;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (writer != null) {
+            writer.stop();
+        }
+    }
+
+    @Test
+    void testPublishedEventsAreWrittenInTheBackground() throws Exception {
+        writer = new AuditLogWriter(new AuditLog(directory, 64 * 1024, 2), meterRegistry, 1024, 64, Duration.ofMillis(1));
+        writer.start();
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(writer.publish(event(i)));
+        }
+
+        List<AuditEvent> events = awaitEvents(100);
+        assertEquals("user99@example.com", events.get(0).principal());
+        writer.stop();
+        writer = null;
+        assertEquals(100, meterRegistry.get("audit.events.written").counter().count());
+    }
+
+    @Test
+    void testFullQueueDropsNewEventsAndCountsThem() throws Exception {
+        // Not started, so nothing drains the queue
+        writer = new AuditLogWriter(new AuditLog(directory, 64 * 1024, 2), meterRegistry, 4, 64, Duration.ofMillis(1));
+        for (int i = 0; i < 4; i++) {
+            assertTrue(writer.publish(event(i)));
+        }
+
+        assertFalse(writer.publish(event(4)));
+        assertFalse(writer.publish(event(5)));
+        assertEquals(2, meterRegistry.get("audit.events.dropped").tag("reason", "overflow").counter().count());
+        assertEquals(4, meterRegistry.get("audit.queue.size").gauge().value());
+    }
+
+    @Test
+    void testStopWritesQueuedEvents() throws Exception {
+        AuditLog log = new AuditLog(directory, 64 * 1024, 2);
+        writer = new AuditLogWriter(log, meterRegistry, 1024, 8, Duration.ofSeconds(10));
+        for (int i = 0; i < 50; i++) {
+            writer.publish(event(i));
+        }
+        writer.start();
+
+        writer.stop();
+        writer = null;
+
+        try (AuditLog reopened = new AuditLog(directory, 64 * 1024, 2)) {
+            assertEquals(50, reopened.read(null, null, event -> true, 100).size());
+        }
+    }
+
+    @Test
+    void testEventTooLargeForSegmentIsCountedAsFailed() throws Exception {
+        writer = new AuditLogWriter(new AuditLog(directory, 1024, 2), meterRegistry, 16, 8, Duration.ofMillis(1));
+        writer.start();
+
+        writer.publish(new AuditEvent(Instant.now(), AuditEvent.LOGIN_FAILURE, "a@example.com", null, "x".repeat(2000)));
+        writer.publish(event(1));
+
+        awaitEvents(1);
+        writer.stop();
+        writer = null;
+        assertEquals(1, meterRegistry.get("audit.events.dropped").tag("reason", "error").counter().count());
+    }
+
+    @Test
+    void testWriterSurvivesAnErrorFromTheLog() throws Exception {
+        AuditLog log = spy(new AuditLog(directory, 64 * 1024, 2));
+        doThrow(new InternalError("a fault occurred in an unsafe memory access"))
+                .doCallRealMethod()
+                .when(log).append(any());
+        writer = new AuditLogWriter(log, meterRegistry, 16, 1, Duration.ofMillis(1));
+        writer.start();
+
+        writer.publish(event(0));
+        writer.publish(event(1));
+
+        assertEquals("user1@example.com", awaitEvents(1).get(0).principal());
+        writer.stop();
+        writer = null;
+        assertEquals(1, meterRegistry.get("audit.events.dropped").tag("reason", "error").counter().count());
+    }
+
+    private List<AuditEvent> awaitEvents(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        List<AuditEvent> events = writer.query(null, null, event -> true, expected + 1);
+        while (events.size() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            events = writer.query(null, null, event -> true, expected + 1);
+        }
+        assertEquals(expected, events.size());
+        return events;
+    }
+
+    private static AuditEvent event(int i) {
+        return new AuditEvent(Instant.parse("2024-03-01T10:00:00Z").plusSeconds(i), AuditEvent.LOGIN_FAILURE,
+                "user" + i + "@example.com", "127.0.0.1", null);
+    }
+}
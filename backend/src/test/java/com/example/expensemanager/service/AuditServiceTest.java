@@ -1,30 +1,42 @@
 package com.example.expensemanager.service;
 
-import com.example.expensemanager.model.User;
-import com.example.expensemanager.repository.UserRepository;
+import com.example.expensemanager.config.UserDetailsCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.Optional;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class AuditServiceTest {
 
     @Mock
-    private UserRepository userRepository;
+    private AuditLogWriter auditLogWriter;
+
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
+    private final AtomicLong nanos = new AtomicLong();
 
     private AuditService auditService;
 
     @BeforeEach
     void setUp() {
-        auditService = new AuditService(userRepository);
+        auditService = new AuditService(auditLogWriter, userDetailsCache, 5,
+                Duration.ofMinutes(15), Duration.ofMinutes(10), 1_000, nanos::get);
     }
 
     @Test
@@ -70,6 +82,90 @@ class AuditServiceTest {
         var attempt = auditService.getFailedAttempts("test@example.com");
         assertNotNull(attempt);
         assertEquals(5, attempt.count());
+        verify(userDetailsCache).invalidate("test@example.com");
+        assertTrue(publishedEvents().stream().anyMatch(event -> event.type().equals(AuditEvent.ACCOUNT_LOCKED)));
+    }
+
+    @Test
+    void testLogLoginAttempt_PublishesEvent() {
+        auditService.logLoginAttempt("test@example.com", false, "10.0.0.1");
+
+        AuditEvent event = publishedEvents().get(0);
+        assertEquals(AuditEvent.LOGIN_FAILURE, event.type());
+        assertEquals("test@example.com", event.principal());
+        assertEquals("10.0.0.1", event.ipAddress());
+        assertEquals("attempt 1", event.details());
+        assertNotNull(event.timestamp());
+        verifyNoInteractions(userDetailsCache);
+    }
+
+    @Test
+    void testFindEvents_FiltersByTypeAndPrincipal() {
+        AuditEvent matching = new AuditEvent(Instant.now(), AuditEvent.LOGIN_FAILURE, "a@example.com", null, null);
+        AuditEvent otherType = new AuditEvent(Instant.now(), AuditEvent.LOGIN_SUCCESS, "a@example.com", null, null);
+        AuditEvent otherUser = new AuditEvent(Instant.now(), AuditEvent.LOGIN_FAILURE, "b@example.com", null, null);
+        when(auditLogWriter.query(isNull(), isNull(), any(), eq(10))).thenAnswer(invocation -> {
+            Predicate<AuditEvent> filter = invocation.getArgument(2);
+            return List.of(matching, otherType, otherUser).stream().filter(filter).toList();
+        });
+
+        assertEquals(List.of(matching), auditService.findEvents(null, null, AuditEvent.LOGIN_FAILURE, "a@example.com", 10));
+    }
+
+    @Test
+    void testLockout_LocksAfterMaxFailuresAndExpires() {
+        for (int i = 0; i < 4; i++) {
+            auditService.logLoginAttempt("test@example.com", false, "127.0.0.1");
+        }
+        assertFalse(auditService.isLocked("test@example.com"));
+
+        auditService.logLoginAttempt("test@example.com", false, "127.0.0.1");
+
+        assertTrue(auditService.isLocked("test@example.com"));
+        assertTrue(auditService.isLocked("Test@Example.com"));
+        assertFalse(auditService.isLocked("other@example.com"));
+
+        nanos.addAndGet(Duration.ofMinutes(11).toNanos());
+        assertFalse(auditService.isLocked("test@example.com"));
+    }
+
+    @Test
+    void testFailedAttempts_ForgottenAfterQuietWindow() {
+        auditService.logLoginAttempt("test@example.com", false, "127.0.0.1");
+        nanos.addAndGet(Duration.ofMinutes(10).toNanos());
+        auditService.logLoginAttempt("test@example.com", false, "127.0.0.1");
+        assertEquals(2, auditService.getFailedAttempts("test@example.com").count());
+
+        nanos.addAndGet(Duration.ofMinutes(16).toNanos());
+
+        assertNull(auditService.getFailedAttempts("test@example.com"));
+    }
+
+    @Test
+    void testResetFailedAttempts_LiftsLockout() {
+        for (int i = 0; i < 5; i++) {
+            auditService.logLoginAttempt("test@example.com", false, "127.0.0.1");
+        }
+
+        auditService.resetFailedAttempts("test@example.com");
+
+        assertFalse(auditService.isLocked("test@example.com"));
+    }
+
+    @Test
+    void testFailedAttempts_MemoryIsBounded() {
+        // A credential-stuffing run over many distinct emails
+        for (int i = 0; i < 20_000; i++) {
+            auditService.logLoginAttempt("user" + i + "@example.com", false, "10.0.0.1");
+        }
+
+        assertTrue(auditService.trackedEmails() <= 1_000);
+    }
+
+    private List<AuditEvent> publishedEvents() {
+        ArgumentCaptor<AuditEvent> captor = ArgumentCaptor.forClass(AuditEvent.class);
+        verify(auditLogWriter, atLeastOnce()).publish(captor.capture());
+        return captor.getAllValues();
     }
 
     @Test
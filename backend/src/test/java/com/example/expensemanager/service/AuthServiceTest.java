@@ -4,6 +4,7 @@ import com.example.expensemanager.config.JwtUtils;
 import com.example.expensemanager.controller.BusinessException;
 import com.example.expensemanager.dto.AuthRequest;
 import com.example.expensemanager.dto.AuthResponse;
+import com.example.expensemanager.dto.RebaseStatus;
 import com.example.expensemanager.dto.RegisterRequest;
 import com.example.expensemanager.model.User;
 import com.example.expensemanager.repository.CategoryRepository;
@@ -21,6 +22,8 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -51,6 +54,9 @@ class AuthServiceTest {
     @Mock
     private AuditService auditService;
 
+    @Mock
+    private BaseCurrencyRebaseService rebaseService;
+
     @InjectMocks
     private AuthService authService;
 
@@ -101,7 +107,7 @@ class AuthServiceTest {
         verify(userRepository).findByEmail("test@example.com");
         verify(passwordEncoder).encode("password123");
         verify(userRepository).save(any(User.class));
-        verify(categoryRepository, times(12)).save(any()); // 12 default categories
+        verify(categoryRepository).saveAll(argThat(categories -> categories instanceof List<?> list && list.size() == 12)); // 12 default categories
         verify(jwtUtils).generateToken(userDetails);
         verify(auditService).logRegistration("test@example.com", TEST_IP);
     }
@@ -148,6 +154,21 @@ class AuthServiceTest {
         verify(auditService).logLoginAttempt("test@example.com", true, TEST_IP);
     }
 
+    @Test
+    void testLogin_AccountLocked() {
+        when(auditService.isLocked("test@example.com")).thenReturn(true);
+
+        BusinessException exception = assertThrows(BusinessException.class, () -> {
+            authService.login(authRequest, TEST_IP);
+        });
+
+        assertEquals("ACCOUNT_LOCKED", exception.getErrorCode());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, exception.getHttpStatus());
+        // Rejected before the user lookup and the password check
+        verifyNoInteractions(userRepository, authenticationManager);
+        verify(auditService, never()).logLoginAttempt(anyString(), anyBoolean(), anyString());
+    }
+
     @Test
     void testLogin_UserNotFound() {
         lenient().when(userRepository.findByEmail(anyString())).thenReturn(Optional.empty());
@@ -183,15 +204,12 @@ class AuthServiceTest {
     }
 
     @Test
-    void testUpdateBaseCurrency() {
+    void testUpdateBaseCurrency_DelegatesToRebaseService() {
         User user = new User();
-        user.setEmail("test@example.com");
+        RebaseStatus started = new RebaseStatus(RebaseStatus.State.RUNNING, "USD", "EUR", 0, 0, 0,
+                List.of(), List.of(), Instant.now(), null, null);
+        when(rebaseService.changeBaseCurrency(user, "EUR")).thenReturn(started);
 
-        // Act
-        authService.updateBaseCurrency(user, "EUR");
-
-        // Assert
-        assertEquals("EUR", user.getBaseCurrency());
-        verify(userRepository).save(user);
+        assertSame(started, authService.updateBaseCurrency(user, "EUR"));
     }
 }
@@ -0,0 +1,317 @@
+package com.example.expensemanager.service;
+
+import com.example.expensemanager.config.UserDetailsCache;
+import com.example.expensemanager.controller.BusinessException;
+import com.example.expensemanager.dto.RebaseStatus;
+import com.example.expensemanager.model.Budget;
+import com.example.expensemanager.model.Expense;
+import com.example.expensemanager.model.User;
+import com.example.expensemanager.repository.BudgetRepository;
+import com.example.expensemanager.repository.ExpenseRepository;
+import com.example.expensemanager.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BaseCurrencyRebaseServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private BudgetRepository budgetRepository;
+
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
+    @Mock
+    private CurrencyService currencyService;
+
+    @Mock
+    private ExpenseRollupService rollupService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Runnable> queued = new ArrayList<>();
+    private final AtomicLong nanos = new AtomicLong();
+    private User user;
+    private RateSnapshot rates;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setEmail("test@example.com");
+        user.setBaseCurrency("USD");
+        setId(User.class, user, 1L);
+
+        rates = new RateSnapshot(Map.of("USD", BigDecimal.ONE, "EUR", new BigDecimal("0.5")), Instant.now(), "test");
+        lenient().when(entityManager.getReference(User.class, 1L)).thenReturn(user);
+        lenient().when(currencyService.snapshot()).thenReturn(rates);
+    }
+
+    private BaseCurrencyRebaseService service(int chunkSize, TaskExecutor executor) {
+        return new BaseCurrencyRebaseService(userRepository, expenseRepository, budgetRepository, userDetailsCache,
+                currencyService, rollupService, entityManager, transactionManager, executor, chunkSize,
+                Duration.ofHours(1), nanos::get);
+    }
+
+    @Test
+    void testRebase_ConvertsFromOriginalAmountsInKeysetChunks() {
+        Expense eur = expense(10L, "EUR", "30.00", "60.00");
+        Expense gbp = expense(11L, "GBP", "10.00", "12.00");
+        Expense legacy = expense(12L, null, null, "8.00");
+        when(expenseRepository.countByUser(user)).thenReturn(3L);
+        when(expenseRepository.findChunkAfter(eq(user), eq(0L), any(Pageable.class))).thenReturn(List.of(eur, gbp));
+        when(expenseRepository.findChunkAfter(eq(user), eq(11L), any(Pageable.class))).thenReturn(List.of(legacy));
+        when(expenseRepository.findChunkAfter(eq(user), eq(12L), any(Pageable.class))).thenReturn(List.of());
+        when(currencyService.rateOn(any(), eq("EUR"), eq("EUR"), same(rates))).thenReturn(BigDecimal.ONE);
+        when(currencyService.rateOn(any(), eq("GBP"), eq("EUR"), same(rates))).thenReturn(new BigDecimal("1.2"));
+        when(currencyService.rateOn(any(), eq("USD"), eq("EUR"), same(rates))).thenReturn(new BigDecimal("0.5"));
+        Budget budget = new Budget();
+        budget.setLimitAmount(new BigDecimal("100.00"));
+        // Saved while the job was running, so already in the new currency
+        Budget createdDuringJob = new Budget();
+        createdDuringJob.setLimitAmount(new BigDecimal("40.00"));
+        createdDuringJob.setCurrency("EUR");
+        when(budgetRepository.findByUser(user)).thenReturn(List.of(budget, createdDuringJob));
+
+        BaseCurrencyRebaseService service = service(2, Runnable::run);
+        service.changeBaseCurrency(user, "EUR");
+
+        assertEquals(RebaseStatus.State.COMPLETED, service.status(user).getState());
+        assertEquals(1, service.status(user).getBudgets());
+        assertEquals(new BigDecimal("30.00"), eur.getAmount());
+        assertEquals(new BigDecimal("12.00"), gbp.getAmount());
+        assertEquals(new BigDecimal("1.2"), gbp.getExchangeRate());
+        // No original amount recorded: the stored amount is in the old base currency
+        assertEquals(new BigDecimal("4.00"), legacy.getAmount());
+        assertEquals("USD", legacy.getOriginalCurrency());
+        assertEquals(new BigDecimal("8.00"), legacy.getOriginalAmount());
+        assertEquals(new BigDecimal("50.00"), budget.getLimitAmount());
+        assertEquals("EUR", budget.getCurrency());
+        assertEquals(new BigDecimal("40.00"), createdDuringJob.getLimitAmount());
+
+        InOrder inOrder = inOrder(entityManager, rollupService);
+        inOrder.verify(entityManager, times(3)).flush();
+        inOrder.verify(rollupService).rebuild(user);
+    }
+
+    @Test
+    void testRebase_ReportsProgressAndCompletion() {
+        when(expenseRepository.countByUser(user)).thenReturn(1L);
+        when(expenseRepository.findChunkAfter(eq(user), eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(expense(5L, "USD", "10.00", "10.00")));
+        when(expenseRepository.findChunkAfter(eq(user), eq(5L), any(Pageable.class))).thenReturn(List.of());
+        when(currencyService.rateOn(any(), anyString(), anyString(), same(rates))).thenReturn(new BigDecimal("0.5"));
+        BaseCurrencyRebaseService service = service(100, queued::add);
+
+        RebaseStatus started = service.changeBaseCurrency(user, "EUR");
+        assertEquals(RebaseStatus.State.RUNNING, started.getState());
+        assertTrue(service.isRunning(user));
+        // Saved before the job runs, with the currency the amounts are still in
+        assertEquals("EUR", user.getBaseCurrency());
+        assertEquals("USD", user.getRebaseFromCurrency());
+        verify(userRepository).save(user);
+        verify(userDetailsCache).invalidate("test@example.com");
+
+        queued.forEach(Runnable::run);
+        RebaseStatus done = service.status(user);
+
+        assertEquals(RebaseStatus.State.COMPLETED, done.getState());
+        assertEquals(1, done.getTotalExpenses());
+        assertEquals(1, done.getProcessedExpenses());
+        assertNotNull(done.getFinishedAt());
+        assertFalse(service.isRunning(user));
+        assertNull(user.getRebaseFromCurrency());
+    }
+
+    @Test
+    void testRebase_FinishedStatusExpires() {
+        when(expenseRepository.countByUser(user)).thenReturn(0L);
+        when(expenseRepository.findChunkAfter(eq(user), eq(0L), any(Pageable.class))).thenReturn(List.of());
+        BaseCurrencyRebaseService service = service(100, Runnable::run);
+        service.changeBaseCurrency(user, "EUR");
+
+        nanos.addAndGet(Duration.ofMinutes(59).toNanos());
+        assertEquals(RebaseStatus.State.COMPLETED, service.status(user).getState());
+
+        nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+        assertNull(service.status(user));
+    }
+
+    @Test
+    void testChangeBaseCurrency_NothingToConvert() {
+        user.setBaseCurrency(null);
+        BaseCurrencyRebaseService service = service(100, queued::add);
+
+        assertNull(service.changeBaseCurrency(user, "EUR"));
+
+        assertEquals("EUR", user.getBaseCurrency());
+        assertNull(user.getRebaseFromCurrency());
+        verify(userRepository).save(user);
+        verify(userDetailsCache).invalidate("test@example.com");
+        assertTrue(queued.isEmpty());
+        assertNull(service.changeBaseCurrency(user, "eur"));
+    }
+
+    @Test
+    void testRebase_SecondStartWhileRunningIsRejected() {
+        BaseCurrencyRebaseService service = service(100, queued::add);
+        service.changeBaseCurrency(user, "EUR");
+
+        BusinessException e = assertThrows(BusinessException.class, () -> service.changeBaseCurrency(user, "GBP"));
+
+        assertEquals("REBASE_IN_PROGRESS", e.getErrorCode());
+        assertEquals(1, queued.size());
+        assertEquals("EUR", user.getBaseCurrency());
+        verify(userRepository, times(1)).save(user);
+    }
+
+    @Test
+    void testCheckNotRunning_RejectsExpenseWritesUntilTheJobEnds() {
+        when(expenseRepository.countByUser(user)).thenReturn(0L);
+        when(expenseRepository.findChunkAfter(eq(user), eq(0L), any(Pageable.class))).thenReturn(List.of());
+        BaseCurrencyRebaseService service = service(100, queued::add);
+        service.changeBaseCurrency(user, "EUR");
+
+        BusinessException e = assertThrows(BusinessException.class, () -> service.checkNotRunning(user));
+        assertEquals("REBASE_IN_PROGRESS", e.getErrorCode());
+
+        queued.forEach(Runnable::run);
+        assertDoesNotThrow(() -> service.checkNotRunning(user));
+    }
+
+    @Test
+    void testRebase_AmountsTooLargeAreSkippedAndReported() {
+        user.setBaseCurrency("EUR");
+        Expense huge = expense(10L, "EUR", "600000000000000", "600000000000000");
+        Expense small = expense(11L, "EUR", "5.00", "5.00");
+        when(expenseRepository.countByUser(user)).thenReturn(2L);
+        when(expenseRepository.findChunkAfter(eq(user), eq(0L), any(Pageable.class))).thenReturn(List.of(huge, small));
+        when(expenseRepository.findChunkAfter(eq(user), eq(11L), any(Pageable.class))).thenReturn(List.of());
+        when(currencyService.rateOn(any(), eq("EUR"), eq("USD"), same(rates))).thenReturn(new BigDecimal("2"));
+        Budget hugeBudget = new Budget();
+        setId(Budget.class, hugeBudget, 20L);
+        hugeBudget.setLimitAmount(new BigDecimal("600000000000000"));
+        hugeBudget.setCurrency("EUR");
+        when(budgetRepository.findByUser(user)).thenReturn(List.of(hugeBudget));
+
+        BaseCurrencyRebaseService service = service(100, Runnable::run);
+        service.changeBaseCurrency(user, "USD");
+        RebaseStatus status = service.status(user);
+
+        assertEquals(RebaseStatus.State.COMPLETED, status.getState());
+        assertEquals(2, status.getProcessedExpenses());
+        assertEquals(List.of(10L), status.getSkippedExpenseIds());
+        assertEquals(List.of(20L), status.getSkippedBudgetIds());
+        assertEquals(new BigDecimal("600000000000000.00"), huge.getAmount());
+        assertEquals(new BigDecimal("10.00"), small.getAmount());
+        assertEquals("EUR", hugeBudget.getCurrency());
+        assertNull(user.getRebaseFromCurrency());
+    }
+
+    @Test
+    void testRebase_FailureIsReported() {
+        when(expenseRepository.countByUser(user)).thenThrow(new IllegalStateException("database unavailable"));
+        BaseCurrencyRebaseService service = service(100, Runnable::run);
+
+        service.changeBaseCurrency(user, "EUR");
+        RebaseStatus status = service.status(user);
+
+        assertEquals(RebaseStatus.State.FAILED, status.getState());
+        assertEquals("database unavailable", status.getError());
+        verifyNoInteractions(rollupService);
+        assertEquals("USD", user.getRebaseFromCurrency());
+    }
+
+    @Test
+    void testRebase_FailedRunIsResumedBySameCurrency() {
+        when(expenseRepository.countByUser(user)).thenThrow(new IllegalStateException("database unavailable"));
+        BaseCurrencyRebaseService service = service(100, queued::add);
+        service.changeBaseCurrency(user, "EUR");
+        queued.remove(0).run();
+
+        RebaseStatus retried = service.changeBaseCurrency(user, "EUR");
+
+        assertEquals(RebaseStatus.State.RUNNING, retried.getState());
+        assertEquals("USD", retried.getFromCurrency());
+        assertEquals("EUR", retried.getToCurrency());
+        assertEquals(1, queued.size());
+    }
+
+    @Test
+    void testRebase_RejectedWhenExecutorIsFull() {
+        List<Runnable> accepted = new ArrayList<>();
+        boolean[] full = {true};
+        BaseCurrencyRebaseService service = service(100, task -> {
+            if (full[0]) {
+                throw new TaskRejectedException("full");
+            }
+            accepted.add(task);
+        });
+
+        BusinessException e = assertThrows(BusinessException.class, () -> service.changeBaseCurrency(user, "EUR"));
+
+        assertEquals("REBASE_REJECTED", e.getErrorCode());
+        assertFalse(service.isRunning(user));
+        assertEquals("USD", user.getRebaseFromCurrency());
+
+        // Asking again for the same currency resumes the conversion instead of returning null
+        full[0] = false;
+        RebaseStatus retried = service.changeBaseCurrency(user, "EUR");
+
+        assertNotNull(retried);
+        assertEquals("USD", retried.getFromCurrency());
+        assertEquals(1, accepted.size());
+    }
+
+    private Expense expense(Long id, String currency, String originalAmount, String amount) {
+        Expense expense = new Expense();
+        setId(Expense.class, expense, id);
+        expense.setUser(user);
+        expense.setDate(LocalDate.of(2024, 3, 1));
+        expense.setOriginalCurrency(currency);
+        expense.setOriginalAmount(originalAmount != null ? new BigDecimal(originalAmount) : null);
+        expense.setAmount(new BigDecimal(amount));
+        return expense;
+    }
+
+    private <T> void setId(Class<T> type, T entity, Long id) {
+        try {
+            var field = type.getDeclaredField("id");
+            field.setAccessible(true);
+            field.set(entity, id);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.expensemanager.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedMpscQueueTest {
+
+    @Test
+    void testCapacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(4, new BoundedMpscQueue<>(3).capacity());
+        assertEquals(1024, new BoundedMpscQueue<>(1000).capacity());
+        assertEquals(1024, new BoundedMpscQueue<>(1024).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new BoundedMpscQueue<>(1));
+    }
+
+    @Test
+    void testOfferFailsWhenFullAndSucceedsAfterPoll() {
+        BoundedMpscQueue<Integer> queue = new BoundedMpscQueue<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(i));
+        }
+
+        assertFalse(queue.offer(4));
+        assertEquals(4, queue.size());
+        assertEquals(0, queue.poll());
+        assertTrue(queue.offer(4));
+    }
+
+    @Test
+    void testDrainReturnsOldestFirstUpToLimit() {
+        BoundedMpscQueue<Integer> queue = new BoundedMpscQueue<>(8);
+        for (int i = 0; i < 5; i++) {
+            queue.offer(i);
+        }
+        List<Integer> drained = new ArrayList<>();
+
+        assertEquals(3, queue.drain(drained::add, 3));
+        assertEquals(List.of(0, 1, 2), drained);
+        assertEquals(2, queue.drain(drained::add, 10));
+        assertNull(queue.poll());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    @Timeout(value = 30, threadMode = Timeout.ThreadMode.SEPARATE_THREAD)
+    void testConcurrentProducersLoseNothingAndKeepTheirOrder() throws Exception {
+        BoundedMpscQueue<Integer> queue = new BoundedMpscQueue<>(256);
+        int producers = 4;
+        int perProducer = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        int[] last = new int[producers];
+        Arrays.fill(last, -1);
+        try {
+            for (int p = 0; p < producers; p++) {
+                int first = p * perProducer;
+                executor.submit(() -> {
+                    for (int i = 0; i < perProducer; i++) {
+                        while (!queue.offer(first + i)) {
+                            if (Thread.currentThread().isInterrupted()) {
+                                return;
+                            }
+                            Thread.onSpinWait();
+                        }
+                    }
+                });
+            }
+
+            long received = 0;
+            while (received < (long) producers * perProducer) {
+                Integer value = queue.poll();
+                if (value == null) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                int producer = value / perProducer;
+                assertTrue(value > last[producer], "Out of order for producer " + producer);
+                last[producer] = value;
+                received++;
+            }
+        } finally {
+            // Stops producers still spinning on a full queue if the consumer gave up
+            executor.shutdownNow();
+        }
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        for (int p = 0; p < producers; p++) {
+            assertEquals((p + 1) * perProducer - 1, last[p]);
+        }
+        assertNull(queue.poll());
+    }
+}
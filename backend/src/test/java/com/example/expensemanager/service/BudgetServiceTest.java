@@ -1,10 +1,13 @@
 package com.example.expensemanager.service;
 
+import com.example.expensemanager.config.UserDetailsCache;
+import com.example.expensemanager.controller.BusinessException;
 import com.example.expensemanager.dto.BudgetRequest;
 import com.example.expensemanager.dto.BudgetStatusResponse;
+import com.example.expensemanager.dto.CategoryTotal;
 import com.example.expensemanager.model.Budget;
 import com.example.expensemanager.model.Category;
-import com.example.expensemanager.model.Expense;
+import com.example.expensemanager.model.Money;
 import com.example.expensemanager.model.User;
 import com.example.expensemanager.repository.BudgetRepository;
 import com.example.expensemanager.repository.CategoryRepository;
@@ -15,6 +18,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -34,6 +38,9 @@ class BudgetServiceTest {
     @Mock
     private ExpenseService expenseService;
 
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
     private BudgetService budgetService;
 
     private User user;
@@ -41,7 +48,7 @@ class BudgetServiceTest {
 
     @BeforeEach
     void setUp() {
-        budgetService = new BudgetService(budgetRepository, categoryRepository, expenseService);
+        budgetService = new BudgetService(budgetRepository, categoryRepository, expenseService, userDetailsCache);
         
         user = new User();
         user.setEmail("test@example.com");
@@ -86,10 +93,11 @@ class BudgetServiceTest {
 
         Budget result = budgetService.createBudget(user, request);
 
+        verifyNoInteractions(userDetailsCache);
         assertNotNull(result);
         assertEquals(2026, result.getYear());
         assertEquals(1, result.getMonth());
-        assertEquals(new BigDecimal("1000"), result.getLimitAmount());
+        assertEquals(new BigDecimal("1000.00"), result.getLimitAmount());
         verify(budgetRepository).save(any(Budget.class));
     }
 
@@ -112,6 +120,20 @@ class BudgetServiceTest {
         verify(budgetRepository).save(any(Budget.class));
     }
 
+    @Test
+    void testCreateBudget_RejectsLimitTooLarge() {
+        BudgetRequest request = new BudgetRequest();
+        request.setYear(2026);
+        request.setMonth(2);
+        request.setLimitAmount(new BigDecimal("1000000000000000"));
+
+        BusinessException exception = assertThrows(BusinessException.class, () ->
+                budgetService.createBudget(user, request));
+
+        assertEquals("AMOUNT_TOO_LARGE", exception.getErrorCode());
+        verifyNoInteractions(budgetRepository);
+    }
+
     @Test
     void testCreateBudget_SetBaseCurrency() {
         user.setBaseCurrency(null);
@@ -129,6 +151,7 @@ class BudgetServiceTest {
 
         assertNotNull(result);
         assertEquals("EUR", user.getBaseCurrency());
+        verify(userDetailsCache).invalidate("test@example.com");
     }
 
     @Test
@@ -197,18 +220,28 @@ class BudgetServiceTest {
 
     @Test
     void testGetBudgetsWithStatus() {
-        Budget budget = createBudget(1L, user, category, 2026, 1, new BigDecimal("1000"));
+        setCategoryId(category, 7L);
+        Budget categoryBudget = createBudget(1L, user, category, 2026, 1, new BigDecimal("1000"));
+        Budget overallBudget = createBudget(2L, user, null, 2026, 1, new BigDecimal("2000"));
 
-        Expense expense = new Expense();
-        expense.setAmount(new BigDecimal("200"));
-
-        when(budgetRepository.findByUserAndYearAndMonth(user, 2026, 1)).thenReturn(List.of(budget));
-        when(expenseService.getExpenses(eq(user), any(), any(), any())).thenReturn(List.of(expense));
+        when(budgetRepository.findByUserAndYearAndMonth(user, 2026, 1)).thenReturn(List.of(categoryBudget, overallBudget));
+        when(expenseService.categoryTotals(user, LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31)))
+                .thenReturn(List.of(
+                        new CategoryTotal(7L, "Food", Money.toMinor(new BigDecimal("200"))),
+                        new CategoryTotal(8L, "Transport", Money.toMinor(new BigDecimal("50"))),
+                        new CategoryTotal(null, null, Money.toMinor(new BigDecimal("25")))));
 
         List<BudgetStatusResponse> result = budgetService.getBudgetsWithStatus(user, 2026, 1);
 
         assertNotNull(result);
-        assertEquals(1, result.size());
+        assertEquals(2, result.size());
+        assertEquals(new BigDecimal("200.00"), result.get(0).getSpent());
+        assertEquals(20, result.get(0).getPercentUsed());
+        assertEquals("All expenses", result.get(1).getCategoryName());
+        assertEquals(new BigDecimal("275.00"), result.get(1).getSpent());
+        // A single aggregate query serves every budget in the month
+        verify(expenseService, times(1)).categoryTotals(any(), any(), any());
+        verify(expenseService, never()).getExpenses(any(), any(), any(), any());
     }
 
     @Test
@@ -216,12 +249,33 @@ class BudgetServiceTest {
         Budget budget = createBudget(1L, user, category, 2026, 1, new BigDecimal("1000"));
 
         when(budgetRepository.findByUserAndYearAndMonth(user, 2026, 1)).thenReturn(List.of(budget));
-        when(expenseService.getExpenses(eq(user), any(), any(), any())).thenReturn(List.of());
+        when(expenseService.categoryTotals(eq(user), any(), any())).thenReturn(List.of());
 
         List<BudgetStatusResponse> result = budgetService.getBudgetsWithStatus(user, 2026, 1);
 
         assertNotNull(result);
         assertEquals(1, result.size());
+        assertEquals(new BigDecimal("0.00"), result.get(0).getSpent());
+    }
+
+    @Test
+    void testGetBudgetsWithStatus_NoBudgetsSkipsAggregation() {
+        when(budgetRepository.findByUserAndYearAndMonth(user, 2026, 1)).thenReturn(List.of());
+
+        List<BudgetStatusResponse> result = budgetService.getBudgetsWithStatus(user, 2026, 1);
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(expenseService);
+    }
+
+    private void setCategoryId(Category category, Long id) {
+        try {
+            var idField = Category.class.getDeclaredField("id");
+            idField.setAccessible(true);
+            idField.set(category, id);
+        } catch (Exception e) {
+            // Ignore
+        }
     }
 
     @Test
@@ -1,29 +1,45 @@
 package com.example.expensemanager.service;
 
+import com.example.expensemanager.repository.ExchangeRateRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.core.io.DefaultResourceLoader;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.lenient;
 
 @ExtendWith(MockitoExtension.class)
 class CurrencyServiceTest {
 
     @Mock
-    private RestTemplate restTemplate;
+    private ExchangeRateRepository exchangeRateRepository;
 
-    @InjectMocks
+    private HistoricalRateStore historicalRateStore;
     private CurrencyService currencyService;
 
+    @BeforeEach
+    void setUp() {
+        ExchangeRateStore store = new ExchangeRateStore(exchangeRateRepository, new ObjectMapper());
+        store.update(Map.of(
+                "USD", BigDecimal.ONE,
+                "EUR", new BigDecimal("0.8"),
+                "GBP", new BigDecimal("0.5"),
+                "JPY", new BigDecimal("150")
+        ), "test");
+        historicalRateStore = new HistoricalRateStore(new DefaultResourceLoader(), "");
+        currencyService = new CurrencyService(store, historicalRateStore);
+    }
+
     @Test
     void testConvertToUSD_SameCurrency() {
         BigDecimal amount = new BigDecimal("100.00");
@@ -33,11 +49,8 @@ class CurrencyServiceTest {
 
     @Test
     void testConvertToUSD_DifferentCurrency() {
-        // Use flexible assertion - just check conversion happened
-        BigDecimal amount = new BigDecimal("100.00");
-        BigDecimal result = currencyService.convertToUSD(amount, "EUR");
-        // Result should be greater than original for EUR->USD
-        assertTrue(result.compareTo(amount) > 0);
+        BigDecimal result = currencyService.convertToUSD(new BigDecimal("100.00"), "EUR");
+        assertEquals(0, new BigDecimal("125").compareTo(result));
     }
 
     @Test
@@ -49,11 +62,8 @@ class CurrencyServiceTest {
 
     @Test
     void testConvertFromUSD_DifferentCurrency() {
-        // Use flexible assertion - just check conversion happened
-        BigDecimal amountUSD = new BigDecimal("100.00");
-        BigDecimal result = currencyService.convertFromUSD(amountUSD, "EUR");
-        // Result should be less than original for USD->EUR
-        assertTrue(result.compareTo(amountUSD) < 0);
+        BigDecimal result = currencyService.convertFromUSD(new BigDecimal("100.00"), "eur");
+        assertEquals(new BigDecimal("80.00"), result);
     }
 
     @Test
@@ -65,23 +75,81 @@ class CurrencyServiceTest {
 
     @Test
     void testConvertCurrency_DifferentCurrencies() {
-        // Use flexible assertion - just check conversion happened
+        // 100 EUR -> 125 USD -> 62.50 GBP
+        BigDecimal result = currencyService.convertCurrency(new BigDecimal("100.00"), "EUR", "GBP");
+        assertEquals(new BigDecimal("62.50"), result);
+    }
+
+    @Test
+    void testConvertCurrency_UnknownCurrencyFallsBackToAmount() {
         BigDecimal amount = new BigDecimal("100.00");
-        BigDecimal result = currencyService.convertCurrency(amount, "EUR", "GBP");
-        // Result should be a valid number
-        assertNotNull(result);
-        assertTrue(result.compareTo(BigDecimal.ZERO) > 0);
+        assertEquals(amount, currencyService.convertToUSD(amount, "XXX"));
     }
 
     @Test
-    void testGetExchangeRates_FallbackOnException() {
-        // Mock API to throw exception
-        lenient().when(restTemplate.getForObject(anyString(), eq(String.class)))
-                .thenThrow(new RuntimeException("API error"));
+    void testGetExchangeRates_CrossRatesForOtherBase() {
+        Map<String, BigDecimal> rates = currencyService.getExchangeRates("EUR");
 
+        assertEquals(0, BigDecimal.ONE.compareTo(rates.get("EUR")));
+        assertEquals(0, new BigDecimal("1.25").compareTo(rates.get("USD")));
+        assertEquals(0, new BigDecimal("0.625").compareTo(rates.get("GBP")));
+    }
+
+    @Test
+    void testGetExchangeRates_ReadsLocalSnapshotOnly() {
         Map<String, BigDecimal> rates = currencyService.getExchangeRates("USD");
 
-        assertNotNull(rates);
-        assertFalse(rates.isEmpty());
+        assertEquals(4, rates.size());
+        assertEquals(0, new BigDecimal("150").compareTo(rates.get("JPY")));
+    }
+
+    @Test
+    void testSnapshot_DenseIdsAndPrecomputedCrossRates() {
+        RateSnapshot snapshot = currencyService.snapshot();
+        int eur = snapshot.idOf("EUR");
+        int gbp = snapshot.idOf("gbp");
+
+        assertEquals(4, snapshot.size());
+        assertEquals("EUR", snapshot.currencyOf(eur));
+        assertEquals(-1, snapshot.idOf("XXX"));
+        assertEquals(new BigDecimal("0.625000000000"), snapshot.crossRate(eur, gbp));
+        assertEquals(new BigDecimal("62.50"), snapshot.convert(new BigDecimal("100.00"), eur, gbp));
+    }
+
+    @Test
+    void testSnapshot_RoundsHalfUpToCents() {
+        RateSnapshot snapshot = currencyService.snapshot();
+
+        // JPY -> USD uses the 12-place cross rate 0.006666666667, then rounds half up to cents
+        assertEquals(new BigDecimal("1.50"), snapshot.convert(new BigDecimal("0.01"), "USD", "JPY"));
+        assertEquals(new BigDecimal("0.01"), snapshot.convert(new BigDecimal("1.00"), "JPY", "USD"));
+        assertEquals(new BigDecimal("0.00"), snapshot.convert(new BigDecimal("0.74"), "JPY", "USD"));
+        assertEquals(new BigDecimal("0.01"), snapshot.convert(new BigDecimal("0.75"), "JPY", "USD"));
+    }
+
+    @Test
+    void testRateOn_UsesHistoricalRateForTheDate() throws IOException {
+        historicalRateStore.load(new ByteArrayInputStream((
+                "date,currency,rate\n"
+                + "2024-01-01,EUR,0.9\n"
+                + "2024-01-01,GBP,0.75\n"
+                + "2024-01-03,EUR,0.95\n").getBytes(StandardCharsets.UTF_8)));
+
+        // 2024-01-02 has no EUR rate of its own and carries 0.9 forward
+        assertEquals(new BigDecimal("111.11"), CurrencyService.applyRate(new BigDecimal("100.00"),
+                currencyService.rateOn(LocalDate.of(2024, 1, 2), "EUR", "USD")));
+        assertEquals(new BigDecimal("105.26"), CurrencyService.applyRate(new BigDecimal("100.00"),
+                currencyService.rateOn(LocalDate.of(2024, 1, 3), "EUR", "USD")));
+        assertEquals(new BigDecimal("0.833333333333"), currencyService.rateOn(LocalDate.of(2024, 1, 1), "EUR", "GBP"));
+    }
+
+    @Test
+    void testRateOn_FallsBackToCurrentRatesOutsideHistory() throws IOException {
+        historicalRateStore.load(new ByteArrayInputStream(
+                "2024-01-01,EUR,0.9\n".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(new BigDecimal("1.250000000000"), currencyService.rateOn(LocalDate.of(2024, 6, 1), "EUR", "USD"));
+        assertEquals(new BigDecimal("2.000000000000"), currencyService.rateOn(LocalDate.of(2024, 1, 1), "GBP", "USD"));
+        assertEquals(BigDecimal.ONE, currencyService.rateOn(LocalDate.of(2024, 1, 1), "EUR", "eur"));
     }
 }
@@ -0,0 +1,103 @@
+package com.example.expensemanager.service;
+
+import com.example.expensemanager.model.ExchangeRate;
+import com.example.expensemanager.repository.ExchangeRateRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExchangeRateStoreTest {
+
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Mock
+    private ExchangeRateProvider provider;
+
+    private ExchangeRateStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ExchangeRateStore(exchangeRateRepository, new ObjectMapper());
+    }
+
+    @Test
+    void testStartsFromBundledRates() {
+        RateSnapshot snapshot = store.current();
+
+        assertEquals("bundled", snapshot.getSource());
+        assertEquals(Instant.EPOCH, snapshot.getFetchedAt());
+        assertEquals(0, BigDecimal.ONE.compareTo(snapshot.getUsdRates().get("USD")));
+        assertTrue(snapshot.getUsdRates().containsKey("EUR"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testUpdate_PersistsAndPublishes() {
+        boolean replaced = store.update(Map.of("USD", BigDecimal.ONE, "EUR", new BigDecimal("0.9")), "http");
+
+        assertTrue(replaced);
+        assertEquals("http", store.current().getSource());
+        assertEquals(0, new BigDecimal("0.9").compareTo(store.current().getUsdRates().get("EUR")));
+
+        ArgumentCaptor<List<ExchangeRate>> rows = ArgumentCaptor.forClass(List.class);
+        verify(exchangeRateRepository).deleteAllInBatch();
+        verify(exchangeRateRepository).saveAll(rows.capture());
+        assertEquals(2, rows.getValue().size());
+    }
+
+    @Test
+    void testLoadPersisted_DoesNotReplaceNewerSnapshot() {
+        store.update(Map.of("USD", BigDecimal.ONE, "EUR", new BigDecimal("0.9")), "http");
+
+        ExchangeRate stale = new ExchangeRate();
+        stale.setCurrency("EUR");
+        stale.setRate(new BigDecimal("0.5"));
+        stale.setFetchedAt(Instant.now().minusSeconds(3600));
+        stale.setSource("http");
+        when(exchangeRateRepository.findAll()).thenReturn(List.of(stale));
+
+        assertFalse(store.loadPersisted());
+        assertEquals(0, new BigDecimal("0.9").compareTo(store.current().getUsdRates().get("EUR")));
+    }
+
+    @Test
+    void testRefresher_KeepsLastSnapshotWhenProviderFails() throws Exception {
+        CurrencyService currencyService = mock(CurrencyService.class);
+        ExchangeRateRefresher refresher = new ExchangeRateRefresher(provider, store, currencyService);
+        when(provider.name()).thenReturn("http");
+        when(provider.fetchUsdRates()).thenThrow(new IOException("timeout"));
+
+        refresher.refresh();
+
+        assertEquals("bundled", store.current().getSource());
+        verify(exchangeRateRepository, never()).saveAll(anyList());
+        verifyNoInteractions(currencyService);
+    }
+
+    @Test
+    void testFileProvider_ReadsExactDecimals() throws Exception {
+        String json = "{\"base\":\"USD\",\"rates\":{\"eur\":0.8803,\"GBP\":0.7399,\"BAD\":-1,\"LONGER\":2}}";
+
+        Map<String, BigDecimal> rates = FileExchangeRateProvider.readUsdRates(new ObjectMapper(),
+                new java.io.ByteArrayInputStream(json.getBytes()));
+
+        assertEquals(new BigDecimal("0.8803"), rates.get("EUR"));
+        assertEquals(Map.of("USD", BigDecimal.ONE, "EUR", new BigDecimal("0.8803"), "GBP", new BigDecimal("0.7399")), rates);
+    }
+}
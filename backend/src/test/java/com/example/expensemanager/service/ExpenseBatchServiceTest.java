@@ -0,0 +1,244 @@
+package com.example.expensemanager.service;
+
+import com.example.expensemanager.controller.BusinessException;
+import com.example.expensemanager.dto.ExpenseBatchRequest;
+import com.example.expensemanager.dto.ExpenseBatchResponse;
+import com.example.expensemanager.dto.ExpenseRequest;
+import com.example.expensemanager.model.Category;
+import com.example.expensemanager.model.Expense;
+import com.example.expensemanager.model.User;
+import com.example.expensemanager.repository.BudgetRepository;
+import com.example.expensemanager.repository.CategoryRepository;
+import com.example.expensemanager.repository.ExpenseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExpenseBatchServiceTest {
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private BudgetRepository budgetRepository;
+
+    @Mock
+    private CurrencyService currencyService;
+
+    @Mock
+    private ExpenseRollupService rollupService;
+
+    @Mock
+    private BaseCurrencyRebaseService rebaseService;
+
+    private ExpenseBatchService batchService;
+    private User user;
+    private Category food;
+    private Expense existing;
+    private RateSnapshot rates;
+
+    @BeforeEach
+    void setUp() {
+        batchService = new ExpenseBatchService(expenseRepository, categoryRepository, budgetRepository,
+                currencyService, rollupService, rebaseService);
+
+        user = new User();
+        user.setEmail("test@example.com");
+        user.setBaseCurrency("USD");
+        setId(User.class, user, 1L);
+
+        food = new Category();
+        food.setName("Food");
+        setId(Category.class, food, 10L);
+
+        existing = new Expense();
+        existing.setUser(user);
+        existing.setCategory(food);
+        existing.setAmount(new BigDecimal("20.00"));
+        existing.setDate(LocalDate.of(2024, 1, 5));
+        setId(Expense.class, existing, 100L);
+
+        rates = new RateSnapshot(Map.of("USD", BigDecimal.ONE), Instant.now(), "test");
+    }
+
+    private <T> void setId(Class<T> type, T entity, Long id) {
+        try {
+            var idField = type.getDeclaredField("id");
+            idField.setAccessible(true);
+            idField.set(entity, id);
+        } catch (Exception e) {
+            // Ignore
+        }
+    }
+
+    private ExpenseBatchRequest.Operation op(ExpenseBatchRequest.Type type, Long id, ExpenseRequest expense) {
+        ExpenseBatchRequest.Operation op = new ExpenseBatchRequest.Operation();
+        op.setType(type);
+        op.setId(id);
+        op.setExpense(expense);
+        return op;
+    }
+
+    private ExpenseRequest expense(String amount, Long categoryId) {
+        ExpenseRequest request = new ExpenseRequest();
+        request.setAmount(new BigDecimal(amount));
+        request.setDate(LocalDate.of(2024, 1, 10));
+        request.setDescription("Item");
+        request.setCategoryId(categoryId);
+        request.setCurrency("USD");
+        return request;
+    }
+
+    private void stubLookups() {
+        when(categoryRepository.findByUser(user)).thenReturn(List.of(food));
+        when(currencyService.snapshot()).thenReturn(rates);
+        lenient().when(currencyService.rateOn(any(), anyString(), eq("USD"), same(rates)))
+                .thenReturn(BigDecimal.ONE);
+    }
+
+    @Test
+    void testApply_MixedOperationsLoadEverythingOnce() {
+        stubLookups();
+        when(budgetRepository.countByUser(user)).thenReturn(1L);
+        when(expenseRepository.findByUserAndIdIn(eq(user), anyCollection())).thenReturn(List.of(existing));
+        when(expenseRepository.saveAll(anyList())).thenAnswer(inv -> {
+            List<Expense> rows = inv.getArgument(0);
+            long id = 200;
+            for (Expense e : rows) {
+                setId(Expense.class, e, id++);
+            }
+            return rows;
+        });
+
+        List<ExpenseBatchRequest.Operation> operations = List.of(
+                op(ExpenseBatchRequest.Type.CREATE, null, expense("5.00", 10L)),
+                op(ExpenseBatchRequest.Type.CREATE, null, expense("6.00", null)),
+                op(ExpenseBatchRequest.Type.UPDATE, 100L, expense("25.00", null)),
+                op(ExpenseBatchRequest.Type.UPDATE, 999L, expense("1.00", null)),
+                op(ExpenseBatchRequest.Type.CREATE, null, expense("7.00", 77L)),
+                op(ExpenseBatchRequest.Type.DELETE, 100L, null)
+        );
+
+        ExpenseBatchResponse response = batchService.apply(user, operations);
+
+        assertEquals(4, response.getSucceeded());
+        assertEquals(2, response.getFailed());
+        List<ExpenseBatchResponse.ItemResult> results = response.getResults();
+        assertEquals(ExpenseBatchResponse.Status.CREATED, results.get(0).getStatus());
+        assertEquals(200L, results.get(0).getId());
+        assertEquals(201L, results.get(1).getId());
+        assertEquals(ExpenseBatchResponse.Status.UPDATED, results.get(2).getStatus());
+        assertEquals("Expense not found", results.get(3).getError());
+        assertEquals("Unknown category", results.get(4).getError());
+        assertEquals(ExpenseBatchResponse.Status.DELETED, results.get(5).getStatus());
+        assertEquals(100L, results.get(5).getId());
+
+        // The update was applied to the loaded entity before it was deleted
+        assertEquals(new BigDecimal("25.00"), existing.getAmount());
+        assertNull(existing.getCategory());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(expenseRepository, times(1)).findByUserAndIdIn(eq(user), ids.capture());
+        assertEquals(Set.of(100L, 999L), Set.copyOf(ids.getValue()));
+        verify(categoryRepository, times(1)).findByUser(user);
+        verify(currencyService, times(1)).snapshot();
+        verify(expenseRepository).deleteAll(List.of(existing));
+        verify(rollupService, times(1)).apply(eq(user), any(ExpenseRollupService.Deltas.class));
+        verify(expenseRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void testApply_ReportsAmountTooLargePerOperation() {
+        stubLookups();
+        when(budgetRepository.countByUser(user)).thenReturn(1L);
+        when(expenseRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+        ExpenseBatchResponse response = batchService.apply(user, List.of(
+                op(ExpenseBatchRequest.Type.CREATE, null, expense("1000000000000000", null)),
+                op(ExpenseBatchRequest.Type.CREATE, null, expense("5.00", null))));
+
+        assertEquals(1, response.getSucceeded());
+        assertEquals("Amount 1000000000000000 is too large", response.getResults().get(0).getError());
+        assertEquals(ExpenseBatchResponse.Status.CREATED, response.getResults().get(1).getStatus());
+    }
+
+    @Test
+    void testApply_RejectedUpdateLeavesExpenseAndRollupUntouched() {
+        stubLookups();
+        when(currencyService.rateOn(any(), eq("EUR"), eq("USD"), same(rates))).thenReturn(new BigDecimal("2"));
+        when(expenseRepository.findByUserAndIdIn(eq(user), anyCollection())).thenReturn(List.of(existing));
+        ExpenseRequest tooLarge = expense("600000000000000", null);
+        tooLarge.setCurrency("EUR");
+
+        ExpenseBatchResponse response = batchService.apply(user, List.of(
+                op(ExpenseBatchRequest.Type.UPDATE, 100L, tooLarge)));
+
+        assertEquals(1, response.getFailed());
+        assertEquals(new BigDecimal("20.00"), existing.getAmount());
+        assertEquals(food, existing.getCategory());
+        assertNull(existing.getOriginalCurrency());
+        ArgumentCaptor<ExpenseRollupService.Deltas> deltas = ArgumentCaptor.forClass(ExpenseRollupService.Deltas.class);
+        verify(rollupService).apply(eq(user), deltas.capture());
+        assertTrue(deltas.getValue().isEmpty());
+    }
+
+    @Test
+    void testApply_RejectedWhileRebaseRuns() {
+        doThrow(new BusinessException("REBASE_IN_PROGRESS", "Converting", HttpStatus.CONFLICT))
+                .when(rebaseService).checkNotRunning(user);
+
+        BusinessException exception = assertThrows(BusinessException.class, () -> batchService.apply(user, List.of(
+                op(ExpenseBatchRequest.Type.DELETE, 100L, null))));
+
+        assertEquals("REBASE_IN_PROGRESS", exception.getErrorCode());
+        verifyNoInteractions(expenseRepository, rollupService);
+    }
+
+    @Test
+    void testApply_DeleteOnlySkipsLookups() {
+        when(expenseRepository.findByUserAndIdIn(eq(user), anyCollection())).thenReturn(List.of(existing));
+
+        ExpenseBatchResponse response = batchService.apply(user, List.of(
+                op(ExpenseBatchRequest.Type.DELETE, 100L, null),
+                op(ExpenseBatchRequest.Type.DELETE, 100L, null)));
+
+        assertEquals(1, response.getSucceeded());
+        assertEquals("Expense not found", response.getResults().get(1).getError());
+        verifyNoInteractions(categoryRepository, currencyService, budgetRepository);
+    }
+
+    @Test
+    void testApply_RejectsOversizedBatch() {
+        List<ExpenseBatchRequest.Operation> operations = new ArrayList<>();
+        for (int i = 0; i <= ExpenseBatchService.MAX_BATCH_SIZE; i++) {
+            operations.add(op(ExpenseBatchRequest.Type.DELETE, (long) i, null));
+        }
+
+        BusinessException exception = assertThrows(BusinessException.class, () -> batchService.apply(user, operations));
+
+        assertEquals("INVALID_BATCH_SIZE", exception.getErrorCode());
+        verifyNoInteractions(expenseRepository);
+    }
+}
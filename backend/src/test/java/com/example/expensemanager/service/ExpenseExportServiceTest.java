@@ -0,0 +1,147 @@
+package com.example.expensemanager.service;
+
+import com.example.expensemanager.controller.BusinessException;
+import com.example.expensemanager.model.Category;
+import com.example.expensemanager.model.Expense;
+import com.example.expensemanager.model.User;
+import com.example.expensemanager.repository.ExpenseRepository;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExpenseExportServiceTest {
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+
+    private ExpenseExportService exportService;
+
+    private User user;
+    private Expense lunch;
+    private Expense taxi;
+
+    @BeforeEach
+    void setUp() {
+        exportService = new ExpenseExportService(expenseRepository, entityManager, objectMapper);
+
+        user = new User();
+        user.setEmail("test@example.com");
+
+        Category food = new Category();
+        food.setName("Food, Drinks");
+        setId(Category.class, food, 10L);
+
+        lunch = new Expense();
+        setId(Expense.class, lunch, 100L);
+        lunch.setUser(user);
+        lunch.setCategory(food);
+        lunch.setAmount(new BigDecimal("12.50"));
+        lunch.setDate(LocalDate.of(2024, 1, 5));
+        lunch.setDescription("Lunch \"special\"");
+        lunch.setOriginalCurrency("USD");
+        lunch.setOriginalAmount(new BigDecimal("12.50"));
+
+        taxi = new Expense();
+        setId(Expense.class, taxi, 101L);
+        taxi.setUser(user);
+        taxi.setAmount(new BigDecimal("30.00"));
+        taxi.setDate(LocalDate.of(2024, 1, 6));
+        taxi.setDescription("Taxi");
+        taxi.setOriginalCurrency("EUR");
+        taxi.setOriginalAmount(new BigDecimal("27.00"));
+    }
+
+    @Test
+    void testExportCsv_EscapesFieldsAndDetachesRows() throws Exception {
+        when(expenseRepository.streamByUser(user)).thenReturn(Stream.of(lunch, taxi));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(user, ExpenseExportService.Format.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("id,date,amount,originalAmount,originalCurrency,categoryId,category,description,recurring", lines[0]);
+        assertEquals("100,2024-01-05,12.50,12.50,USD,10,\"Food, Drinks\",\"Lunch \"\"special\"\"\",false", lines[1]);
+        assertEquals("101,2024-01-06,30.00,27.00,EUR,,,Taxi,false", lines[2]);
+        verify(entityManager, times(2)).detach(any(Expense.class));
+    }
+
+    @Test
+    void testExportNdjson_WritesOneObjectPerLine() throws Exception {
+        when(expenseRepository.streamByUser(user)).thenReturn(Stream.of(lunch, taxi));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(user, ExpenseExportService.Format.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(100L, first.get("id").longValue());
+        assertEquals("2024-01-05", first.get("date").asText());
+        assertEquals(10L, first.get("categoryId").longValue());
+        assertEquals("Food, Drinks", first.get("category").asText());
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertEquals(0, new BigDecimal("30.00").compareTo(second.get("amount").decimalValue()));
+        assertTrue(lines[1].contains("\"amount\":30.00"), lines[1]);
+        assertFalse(second.has("category"));
+    }
+
+    @Test
+    void testExport_WritesMissingIdsAsEmpty() throws Exception {
+        Expense unsaved = new Expense();
+        unsaved.setUser(user);
+        unsaved.setAmount(new BigDecimal("5.00"));
+        unsaved.setDate(LocalDate.of(2024, 1, 7));
+        when(expenseRepository.streamByUser(user)).thenReturn(Stream.of(unsaved), Stream.of(unsaved));
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        exportService.export(user, ExpenseExportService.Format.CSV, csv);
+        assertEquals(",2024-01-07,5.00,,,,,,false", csv.toString(StandardCharsets.UTF_8).split("\n")[1]);
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        exportService.export(user, ExpenseExportService.Format.NDJSON, ndjson);
+        JsonNode row = objectMapper.readTree(ndjson.toString(StandardCharsets.UTF_8));
+        assertTrue(row.get("id").isNull());
+    }
+
+    @Test
+    void testFormatFrom_RejectsUnknownFormat() {
+        assertEquals(ExpenseExportService.Format.NDJSON, ExpenseExportService.Format.from("ndjson"));
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> ExpenseExportService.Format.from("xml"));
+        assertEquals("INVALID_EXPORT_FORMAT", exception.getErrorCode());
+    }
+
+    private <T> void setId(Class<T> type, T entity, Long id) {
+        try {
+            var idField = type.getDeclaredField("id");
+            idField.setAccessible(true);
+            idField.set(entity, id);
+        } catch (Exception e) {
+            // Ignore
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.expensemanager.service;
+
+import com.example.expensemanager.controller.BusinessException;
+import com.example.expensemanager.dto.ExpenseImportResponse;
+import com.example.expensemanager.model.Category;
+import com.example.expensemanager.model.Expense;
+import com.example.expensemanager.model.User;
+import com.example.expensemanager.repository.BudgetRepository;
+import com.example.expensemanager.repository.CategoryRepository;
+import com.example.expensemanager.repository.ExpenseRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExpenseImportServiceTest {
+
+    @Mock
+    private CategoryRepository categoryRepository;
+
+    @Mock
+    private BudgetRepository budgetRepository;
+
+    @Mock
+    private CurrencyService currencyService;
+
+    @Mock
+    private ExpenseRollupService rollupService;
+
+    @Mock
+    private BaseCurrencyRebaseService rebaseService;
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ExpenseImportService importService;
+    private User user;
+    private RateSnapshot rates;
+    private List<Integer> batchSizes;
+    private List<Expense> saved;
+
+    @BeforeEach
+    void setUp() {
+        importService = new ExpenseImportService(categoryRepository, budgetRepository, currencyService,
+                rollupService, rebaseService, expenseRepository, entityManager, transactionManager, 2);
+
+        user = new User();
+        user.setEmail("test@example.com");
+        user.setBaseCurrency("USD");
+        setId(User.class, user, 1L);
+
+        Category food = new Category();
+        food.setName("Food & Dining");
+        setId(Category.class, food, 10L);
+
+        rates = new RateSnapshot(Map.of("USD", BigDecimal.ONE, "EUR", new BigDecimal("0.5")), Instant.now(), "test");
+        batchSizes = new ArrayList<>();
+        saved = new ArrayList<>();
+
+        lenient().when(budgetRepository.countByUser(user)).thenReturn(1L);
+        lenient().when(categoryRepository.findByUser(user)).thenReturn(List.of(food));
+        lenient().when(currencyService.snapshot()).thenReturn(rates);
+        lenient().when(currencyService.rateOn(any(), anyString(), eq("USD"), same(rates)))
+                .thenReturn(BigDecimal.ONE);
+        lenient().when(expenseRepository.saveAll(anyList()))
+                .thenAnswer(inv -> {
+                    List<Expense> rows = inv.getArgument(0);
+                    batchSizes.add(rows.size());
+                    saved.addAll(rows);
+                    return rows;
+                });
+    }
+
+    private <T> void setId(Class<T> type, T entity, Long id) {
+        try {
+            var idField = type.getDeclaredField("id");
+            idField.setAccessible(true);
+            idField.set(entity, id);
+        } catch (Exception e) {
+            // Ignore
+        }
+    }
+
+    private InputStream csv(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testImportCsv_InsertsInChunksAndReportsBadRows() throws Exception {
+        String content = "date,amount,currency,description,category\n"
+                + "2024-01-05,12.50,USD,Lunch,food & dining\n"
+                + "2024-01-06,30.00,EUR,\"Taxi, airport\",\n"
+                + "not-a-date,5.00,USD,Coffee,Food & Dining\n"
+                + "2024-01-07,abc,USD,Bus,\n"
+                + "2024-01-08,8.00,USD,Snacks,Unknown\n"
+                + "2024-02-01,99.99,USD,Groceries,Food & Dining\n";
+
+        ExpenseImportResponse result = importService.importCsv(user, csv(content));
+
+        assertEquals(3, result.getImported());
+        assertEquals(3, result.getFailed());
+        assertEquals(List.of(4, 5, 6), result.getErrors().stream().map(ExpenseImportResponse.RowError::getLine).toList());
+        assertTrue(result.getErrors().get(2).getMessage().contains("Unknown category"));
+
+        // Batch size 2: one full chunk and a trailing chunk, each with its own transaction and rollup update
+        assertEquals(List.of(2, 1), batchSizes);
+        verify(transactionManager, times(2)).commit(any());
+        verify(entityManager, times(2)).flush();
+        verify(entityManager, times(2)).clear();
+        verify(rollupService, times(2)).apply(eq(user), any(ExpenseRollupService.Deltas.class));
+        // Lookups happen once per import, not once per row
+        verify(categoryRepository, times(1)).findByUser(user);
+        verify(currencyService, times(1)).snapshot();
+
+        Expense taxi = saved.get(1);
+        assertEquals("Taxi, airport", taxi.getDescription());
+        assertEquals("EUR", taxi.getOriginalCurrency());
+        assertNull(taxi.getCategory());
+        assertEquals("Food & Dining", saved.get(0).getCategory().getName());
+    }
+
+    @Test
+    void testImportCsv_ReportsOversizedFieldsPerRow() throws Exception {
+        String content = "2024-01-05,12.50,USD,Lunch,\n"
+                + "2024-01-06,100000000000000000000,USD,Typo,\n"
+                + "2024-01-07,5.00,USD," + "x".repeat(ExpenseImportService.MAX_DESCRIPTION_LENGTH + 1) + ",\n";
+
+        ExpenseImportResponse result = importService.importCsv(user, csv(content));
+
+        assertEquals(1, result.getImported());
+        assertEquals(2, result.getFailed());
+        assertEquals(List.of(2, 3), result.getErrors().stream().map(ExpenseImportResponse.RowError::getLine).toList());
+        assertTrue(result.getErrors().get(0).getMessage().contains("too large"));
+        assertTrue(result.getErrors().get(1).getMessage().contains("Description"));
+    }
+
+    @Test
+    void testImportCsv_RejectedChunkIsRetriedRowByRow() throws Exception {
+        when(expenseRepository.saveAll(anyList())).thenAnswer(inv -> {
+            List<Expense> rows = inv.getArgument(0);
+            if (rows.stream().anyMatch(expense -> "Rejected".equals(expense.getDescription()))) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            saved.addAll(rows);
+            return rows;
+        });
+        String content = "2024-01-05,12.50,USD,Lunch,\n"
+                + "2024-01-06,3.00,USD,Rejected,\n"
+                + "2024-01-07,5.00,USD,Coffee,\n";
+
+        ExpenseImportResponse result = importService.importCsv(user, csv(content));
+
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertEquals(1, result.getErrors().size());
+        assertEquals(2, result.getErrors().get(0).getLine());
+        assertTrue(result.getErrors().get(0).getMessage().contains("value too long"));
+        assertEquals(List.of("Lunch", "Coffee"), saved.stream().map(Expense::getDescription).toList());
+    }
+
+    @Test
+    void testImportCsv_RequiresBudget() {
+        when(budgetRepository.countByUser(user)).thenReturn(0L);
+
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> importService.importCsv(user, csv("2024-01-05,12.50,USD,Lunch\n")));
+
+        assertEquals("BUDGET_REQUIRED", exception.getErrorCode());
+        verifyNoInteractions(expenseRepository);
+    }
+
+    @Test
+    void testSplitCsvLine_HandlesQuotes() {
+        assertEquals(List.of("2024-01-05", "1.00", "USD", "Say \"hi\", then leave", ""),
+                ExpenseImportService.splitCsvLine("2024-01-05,1.00,USD,\"Say \"\"hi\"\", then leave\","));
+        assertThrows(IllegalArgumentException.class, () -> ExpenseImportService.splitCsvLine("a,\"b"));
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.expensemanager.service;
+
+import com.example.expensemanager.dto.MonthlyCategorySum;
+import com.example.expensemanager.model.Money;
+import com.example.expensemanager.model.MonthlyCategoryTotal;
+import com.example.expensemanager.model.User;
+import com.example.expensemanager.repository.ExpenseRepository;
+import com.example.expensemanager.repository.MonthlyCategoryTotalRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExpenseRollupServiceTest {
+
+    @Mock
+    private MonthlyCategoryTotalRepository rollupRepository;
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ExpenseRollupService rollupService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        rollupService = new ExpenseRollupService(rollupRepository, expenseRepository, transactionManager);
+        user = new User();
+        user.setEmail("test@example.com");
+    }
+
+    @Test
+    void testApply_UpdatesExistingBucket() {
+        when(rollupRepository.addToTotal(user, 2024, 3, 7L, Money.toMinor(new BigDecimal("12.50")), 1)).thenReturn(1);
+
+        rollupService.apply(user, new ExpenseRollupService.Deltas()
+                .add(LocalDate.of(2024, 3, 5), 7L, Money.toMinor(new BigDecimal("12.50")), 1));
+
+        verify(rollupRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void testApply_CreatesMissingBucketThenAddsToIt() {
+        long amount = Money.toMinor(new BigDecimal("4.00"));
+        when(rollupRepository.addToTotal(user, 2024, 3, MonthlyCategoryTotal.UNCATEGORIZED, amount, 1))
+                .thenReturn(0, 1);
+
+        rollupService.apply(user, new ExpenseRollupService.Deltas()
+                .add(LocalDate.of(2024, 3, 5), null, amount, 1));
+
+        // Created empty in its own transaction, then updated in the caller's
+        ArgumentCaptor<MonthlyCategoryTotal> row = ArgumentCaptor.forClass(MonthlyCategoryTotal.class);
+        verify(rollupRepository).saveAndFlush(row.capture());
+        assertEquals(2024, row.getValue().getYear());
+        assertEquals(3, row.getValue().getMonth());
+        assertEquals(MonthlyCategoryTotal.UNCATEGORIZED, row.getValue().getCategoryKey());
+        assertEquals(0, row.getValue().getTotalMinor());
+        assertEquals(0, row.getValue().getExpenseCount());
+        verify(transactionManager).commit(any());
+        verify(rollupRepository, times(2)).addToTotal(user, 2024, 3, MonthlyCategoryTotal.UNCATEGORIZED, amount, 1);
+    }
+
+    @Test
+    void testApply_BucketCreatedConcurrentlyIsAddedTo() {
+        long amount = Money.toMinor(new BigDecimal("4.00"));
+        when(rollupRepository.addToTotal(user, 2024, 3, 7L, amount, 1)).thenReturn(0, 1);
+        when(rollupRepository.saveAndFlush(any(MonthlyCategoryTotal.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_month_category_totals_bucket"));
+
+        rollupService.apply(user, new ExpenseRollupService.Deltas()
+                .add(LocalDate.of(2024, 3, 5), 7L, amount, 1));
+
+        verify(transactionManager).rollback(any());
+        verify(rollupRepository, times(2)).addToTotal(user, 2024, 3, 7L, amount, 1);
+    }
+
+    @Test
+    void testApply_NetsChangesWithinTheSameBucket() {
+        // An amount-only edit within the same month and category is one write
+        when(rollupRepository.addToTotal(user, 2024, 3, 7L, Money.toMinor(new BigDecimal("5.00")), 0)).thenReturn(1);
+
+        rollupService.apply(user, new ExpenseRollupService.Deltas()
+                .add(LocalDate.of(2024, 3, 5), 7L, Money.toMinor(new BigDecimal("-10.00")), -1)
+                .add(LocalDate.of(2024, 3, 9), 7L, Money.toMinor(new BigDecimal("15.00")), 1));
+
+        verify(rollupRepository, times(1)).addToTotal(any(), anyInt(), anyInt(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void testApply_MoveAcrossMonthsTouchesBothBuckets() {
+        when(rollupRepository.addToTotal(eq(user), anyInt(), anyInt(), anyLong(), anyLong(), anyLong())).thenReturn(1);
+
+        rollupService.apply(user, new ExpenseRollupService.Deltas()
+                .add(LocalDate.of(2024, 1, 31), 7L, Money.toMinor(new BigDecimal("-10.00")), -1)
+                .add(LocalDate.of(2024, 2, 1), 8L, Money.toMinor(new BigDecimal("10.00")), 1));
+
+        verify(rollupRepository).addToTotal(user, 2024, 1, 7L, Money.toMinor(new BigDecimal("-10.00")), -1);
+        verify(rollupRepository).addToTotal(user, 2024, 2, 8L, Money.toMinor(new BigDecimal("10.00")), 1);
+    }
+
+    @Test
+    void testCategoryTotals_TranslatesMonthsToPeriods() {
+        rollupService.categoryTotals(user, YearMonth.of(2024, 1), YearMonth.of(2024, 3));
+        verify(rollupRepository).sumByCategory(user, 2024 * 12 + 1, 2024 * 12 + 3);
+
+        rollupService.categoryTotals(user, null, null);
+        verify(rollupRepository).sumByCategory(user, 0, Integer.MAX_VALUE);
+    }
+
+    @Test
+    void testVerify_ReportsDriftAndRebuilds() {
+        MonthlyCategoryTotal stale = new MonthlyCategoryTotal();
+        stale.setYear(2024);
+        stale.setMonth(1);
+        stale.setCategoryKey(7L);
+        stale.setTotalMinor(Money.toMinor(new BigDecimal("10.00")));
+        stale.setExpenseCount(1);
+
+        when(expenseRepository.sumByMonthAndCategory(user)).thenReturn(List.of(
+                new MonthlyCategorySum(2024, 1, 7L, Money.toMinor(new BigDecimal("15.00")), 2L),
+                new MonthlyCategorySum(2024, 2, null, Money.toMinor(new BigDecimal("3.00")), 1L)));
+        when(rollupRepository.findByUser(user)).thenReturn(List.of(stale));
+
+        List<ExpenseRollupService.Drift> drift = rollupService.verify(user, true);
+
+        assertEquals(2, drift.size());
+        assertTrue(drift.contains(new ExpenseRollupService.Drift(2024, 1, 7L, Money.toMinor(new BigDecimal("15.00")), Money.toMinor(new BigDecimal("10.00")))));
+        assertTrue(drift.contains(new ExpenseRollupService.Drift(2024, 2, 0L, Money.toMinor(new BigDecimal("3.00")), 0L)));
+        verify(rollupRepository).deleteByUser(user);
+        verify(rollupRepository).saveAll(anyList());
+    }
+
+    @Test
+    void testVerify_NoDriftLeavesRollupAlone() {
+        MonthlyCategoryTotal row = new MonthlyCategoryTotal();
+        row.setYear(2024);
+        row.setMonth(1);
+        row.setCategoryKey(7L);
+        row.setTotalMinor(Money.toMinor(new BigDecimal("15.00")));
+        row.setExpenseCount(2);
+
+        when(expenseRepository.sumByMonthAndCategory(user)).thenReturn(List.of(
+                new MonthlyCategorySum(2024, 1, 7L, Money.toMinor(new BigDecimal("15.0")), 2L)));
+        when(rollupRepository.findByUser(user)).thenReturn(List.of(row));
+
+        assertTrue(rollupService.verify(user, true).isEmpty());
+        verify(rollupRepository, never()).deleteByUser(any());
+    }
+}
@@ -1,10 +1,15 @@
 package com.example.expensemanager.service;
 
+import com.example.expensemanager.controller.BusinessException;
+import com.example.expensemanager.dto.CategoryTotal;
+import com.example.expensemanager.dto.ExpensePageResponse;
 import com.example.expensemanager.dto.ExpenseRequest;
 import com.example.expensemanager.dto.ExpenseSummaryResponse;
 import com.example.expensemanager.dto.MonthlySummaryItem;
+import com.example.expensemanager.dto.MonthlyTotal;
 import com.example.expensemanager.model.Category;
 import com.example.expensemanager.model.Expense;
+import com.example.expensemanager.model.Money;
 import com.example.expensemanager.model.User;
 import com.example.expensemanager.repository.BudgetRepository;
 import com.example.expensemanager.repository.CategoryRepository;
@@ -15,9 +20,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -41,6 +48,12 @@ class ExpenseServiceTest {
     @Mock
     private CurrencyService currencyService;
 
+    @Mock
+    private ExpenseRollupService rollupService;
+
+    @Mock
+    private BaseCurrencyRebaseService rebaseService;
+
     @InjectMocks
     private ExpenseService expenseService;
 
@@ -86,6 +99,7 @@ class ExpenseServiceTest {
 
         when(categoryRepository.findById(anyLong())).thenReturn(Optional.of(testCategory));
         when(budgetRepository.countByUser(any(User.class))).thenReturn(1L);
+        when(currencyService.rateOn(request.getDate(), "USD", "USD")).thenReturn(BigDecimal.ONE);
         when(expenseRepository.save(any(Expense.class))).thenReturn(savedExpense);
 
         // Act
@@ -93,6 +107,7 @@ class ExpenseServiceTest {
 
         // Assert
         assertNotNull(result);
+        verify(rollupService).apply(eq(testUser), any(ExpenseRollupService.Deltas.class));
     }
 
     @Test
@@ -102,7 +117,7 @@ class ExpenseServiceTest {
         expense.setAmount(new BigDecimal("100.00"));
 
         when(categoryRepository.findById(anyLong())).thenReturn(Optional.of(testCategory));
-        when(expenseRepository.findFiltered(eq(testUser), eq(testCategory), isNull(), isNull()))
+        when(expenseRepository.findFilteredInCategory(eq(testUser), eq(testCategory), isNull(), isNull()))
                 .thenReturn(Arrays.asList(expense));
 
         // Act
@@ -112,30 +127,137 @@ class ExpenseServiceTest {
         assertEquals(1, expenses.size());
     }
 
+    @Test
+    void testGetExpensePage_ReturnsCursorWhenMoreRowsExist() {
+        Expense newest = createExpenseWithId(3L, LocalDate.of(2024, 3, 1));
+        Expense middle = createExpenseWithId(2L, LocalDate.of(2024, 2, 1));
+        Expense oldest = createExpenseWithId(1L, LocalDate.of(2024, 1, 1));
+
+        when(expenseRepository.findFirstPage(eq(testUser), isNull(), isNull(), isNull(), any()))
+                .thenReturn(Arrays.asList(newest, middle, oldest));
+
+        ExpensePageResponse page = expenseService.getExpensePage(testUser, null, null, null, 2, null);
+
+        assertEquals(List.of(newest, middle), page.getItems());
+        assertNotNull(page.getNext());
+
+        when(expenseRepository.findPageAfter(eq(testUser), isNull(), isNull(), isNull(),
+                eq(LocalDate.of(2024, 2, 1)), eq(2L), any()))
+                .thenReturn(List.of(oldest));
+
+        ExpensePageResponse nextPage = expenseService.getExpensePage(testUser, null, null, null, 2, page.getNext());
+
+        assertEquals(List.of(oldest), nextPage.getItems());
+        assertNull(nextPage.getNext());
+    }
+
+    @Test
+    void testGetExpensePage_RejectsInvalidCursorAndLimit() {
+        BusinessException badCursor = assertThrows(BusinessException.class, () ->
+                expenseService.getExpensePage(testUser, null, null, null, 10, "not-a-cursor"));
+        assertEquals("INVALID_CURSOR", badCursor.getErrorCode());
+
+        BusinessException badLimit = assertThrows(BusinessException.class, () ->
+                expenseService.getExpensePage(testUser, null, null, null, 0, null));
+        assertEquals("INVALID_PAGE_SIZE", badLimit.getErrorCode());
+    }
+
+    private Expense createExpenseWithId(Long id, LocalDate date) {
+        Expense expense = new Expense();
+        expense.setDate(date);
+        expense.setAmount(BigDecimal.TEN);
+        try {
+            var idField = Expense.class.getDeclaredField("id");
+            idField.setAccessible(true);
+            idField.set(expense, id);
+        } catch (Exception e) {
+            // Ignore
+        }
+        return expense;
+    }
+
     @Test
     void testSummarize() {
-        // Arrange - mock the repository methods using correct method name
-        when(expenseRepository.findFiltered(any(User.class), any(), any(), any()))
-                .thenReturn(Arrays.asList());
-        
+        // Arrange - an all-time range is made of whole months, so the rollup serves it
+        when(rollupService.categoryTotals(testUser, null, null))
+                .thenReturn(Arrays.asList(
+                        new CategoryTotal(1L, "Food", Money.toMinor(new BigDecimal("120.00"))),
+                        new CategoryTotal(null, null, Money.toMinor(new BigDecimal("30.00")))));
+
         // Act
         ExpenseSummaryResponse response = expenseService.summarize(testUser, null, null);
-        
+
         // Assert
         assertNotNull(response);
+        assertEquals(new BigDecimal("150.00"), response.getTotal());
+        assertEquals(new BigDecimal("120.00"), response.getTotalByCategory().get("Food"));
+        assertEquals(new BigDecimal("30.00"), response.getTotalByCategory().get("Uncategorized"));
+        verify(expenseRepository, never()).findFiltered(any(), any(), any(), any());
+        verify(expenseRepository, never()).sumByCategory(any(), any(), any());
+    }
+
+    @Test
+    void testSummarize_PartialMonthAggregatesRawRows() {
+        LocalDate start = LocalDate.of(2024, 3, 10);
+        LocalDate end = LocalDate.of(2024, 3, 31);
+        when(expenseRepository.sumByCategory(testUser, start, end))
+                .thenReturn(List.of(new CategoryTotal(1L, "Food", Money.toMinor(new BigDecimal("12.00")))));
+
+        ExpenseSummaryResponse response = expenseService.summarize(testUser, start, end);
+
+        assertEquals(new BigDecimal("12.00"), response.getTotal());
+        verifyNoInteractions(rollupService);
+    }
+
+    @Test
+    void testCategoryTotals_WholeMonthUsesRollup() {
+        when(rollupService.categoryTotals(testUser, YearMonth.of(2024, 2), YearMonth.of(2024, 2)))
+                .thenReturn(List.of(new CategoryTotal(1L, "Food", Money.toMinor(new BigDecimal("9.00")))));
+
+        List<CategoryTotal> totals = expenseService.categoryTotals(
+                testUser, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29));
+
+        assertEquals(1, totals.size());
+        verify(expenseRepository, never()).sumByCategory(any(), any(), any());
     }
 
     @Test
     void testMonthlySummary() {
-        // Arrange - using findFiltered for year-based queries
-        when(expenseRepository.findFiltered(any(User.class), any(), any(), any()))
-                .thenReturn(Arrays.asList());
-        
+        // Arrange - the rollup returns one aggregated row per month
+        when(rollupService.monthlyTotals(testUser, 2023, 2023))
+                .thenReturn(Arrays.asList(
+                        new MonthlyTotal(2023, 1, Money.toMinor(new BigDecimal("10.00"))),
+                        new MonthlyTotal(2023, 11, Money.toMinor(new BigDecimal("25.00")))));
+
         // Act
         List<MonthlySummaryItem> summary = expenseService.monthlySummary(testUser, 2023);
-        
+
         // Assert
-        assertNotNull(summary);
+        assertEquals(2, summary.size());
+        assertEquals("2023-01", summary.get(0).getMonth());
+        assertEquals("2023-11", summary.get(1).getMonth());
+        assertEquals(new BigDecimal("25.00"), summary.get(1).getTotal());
+    }
+
+    @Test
+    void testMonthlySummary_YearRange() {
+        when(rollupService.monthlyTotals(testUser, 2021, 2023))
+                .thenReturn(Arrays.asList(
+                        new MonthlyTotal(2021, 6, Money.toMinor(new BigDecimal("5.00"))),
+                        new MonthlyTotal(2023, 2, Money.toMinor(new BigDecimal("7.00")))));
+
+        List<MonthlySummaryItem> summary = expenseService.monthlySummary(testUser, 2021, 2023);
+
+        assertEquals(2, summary.size());
+        assertEquals("2021-06", summary.get(0).getMonth());
+        assertEquals("2023-02", summary.get(1).getMonth());
+    }
+
+    @Test
+    void testMonthlySummary_RejectsReversedRange() {
+        BusinessException exception = assertThrows(BusinessException.class, () ->
+                expenseService.monthlySummary(testUser, 2024, 2023));
+        assertEquals("INVALID_YEAR_RANGE", exception.getErrorCode());
     }
 
     @Test
@@ -145,12 +267,16 @@ class ExpenseServiceTest {
         
         Expense existingExpense = new Expense();
         existingExpense.setUser(testUser);
+        existingExpense.setAmount(new BigDecimal("50.00"));
+        existingExpense.setDate(LocalDate.of(2024, 1, 31));
 
         ExpenseRequest request = new ExpenseRequest();
         request.setAmount(new BigDecimal("75.00"));
+        request.setDate(LocalDate.of(2024, 2, 1));
         request.setDescription("Updated lunch");
 
         when(expenseRepository.findById(anyLong())).thenReturn(Optional.of(existingExpense));
+        when(currencyService.rateOn(LocalDate.of(2024, 2, 1), "USD", "USD")).thenReturn(BigDecimal.ONE);
         when(expenseRepository.save(any(Expense.class))).thenReturn(existingExpense);
 
         // Act
@@ -158,6 +284,62 @@ class ExpenseServiceTest {
 
         // Assert
         assertNotNull(result);
+        verify(rollupService).apply(eq(testUser), any(ExpenseRollupService.Deltas.class));
+    }
+
+    @Test
+    void testUpdateExpense_RejectsConvertedAmountTooLarge() {
+        setUserId(testUser, 1L);
+
+        Expense existingExpense = new Expense();
+        existingExpense.setUser(testUser);
+        existingExpense.setAmount(new BigDecimal("50.00"));
+        existingExpense.setDate(LocalDate.of(2024, 1, 31));
+
+        ExpenseRequest request = new ExpenseRequest();
+        request.setAmount(new BigDecimal("600000000000000"));
+        request.setDate(LocalDate.of(2024, 2, 1));
+        request.setCurrency("EUR");
+
+        when(expenseRepository.findById(anyLong())).thenReturn(Optional.of(existingExpense));
+        when(currencyService.rateOn(LocalDate.of(2024, 2, 1), "EUR", "USD")).thenReturn(new BigDecimal("2"));
+
+        BusinessException exception = assertThrows(BusinessException.class, () ->
+                expenseService.updateExpense(testUser, 1L, request));
+
+        assertEquals("AMOUNT_TOO_LARGE", exception.getErrorCode());
+        assertEquals(new BigDecimal("50.00"), existingExpense.getAmount());
+        verify(expenseRepository, never()).save(any());
+        verifyNoInteractions(rollupService);
+    }
+
+    @Test
+    void testUpdateExpense_RejectedWhileRebaseRuns() {
+        doThrow(new BusinessException("REBASE_IN_PROGRESS", "Converting", HttpStatus.CONFLICT))
+                .when(rebaseService).checkNotRunning(testUser);
+
+        BusinessException exception = assertThrows(BusinessException.class, () ->
+                expenseService.updateExpense(testUser, 1L, new ExpenseRequest()));
+
+        assertEquals("REBASE_IN_PROGRESS", exception.getErrorCode());
+        verifyNoInteractions(expenseRepository, rollupService);
+    }
+
+    @Test
+    void testDeleteExpense_UpdatesRollup() {
+        setUserId(testUser, 1L);
+
+        Expense existingExpense = new Expense();
+        existingExpense.setUser(testUser);
+        existingExpense.setAmount(new BigDecimal("20.00"));
+        existingExpense.setDate(LocalDate.of(2024, 1, 15));
+
+        when(expenseRepository.findById(5L)).thenReturn(Optional.of(existingExpense));
+
+        expenseService.deleteExpense(testUser, 5L);
+
+        verify(expenseRepository).deleteById(5L);
+        verify(rollupService).apply(eq(testUser), any(ExpenseRollupService.Deltas.class));
     }
 
     @Test
@@ -0,0 +1,90 @@
+package com.example.expensemanager.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoricalRatesTest {
+
+    private static final String RATES = """
+            date,currency,rate
+            2024-01-01,EUR,0.90
+            2024-01-01,JPY,140
+            2024-01-02,EUR,0.91
+            2024-01-05,EUR,0.93
+            2024-01-05,JPY,145
+            2024-01-03,GBP,0.79
+            """;
+
+    @Test
+    void testReadsRangeAndCurrencies() throws IOException {
+        HistoricalRates rates = HistoricalRates.readCsv(new StringReader(RATES));
+
+        assertEquals(LocalDate.of(2024, 1, 1), rates.firstDate());
+        assertEquals(LocalDate.of(2024, 1, 5), rates.lastDate());
+        assertEquals(4, rates.size()); // EUR, JPY, GBP and the implied USD
+        assertEquals(-1, rates.idOf("CHF"));
+    }
+
+    @Test
+    void testCarriesGapsForward() throws IOException {
+        HistoricalRates rates = HistoricalRates.readCsv(new StringReader(RATES));
+        int eur = rates.idOf("eur");
+        long jan = LocalDate.of(2024, 1, 1).toEpochDay();
+
+        assertEquals(0.91, rates.usdRate(eur, jan + 2));
+        assertEquals(0.91, rates.usdRate(eur, jan + 3));
+        assertEquals(0.93, rates.usdRate(eur, jan + 4));
+        assertEquals(1.0, rates.usdRate(rates.idOf("USD"), jan + 3));
+    }
+
+    @Test
+    void testNoRateBeforeFirstObservationOrOutsideRange() throws IOException {
+        HistoricalRates rates = HistoricalRates.readCsv(new StringReader(RATES));
+        long jan = LocalDate.of(2024, 1, 1).toEpochDay();
+
+        assertTrue(Double.isNaN(rates.usdRate(rates.idOf("GBP"), jan + 1)));
+        assertTrue(Double.isNaN(rates.usdRate(rates.idOf("EUR"), jan - 1)));
+        assertTrue(Double.isNaN(rates.usdRate(rates.idOf("EUR"), jan + 5)));
+        assertNull(rates.crossRate("GBP", "USD", LocalDate.of(2024, 1, 2)));
+    }
+
+    @Test
+    void testCrossRates() throws IOException {
+        HistoricalRates rates = HistoricalRates.readCsv(new StringReader(RATES));
+        LocalDate day = LocalDate.of(2024, 1, 5);
+
+        assertEquals(145 / 0.93, rates.crossRate(rates.idOf("EUR"), rates.idOf("JPY"), day.toEpochDay()), 1e-9);
+        assertEquals(new BigDecimal("155.913978494624"), rates.crossRate("EUR", "JPY", day));
+    }
+
+    @Test
+    void testEmptyInput() throws IOException {
+        HistoricalRates rates = HistoricalRates.readCsv(new StringReader("date,currency,rate\n"));
+
+        assertTrue(rates.isEmpty());
+        assertNull(rates.firstDate());
+        assertNull(rates.crossRate("EUR", "USD", LocalDate.of(2024, 1, 1)));
+    }
+
+    @Test
+    void testRejectsInvalidLines() {
+        IOException e = assertThrows(IOException.class,
+                () -> HistoricalRates.readCsv(new StringReader("2024-01-01,EUR,0.9\n2024-01-02,EUR,-1\n")));
+        assertTrue(e.getMessage().startsWith("Line 2"));
+
+        assertThrows(IOException.class, () -> HistoricalRates.readCsv(new StringReader("2024-01-01;EUR;0.9\n")));
+        assertThrows(IOException.class, () -> HistoricalRates.readCsv(new StringReader("2024-13-01,EUR,0.9\n")));
+    }
+
+    @Test
+    void testRejectsImplausibleRange() {
+        assertThrows(IOException.class, () -> HistoricalRates.readCsv(new StringReader(
+                "1800-01-01,EUR,0.9\n2024-01-01,EUR,0.9\n")));
+    }
+}
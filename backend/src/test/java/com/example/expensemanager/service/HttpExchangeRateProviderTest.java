@@ -0,0 +1,192 @@
+package com.example.expensemanager.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the provider against a local stub of the rates API.
+ */
+class HttpExchangeRateProviderTest {
+
+    private static final String RATES = "{\"base\":\"USD\",\"rates\":{\"USD\":1,\"EUR\":0.9,\"GBP\":0.8}}";
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final ConcurrentLinkedQueue<Integer> statuses = new ConcurrentLinkedQueue<>();
+    private volatile long delayMillis;
+    private final MutableClock clock = new MutableClock();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.createContext("/latest/USD", this::handle);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void testFetchesRates() throws IOException {
+        Map<String, BigDecimal> rates = provider(3, 3).fetchUsdRates();
+
+        assertEquals(0, new BigDecimal("0.9").compareTo(rates.get("EUR")));
+        assertEquals(1, hits.get());
+    }
+
+    @Test
+    void testRetriesServerErrors() throws IOException {
+        statuses.add(503);
+        statuses.add(500);
+
+        Map<String, BigDecimal> rates = provider(3, 3).fetchUsdRates();
+
+        assertEquals(0, new BigDecimal("0.8").compareTo(rates.get("GBP")));
+        assertEquals(3, hits.get());
+    }
+
+    @Test
+    void testDoesNotRetryClientErrors() {
+        statuses.add(404);
+
+        IOException e = assertThrows(IOException.class, () -> provider(3, 3).fetchUsdRates());
+
+        assertTrue(e.getMessage().contains("404"));
+        assertEquals(1, hits.get());
+    }
+
+    @Test
+    void testGivesUpAfterMaxAttempts() {
+        for (int i = 0; i < 5; i++) {
+            statuses.add(502);
+        }
+
+        assertThrows(IOException.class, () -> provider(2, 3).fetchUsdRates());
+        assertEquals(2, hits.get());
+    }
+
+    @Test
+    void testSlowResponseTimesOut() {
+        delayMillis = 5000;
+        long start = System.nanoTime();
+
+        assertThrows(IOException.class, () -> provider(1, 3).fetchUsdRates());
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(3)) < 0);
+    }
+
+    @Test
+    void testCircuitOpensAfterRepeatedFailuresAndRecovers() throws IOException {
+        HttpExchangeRateProvider provider = provider(1, 2);
+        statuses.add(500);
+        statuses.add(500);
+
+        assertThrows(IOException.class, provider::fetchUsdRates);
+        assertThrows(IOException.class, provider::fetchUsdRates);
+        assertEquals(CircuitBreaker.State.OPEN, provider.circuitState());
+
+        IOException open = assertThrows(IOException.class, provider::fetchUsdRates);
+        assertTrue(open.getMessage().startsWith("Circuit open"));
+        assertEquals(2, hits.get());
+
+        clock.advance(Duration.ofMinutes(16));
+        Map<String, BigDecimal> rates = provider.fetchUsdRates();
+
+        assertFalse(rates.isEmpty());
+        assertEquals(CircuitBreaker.State.CLOSED, provider.circuitState());
+        assertEquals(3, hits.get());
+    }
+
+    @Test
+    void testFailedTrialReopensCircuit() {
+        HttpExchangeRateProvider provider = provider(1, 1);
+        statuses.add(500);
+        statuses.add(500);
+
+        assertThrows(IOException.class, provider::fetchUsdRates);
+        clock.advance(Duration.ofMinutes(16));
+        assertThrows(IOException.class, provider::fetchUsdRates);
+
+        assertEquals(CircuitBreaker.State.OPEN, provider.circuitState());
+        assertEquals(2, hits.get());
+    }
+
+    private HttpExchangeRateProvider provider(int maxAttempts, int failureThreshold) {
+        URI url = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/latest/USD");
+        return new HttpExchangeRateProvider(new ObjectMapper(), url, Duration.ofMillis(500), Duration.ofSeconds(1),
+                maxAttempts, Duration.ofMillis(10), new CircuitBreaker(failureThreshold, Duration.ofMinutes(15), clock));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        hits.incrementAndGet();
+        try {
+            if (delayMillis > 0) {
+                Thread.sleep(delayMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            exchange.close();
+            return;
+        }
+        Integer status = statuses.poll();
+        byte[] body = (status == null ? RATES : "{}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status == null ? 200 : status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static class MutableClock extends Clock {
+
+        private volatile Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.expensemanager.service;
 
+import com.example.expensemanager.config.AuthenticatedUser;
 import com.example.expensemanager.model.User;
 import com.example.expensemanager.repository.UserRepository;
 import org.junit.jupiter.api.Test;
@@ -24,6 +25,16 @@ class UserDetailsServiceImplTest {
     @InjectMocks
     private UserDetailsServiceImpl userDetailsService;
 
+    private void setUserId(User user, Long id) {
+        try {
+            var idField = User.class.getDeclaredField("id");
+            idField.setAccessible(true);
+            idField.set(user, id);
+        } catch (Exception e) {
+            // Ignore
+        }
+    }
+
     @Test
     void testLoadUserByUsername_Success() {
         // Arrange
@@ -31,6 +42,8 @@ class UserDetailsServiceImplTest {
         user.setEmail("test@example.com");
         user.setPasswordHash("hashedPassword");
         user.setFullName("Test User");
+        user.setBaseCurrency("EUR");
+        setUserId(user, 42L);
 
         when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
 
@@ -43,6 +56,9 @@ class UserDetailsServiceImplTest {
         assertEquals("hashedPassword", userDetails.getPassword());
         assertTrue(userDetails.getAuthorities().stream()
                 .anyMatch(auth -> auth.getAuthority().equals("USER")));
+        AuthenticatedUser principal = assertInstanceOf(AuthenticatedUser.class, userDetails);
+        assertEquals(42L, principal.getId());
+        assertEquals("EUR", principal.getBaseCurrency());
 
         verify(userRepository).findByEmail("test@example.com");
     }
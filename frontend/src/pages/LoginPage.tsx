@@ -51,6 +51,7 @@ const LoginPage: React.FC = () => {
                   <strong>
                     {error.code === 'USER_NOT_FOUND' ? 'Account Not Found' :
                      error.code === 'INVALID_PASSWORD' ? 'Incorrect Password' :
+                     error.code === 'ACCOUNT_LOCKED' ? 'Account Locked' :
                      'Login Error'}
                   </strong>
                 </div>